@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKOperations;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the DGK operations for a plaintext space of l bits.
+ * The single operations are measured per call, the array operations and the sum per batch.
+ * The lookup table is complete before the measurement, see {@link KeyGenerationBenchmark} for its build.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DGKBenchmark {
+    @Param({"2048", "3072"})
+    public int key_size;
+
+    @Param({"8", "16"})
+    public int l;
+
+    @Param({"16", "256"})
+    public int batch;
+
+    private DGKPublicKey public_key;
+    private DGKPrivateKey private_key;
+
+    private long x;
+    private BigInteger cx;
+    private BigInteger cy;
+    private long [] plaintexts;
+    private BigInteger [] ciphertexts;
+
+    @Setup(Level.Trial)
+    public void setup() throws HomomorphicException {
+        DGKKeyPairGenerator generator = new DGKKeyPairGenerator(l, 160, key_size);
+        KeyPair pair = generator.generateKeyPair();
+        public_key = (DGKPublicKey) pair.getPublic();
+        private_key = (DGKPrivateKey) pair.getPrivate();
+
+        // The sum of the batch must stay below u
+        int bits = Math.max(1, l - Integer.numberOfTrailingZeros(Integer.highestOneBit(batch)));
+        x = NTL.generateXBitRandom(bits).longValue();
+        cx = DGKOperations.encrypt(x, public_key);
+        cy = DGKOperations.encrypt(NTL.generateXBitRandom(bits), public_key);
+        plaintexts = new long[batch];
+        for (int i = 0; i < batch; i++) {
+            plaintexts[i] = NTL.generateXBitRandom(bits).longValue();
+        }
+        ciphertexts = DGKOperations.encrypt(plaintexts, public_key);
+
+        // Wait for the lookup table, so the decryptions are not measured against its build
+        DGKOperations.decrypt(DGKOperations.encrypt(public_key.getu() - 1, public_key), private_key);
+    }
+
+    @Benchmark
+    public BigInteger encrypt() throws HomomorphicException {
+        return DGKOperations.encrypt(x, public_key);
+    }
+
+    @Benchmark
+    public long decrypt() throws HomomorphicException {
+        return DGKOperations.decrypt(cx, private_key);
+    }
+
+    @Benchmark
+    public BigInteger add() throws HomomorphicException {
+        return DGKOperations.add(cx, cy, public_key);
+    }
+
+    @Benchmark
+    public BigInteger add_plaintext() throws HomomorphicException {
+        return DGKOperations.add_plaintext(cx, x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger multiply() throws HomomorphicException {
+        return DGKOperations.multiply(cx, x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger sum() throws HomomorphicException {
+        return DGKOperations.sum(ciphertexts, public_key);
+    }
+
+    @Benchmark
+    public BigInteger [] encrypt_batch() throws HomomorphicException {
+        return DGKOperations.encrypt(plaintexts, public_key);
+    }
+
+    @Benchmark
+    public long [] decrypt_batch() throws HomomorphicException {
+        return DGKOperations.decrypt(ciphertexts, private_key);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalCipher;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamal_Ciphertext;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the ElGamal operations on l-bit plaintexts.
+ * Encryption, decryption, addition and the sum use the additive key, where messages past the lookup table
+ * are decrypted with giant steps. Ciphertext multiplication uses a multiplicative copy of the public key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ElGamalBenchmark {
+    @Param({"1024", "2048"})
+    public int key_size;
+
+    @Param({"16", "24"})
+    public int l;
+
+    @Param({"16", "256"})
+    public int batch;
+
+    private ElGamalPublicKey public_key;
+    private ElGamalPrivateKey private_key;
+    private ElGamalPublicKey multiplicative_key;
+
+    private BigInteger x;
+    private ElGamal_Ciphertext cx;
+    private ElGamal_Ciphertext cy;
+    private ElGamal_Ciphertext mx;
+    private ElGamal_Ciphertext my;
+    private ElGamal_Ciphertext [] ciphertexts;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, ClassNotFoundException {
+        ElGamalKeyPairGenerator generator = new ElGamalKeyPairGenerator(true);
+        generator.initialize(key_size, null);
+        KeyPair pair = generator.generateKeyPair();
+        public_key = (ElGamalPublicKey) pair.getPublic();
+        private_key = (ElGamalPrivateKey) pair.getPrivate();
+        private_key.setMaxMessage(1L << l);
+        multiplicative_key = copy(public_key);
+        multiplicative_key.set_additive(false);
+
+        x = NTL.generateXBitRandom(l);
+        cx = ElGamalCipher.encrypt(x, public_key);
+        cy = ElGamalCipher.encrypt(NTL.generateXBitRandom(l), public_key);
+        mx = ElGamalCipher.encrypt(x, multiplicative_key);
+        my = ElGamalCipher.encrypt(NTL.generateXBitRandom(l), multiplicative_key);
+        ciphertexts = new ElGamal_Ciphertext[batch];
+        for (int i = 0; i < batch; i++) {
+            ciphertexts[i] = ElGamalCipher.encrypt(NTL.generateXBitRandom(l), public_key);
+        }
+    }
+
+    /**
+     * @return a deep copy of the key, so its mode can be changed without changing the original.
+     */
+    private static ElGamalPublicKey copy(ElGamalPublicKey key) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(key);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (ElGamalPublicKey) in.readObject();
+        }
+    }
+
+    @Benchmark
+    public ElGamal_Ciphertext encrypt() {
+        return ElGamalCipher.encrypt(x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger decrypt() {
+        return ElGamalCipher.decrypt(cx, private_key);
+    }
+
+    @Benchmark
+    public ElGamal_Ciphertext add() {
+        return ElGamalCipher.add(cx, cy, public_key);
+    }
+
+    @Benchmark
+    public ElGamal_Ciphertext multiply_scalar() {
+        return ElGamalCipher.multiply_scalar(cx, x, public_key);
+    }
+
+    @Benchmark
+    public ElGamal_Ciphertext multiply() {
+        return ElGamalCipher.multiply(mx, my, multiplicative_key);
+    }
+
+    @Benchmark
+    public ElGamal_Ciphertext sum() throws HomomorphicException {
+        return ElGamalCipher.sum(ciphertexts, public_key, batch);
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.gm.GMCipher;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMVector;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Goldwasser-Micali operations on l-bit messages, one ciphertext per bit,
+ * both on arrays of BigInteger and on packed vectors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GMBenchmark {
+    @Param({"2048", "3072"})
+    public int key_size;
+
+    @Param({"16", "32"})
+    public int l;
+
+    private GMPublicKey public_key;
+    private GMPrivateKey private_key;
+
+    private BigInteger x;
+    private BigInteger [] cx;
+    private BigInteger [] cy;
+    private GMVector vx;
+    private GMVector vy;
+
+    @Setup(Level.Trial)
+    public void setup() throws HomomorphicException {
+        GMKeyPairGenerator generator = new GMKeyPairGenerator();
+        generator.initialize(key_size, null);
+        KeyPair pair = generator.generateKeyPair();
+        public_key = (GMPublicKey) pair.getPublic();
+        private_key = (GMPrivateKey) pair.getPrivate();
+
+        // Set the top bit, so both messages have l encrypted bits
+        x = NTL.generateXBitRandom(l).setBit(l - 1);
+        cx = GMCipher.encrypt(x, public_key);
+        cy = GMCipher.encrypt(NTL.generateXBitRandom(l).setBit(l - 1), public_key);
+        vx = GMVector.pack(cx, public_key);
+        vy = GMVector.pack(cy, public_key);
+    }
+
+    @Benchmark
+    public BigInteger [] encrypt() {
+        return GMCipher.encrypt(x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger decrypt() {
+        return GMCipher.decrypt(cx, private_key);
+    }
+
+    @Benchmark
+    public BigInteger [] xor() throws HomomorphicException {
+        return GMCipher.xor(cx, cy, public_key);
+    }
+
+    @Benchmark
+    public GMVector encrypt_vector() throws HomomorphicException {
+        return GMCipher.encrypt(x, l, public_key);
+    }
+
+    @Benchmark
+    public BigInteger decrypt_vector() throws HomomorphicException {
+        return GMCipher.decrypt(vx, private_key);
+    }
+
+    @Benchmark
+    public GMVector xor_vector() throws HomomorphicException {
+        return GMCipher.xor(vx, vy, public_key);
+    }
+}
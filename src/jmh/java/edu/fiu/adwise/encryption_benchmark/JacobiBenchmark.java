@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways to decrypt one Goldwasser-Micali bit, i.e. the Legendre symbol (c/p) of a ciphertext c in Z_n
+ * with a prime p of half the key size: the previous {@code BigInteger} Jacobi symbol, the binary Jacobi symbol
+ * of {@link NTL#jacobi_symbol(BigInteger, BigInteger)}, and Euler's criterion c^{(p - 1)/2} (mod p).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacobiBenchmark {
+    private static final BigInteger NEG_ONE = BigInteger.ONE.negate();
+    private static final BigInteger TWO = BigInteger.TWO;
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private static final BigInteger FOUR = BigInteger.valueOf(4);
+    private static final BigInteger FIVE = BigInteger.valueOf(5);
+    private static final BigInteger EIGHT = BigInteger.valueOf(8);
+
+    @Param({"2048", "3072"})
+    public int key_size;
+
+    private BigInteger p;
+    private BigInteger half;
+    private BigInteger cipher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        p = BigInteger.probablePrime(key_size / 2, random);
+        half = p.shiftRight(1);
+        cipher = new BigInteger(key_size, random);
+    }
+
+    @Benchmark
+    public BigInteger legacy() {
+        return legacy_jacobi(cipher, p);
+    }
+
+    @Benchmark
+    public int binary() {
+        return NTL.jacobi_symbol(cipher, p);
+    }
+
+    @Benchmark
+    public BigInteger euler() {
+        return cipher.modPow(half, p);
+    }
+
+    /**
+     * The Jacobi symbol as NTL computed it before the binary algorithm, several allocations per step.
+     */
+    private static BigInteger legacy_jacobi(BigInteger a, BigInteger n) {
+        a = a.mod(n);
+        BigInteger jacobi = BigInteger.ONE;
+        while (a.compareTo(BigInteger.ZERO) > 0) {
+            while (a.mod(TWO).equals(BigInteger.ZERO)) {
+                a = a.divide(TWO);
+                BigInteger r = n.mod(EIGHT);
+                if (r.equals(THREE) || r.equals(FIVE)) {
+                    jacobi = jacobi.multiply(NEG_ONE);
+                }
+            }
+            BigInteger temp = n;
+            n = a;
+            a = temp;
+            if (a.mod(FOUR).equals(THREE) && n.mod(FOUR).equals(THREE)) {
+                jacobi = jacobi.multiply(NEG_ONE);
+            }
+            a = a.mod(n);
+        }
+        if (n.equals(BigInteger.ONE)) {
+            return jacobi;
+        }
+        return BigInteger.ZERO;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKOperations;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierKeyPairGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the key generation of every cryptosystem and the build of the decryption lookup tables.
+ * Prime generation is random, so each key pair is measured once and the time is averaged over the iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KeyGenerationBenchmark {
+    @Param({"2048", "3072"})
+    public int key_size;
+
+    /**
+     * The plaintext space of DGK, only the DGK benchmarks depend on it.
+     */
+    @State(Scope.Benchmark)
+    public static class DGKParameters {
+        @Param({"8", "16"})
+        public int l;
+    }
+
+    /**
+     * A DGK private key without its lookup table, deserialized before every build.
+     */
+    @State(Scope.Benchmark)
+    public static class DGKKey {
+        private byte [] serialized;
+        private BigInteger last;
+        private DGKPrivateKey private_key;
+
+        @Setup(Level.Trial)
+        public void generate(KeyGenerationBenchmark parameters, DGKParameters dgk)
+                throws HomomorphicException, IOException {
+            KeyPair pair = new DGKKeyPairGenerator(dgk.l, 160, parameters.key_size).generateKeyPair();
+            DGKPublicKey public_key = (DGKPublicKey) pair.getPublic();
+            // The last plaintext is in the last chunk of the table
+            last = DGKOperations.encrypt(public_key.getu() - 1, public_key);
+            // Finish the table of the generated key, so its build does not run during the measurement
+            DGKOperations.decrypt(last, (DGKPrivateKey) pair.getPrivate());
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(pair.getPrivate());
+            }
+            serialized = bytes.toByteArray();
+        }
+
+        @Setup(Level.Invocation)
+        public void read() throws IOException, ClassNotFoundException {
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+                private_key = (DGKPrivateKey) in.readObject();
+            }
+        }
+    }
+
+    /**
+     * An additive ElGamal private key, whose lookup table is rebuilt.
+     */
+    @State(Scope.Benchmark)
+    public static class ElGamalKey {
+        private ElGamalPrivateKey private_key;
+
+        @Setup(Level.Trial)
+        public void generate(KeyGenerationBenchmark parameters) {
+            ElGamalKeyPairGenerator generator = new ElGamalKeyPairGenerator(true);
+            generator.initialize(parameters.key_size, null);
+            private_key = (ElGamalPrivateKey) generator.generateKeyPair().getPrivate();
+        }
+    }
+
+    @Benchmark
+    public KeyPair paillier_key_generation() {
+        PaillierKeyPairGenerator generator = new PaillierKeyPairGenerator();
+        generator.initialize(key_size, null);
+        return generator.generateKeyPair();
+    }
+
+    @Benchmark
+    public KeyPair dgk_key_generation(DGKParameters dgk) throws HomomorphicException {
+        return new DGKKeyPairGenerator(dgk.l, 160, key_size).generateKeyPair();
+    }
+
+    @Benchmark
+    public KeyPair el_gamal_key_generation() {
+        ElGamalKeyPairGenerator generator = new ElGamalKeyPairGenerator(true);
+        generator.initialize(key_size, null);
+        return generator.generateKeyPair();
+    }
+
+    @Benchmark
+    public KeyPair gm_key_generation() {
+        GMKeyPairGenerator generator = new GMKeyPairGenerator();
+        generator.initialize(key_size, null);
+        return generator.generateKeyPair();
+    }
+
+    /**
+     * Builds the whole DGK lookup table, a decryption of the last plaintext waits for its last chunk.
+     */
+    @Benchmark
+    public long dgk_lookup_table(DGKKey key) throws HomomorphicException {
+        return DGKOperations.decrypt(key.last, key.private_key);
+    }
+
+    @Benchmark
+    public ElGamalPrivateKey el_gamal_lookup_table(ElGamalKey key) {
+        key.private_key.setBabySteps(key.private_key.getBabySteps());
+        return key.private_key;
+    }
+}
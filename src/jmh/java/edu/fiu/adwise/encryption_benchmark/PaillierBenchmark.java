@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierCipher;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPublicKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Paillier operations on l-bit plaintexts.
+ * The single operations are measured per call, the array operations and the sum per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaillierBenchmark {
+    @Param({"2048", "3072"})
+    public int key_size;
+
+    @Param({"16", "32"})
+    public int l;
+
+    @Param({"16", "256"})
+    public int batch;
+
+    private PaillierPublicKey public_key;
+    private PaillierPrivateKey private_key;
+
+    private BigInteger x;
+    private BigInteger cx;
+    private BigInteger cy;
+    private long [] plaintexts;
+    private BigInteger [] ciphertexts;
+
+    @Setup(Level.Trial)
+    public void setup() throws HomomorphicException {
+        PaillierKeyPairGenerator generator = new PaillierKeyPairGenerator();
+        generator.initialize(key_size, null);
+        KeyPair pair = generator.generateKeyPair();
+        public_key = (PaillierPublicKey) pair.getPublic();
+        private_key = (PaillierPrivateKey) pair.getPrivate();
+
+        x = NTL.generateXBitRandom(l);
+        cx = PaillierCipher.encrypt(x, public_key);
+        cy = PaillierCipher.encrypt(NTL.generateXBitRandom(l), public_key);
+        plaintexts = new long[batch];
+        for (int i = 0; i < batch; i++) {
+            plaintexts[i] = NTL.generateXBitRandom(l).longValue();
+        }
+        ciphertexts = PaillierCipher.encrypt(plaintexts, public_key);
+    }
+
+    @Benchmark
+    public BigInteger encrypt() throws HomomorphicException {
+        return PaillierCipher.encrypt(x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger decrypt() throws HomomorphicException {
+        return PaillierCipher.decrypt(cx, private_key);
+    }
+
+    @Benchmark
+    public BigInteger add() throws HomomorphicException {
+        return PaillierCipher.add(cx, cy, public_key);
+    }
+
+    @Benchmark
+    public BigInteger add_plaintext() throws HomomorphicException {
+        return PaillierCipher.add_plaintext(cx, x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger multiply() throws HomomorphicException {
+        return PaillierCipher.multiply(cx, x, public_key);
+    }
+
+    @Benchmark
+    public BigInteger sum() throws HomomorphicException {
+        return PaillierCipher.sum(ciphertexts, public_key);
+    }
+
+    @Benchmark
+    public BigInteger [] encrypt_batch() throws HomomorphicException {
+        return PaillierCipher.encrypt(plaintexts, public_key);
+    }
+
+    @Benchmark
+    public BigInteger [] decrypt_batch() throws HomomorphicException {
+        return PaillierCipher.decrypt(ciphertexts, private_key);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.encryption_benchmark;
+
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierCipher;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.alice;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.alice_async;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.alice_joye;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.alice_veugen;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob_async;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob_joye;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob_veugen;
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.loopback_transport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Benchmarks the full Alice/Bob protocols, with Alice and Bob in the same JVM connected by a {@link loopback_transport},
+ * so by default the time is computation and serialization without the TCP stack.
+ * A WAN is simulated by setting the latency and the bandwidth, e.g. {@code -p latency_ms=20 -p bandwidth=12500000}.
+ * Each invocation runs a batch of operations on the lanes of one {@link alice_async}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ProtocolBenchmark {
+    @Param({"alice", "veugen", "joye"})
+    public String protocol;
+
+    @Param({"16"})
+    public int l;
+
+    @Param({"1", "16"})
+    public int batch;
+
+    @Param({"1", "4"})
+    public int lanes;
+
+    /** The one-way latency of the link, in milliseconds. */
+    @Param({"0"})
+    public long latency_ms;
+
+    /** The bandwidth of each direction of the link in bytes per second, 0 for no limit. */
+    @Param({"0"})
+    public long bandwidth;
+
+    private Thread bob_thread;
+    private alice_async session;
+
+    private BigInteger [] x;
+    private BigInteger [] y;
+
+    @Setup(Level.Trial)
+    public void setup() throws HomomorphicException, IOException, ClassNotFoundException {
+        KeyPair dgk = new DGKKeyPairGenerator(l, 160, 2048).generateKeyPair();
+        PaillierKeyPairGenerator generator = new PaillierKeyPairGenerator();
+        generator.initialize(2048, null);
+        KeyPair paillier = generator.generateKeyPair();
+
+        Supplier<? extends alice> alice_factory;
+        Supplier<? extends bob> bob_factory;
+        switch (protocol) {
+            case "alice":
+                alice_factory = alice::new;
+                bob_factory = () -> new bob(paillier, dgk);
+                break;
+            case "veugen":
+                alice_factory = alice_veugen::new;
+                bob_factory = () -> new bob_veugen(paillier, dgk);
+                break;
+            case "joye":
+                alice_factory = alice_joye::new;
+                bob_factory = () -> new bob_joye(paillier, dgk);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown protocol: " + protocol);
+        }
+
+        loopback_transport [] link = loopback_transport.pair(latency_ms, TimeUnit.MILLISECONDS, bandwidth);
+        bob_thread = new Thread(new bob_async(link[1], bob_factory), "bob");
+        bob_thread.start();
+        session = new alice_async(link[0], lanes, alice_factory);
+
+        PaillierPublicKey public_key = (PaillierPublicKey) paillier.getPublic();
+        x = new BigInteger[batch];
+        y = new BigInteger[batch];
+        for (int i = 0; i < batch; i++) {
+            x[i] = PaillierCipher.encrypt(NTL.generateXBitRandom(l - 1), public_key);
+            y[i] = PaillierCipher.encrypt(NTL.generateXBitRandom(l - 1), public_key);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tear_down() throws IOException, InterruptedException {
+        session.close();
+        bob_thread.join();
+    }
+
+    /**
+     * Submits the operation for every pair of the batch, then waits for all of them.
+     */
+    private <T> Object [] run_batch(Function<Integer, CompletableFuture<T>> operation) {
+        CompletableFuture<?> [] results = new CompletableFuture<?>[batch];
+        for (int i = 0; i < batch; i++) {
+            results[i] = operation.apply(i);
+        }
+        Object [] values = new Object[batch];
+        for (int i = 0; i < batch; i++) {
+            values[i] = results[i].join();
+        }
+        return values;
+    }
+
+    @Benchmark
+    public Object [] comparison() {
+        return run_batch(i -> session.Protocol2(x[i], y[i]));
+    }
+
+    @Benchmark
+    public Object [] multiplication() {
+        return run_batch(i -> session.multiplication(x[i], y[i]));
+    }
+
+    @Benchmark
+    public Object [] division() {
+        return run_batch(i -> session.division(x[i], 3));
+    }
+
+    @Benchmark
+    public Object [] encrypted_equals() {
+        return run_batch(i -> session.encrypted_equals(x[i], y[i]));
+    }
+}
@@ -9,10 +9,14 @@ import java.math.BigInteger;
 import java.security.KeyPair;
 import java.security.KeyPairGeneratorSpi;
 import java.security.SecureRandom;
+import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.misc.ParallelSearch;
+import edu.fiu.adwise.homomorphic_encryption.misc.PrimeSieve;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -30,6 +34,7 @@ public final class DGKKeyPairGenerator extends KeyPairGeneratorSpi implements Ci
 	private int l = 16;
 	private int t = 160;
 	private int k = KEY_SIZE;
+	private int workers = ParallelSearch.getDefaultWorkers();
 
 	/**
 	 * Main method to generate and save DGK key pairs.
@@ -208,8 +213,32 @@ public final class DGKKeyPairGenerator extends KeyPairGeneratorSpi implements Ci
 		this.k = k;
 	}
 
+	/**
+	 * Sets the number of workers searching for the primes, h and g, see {@link ParallelSearch}.
+	 *
+	 * @param workers - the number of workers, including the calling thread, 1 to generate on the calling thread only
+	 * @throws IllegalArgumentException - If the number of workers is not positive
+	 */
+	public void setWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Require at least one worker: " + workers);
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * @return The number of workers searching for the primes, h and g.
+	 */
+	public int getWorkers() {
+		return this.workers;
+	}
+
 	/**
 	 * Generates a DGK key pair.
+	 * <p>
+	 * p = rp * u * vp + 1 and q = rq * u * vq + 1 are searched for at the same time by the workers,
+	 * each sieving a window of consecutive rp (or rq) by small primes before any primality test, see {@link PrimeSieve}.
+	 * Then h and g are searched for at the same time, and the lookup tables are built in parallel.
 	 *
 	 * @return The generated DGK key pair
 	 */
@@ -221,173 +250,174 @@ public final class DGKKeyPairGenerator extends KeyPairGeneratorSpi implements Ci
 
 		logger.info("Generating Keys...");
 
-		BigInteger p, rp;
-		BigInteger q, rq;
-		BigInteger g, h ;
-		BigInteger n, r ;
-		BigInteger u = TWO.pow(this.l);
-		BigInteger vp, vq, vpvq, tmp;
-
-        do {
-            //Following the instruction as stated on DGK C++ counterpart
-            u = u.nextProbablePrime();
-            vp = new BigInteger(this.t, CERTAINTY, this.rnd);//(160, 40, random)
-            vq = new BigInteger(this.t, CERTAINTY, this.rnd);//(160, 40, random)
-            vpvq = vp.multiply(vq);
-            tmp = u.multiply(vp);
-			logger.info("Completed generating vp, vq");
-
-            int needed_bits = this.k / 2 - (tmp.bitLength());
-
-            // Generate rp until p is prime such that u * vp divides p-1
-            do {
-                rp = new BigInteger(needed_bits, rnd);
-                rp = rp.setBit(needed_bits - 1);
-
-                /*
-                 * p = rp * u * vp + 1
-                 * u | p - 1
-                 * vp | p - 1
-                 */
-                p = rp.multiply(tmp).add(BigInteger.ONE);
-            }
-            while (!p.isProbablePrime(CERTAINTY));
-
-            tmp = u.multiply(vq);
-            needed_bits = this.k / 2 - (tmp.bitLength());
-            do {
-                // Same method for q than for p
-                rq = new BigInteger(needed_bits, rnd);
-                rq = rq.setBit(needed_bits - 1);
-                q = rq.multiply(tmp).add(BigInteger.ONE); // q = rq*(vq*u) + 1
-
-                /*
-                 * q - 1 | rq * vq * u
-                 * Therefore,
-                 * c^{vp} = g^{vp*m} (mod n) because
-                 * rq | (q - 1)
-                 */
-            }
-            while (!q.isProbablePrime(CERTAINTY));
-            //Thus we ensure that q is a prime, with p-1 divides the prime numbers vq and u
-
-        } while (NTL.POSMOD(rq, u).equals(BigInteger.ZERO) || NTL.POSMOD(rp, u).equals(BigInteger.ZERO));
-
-		n = p.multiply(q);
-		tmp = rp.multiply(rq).multiply(u);
+		//Following the instruction as stated on DGK C++ counterpart
+		BigInteger u = TWO.pow(this.l).nextProbablePrime();
+		BigInteger vp = new BigInteger(this.t, CERTAINTY, rnd);//(160, 40, random)
+		BigInteger vq = new BigInteger(this.t, CERTAINTY, rnd);//(160, 40, random)
+		BigInteger vpvq = vp.multiply(vq);
+		logger.info("Completed generating vp, vq");
+
+		/*
+		 * p = rp * u * vp + 1, so u | p - 1 and vp | p - 1
+		 * q = rq * u * vq + 1, so u | q - 1 and vq | q - 1
+		 * u must not divide rp or rq
+		 */
+		BigInteger [] factors = { u.multiply(vp), u.multiply(vq) };
+		List<BigInteger> primes = ParallelSearch.find(2, this.workers,
+				(slot, cancelled) -> search_prime(factors[slot], u, cancelled));
+		BigInteger p = primes.get(0);
+		BigInteger q = primes.get(1);
+		BigInteger rp = p.subtract(BigInteger.ONE).divide(factors[0]);
+		BigInteger rq = q.subtract(BigInteger.ONE).divide(factors[1]);
+
+		BigInteger n = p.multiply(q);
+		BigInteger rprq = rp.multiply(rq);
+		BigInteger rprqu = rprq.multiply(u);
 		logger.info("While Loop 1: n, p and q is generated.");
 
-		while(true) {
-			//Generate n bit random number
-			r = NTL.generateXBitRandom(n.bitLength());
-			h = r.modPow(tmp, n); // h = r^{rp*rq*u} (mod n)
+		// Slot 0 is h, slot 1 is g
+		List<BigInteger> generators = ParallelSearch.find(2, this.workers, (slot, cancelled) -> slot == 0 ?
+				try_h(n, rprqu, u, vp, vq) : try_g(n, p, q, rprq, u, vp, vq, vpvq));
+		BigInteger h = generators.get(0);
+		BigInteger g = generators.get(1);
+		logger.info("While loop 2 and 3: h and g are generated");
 
-			if (h.equals(BigInteger.ONE)) {
-				continue;
-			}
+		logger.info("Generating hashmaps...");
+		public_key =  new DGKPublicKey(n, g, h, u, this.l, this.t, this.k);
+		private_key = new DGKPrivateKey(p, q, vp, vq, public_key);
+		boolean no_skip_public_key_maps = true;
+		if(no_skip_public_key_maps) {
+			public_key.run();
+		}
+		logger.info("FINISHED WITH DGK KEY GENERATION in " + (System.nanoTime() - start_time)/BILLION + " seconds!");
+		return new KeyPair(public_key, private_key);
+	}
 
-			if (h.modPow(vp,n).equals(BigInteger.ONE)) {
-				continue;//h^{vp}(mod n) = 1
-			}
+	/**
+	 * Searches one window of r for a prime r * factor + 1 of k/2 bits, where u does not divide r.
+	 *
+	 * @param factor - u * vp or u * vq
+	 * @param u - the plaintext space
+	 * @param cancelled - set once another worker found the prime
+	 * @return The prime, or null if the window has none or the search was cancelled.
+	 */
+	private BigInteger search_prime(BigInteger factor, BigInteger u, BooleanSupplier cancelled) {
+		int needed_bits = this.k / 2 - factor.bitLength();
+		BigInteger r = new BigInteger(needed_bits, rnd).setBit(needed_bits - 1);
+		long r_mod_u = r.mod(u).longValue();
+		long plaintext_space = u.longValue();
+		return PrimeSieve.search(r.multiply(factor).add(BigInteger.ONE), factor, PrimeSieve.DEFAULT_WINDOW,
+				i -> (r_mod_u + i) % plaintext_space != 0, cancelled);
+	}
 
-			if (h.modPow(vq,n).equals(BigInteger.ONE)) {
-				continue;//h^{vq}(mod n) = 1
-			}
+	/**
+	 * Tries one random h = r^{rp*rq*u} (mod n).
+	 *
+	 * @return h, or null if it does not have the order vp * vq.
+	 */
+	private static BigInteger try_h(BigInteger n, BigInteger rprqu, BigInteger u, BigInteger vp, BigInteger vq) {
+		//Generate n bit random number
+		BigInteger r = NTL.generateXBitRandom(n.bitLength());
+		BigInteger h = r.modPow(rprqu, n); // h = r^{rp*rq*u} (mod n)
 
-			if (h.modPow(u, n).equals(BigInteger.ONE)) {
-				continue;//h^{u}(mod n) = 1
-			}
+		if (h.equals(BigInteger.ONE)) {
+			return null;
+		}
 
-			if (h.modPow(u.multiply(vq), n).equals(BigInteger.ONE)) {
-				continue;//h^{u*vq} (mod n) = 1
-			}
+		if (h.modPow(vp,n).equals(BigInteger.ONE)) {
+			return null;//h^{vp}(mod n) = 1
+		}
 
-			if (h.modPow(u.multiply(vp), n).equals(BigInteger.ONE)) {
-				continue;//h^{u*vp} (mod n) = 1
-			}
+		if (h.modPow(vq,n).equals(BigInteger.ONE)) {
+			return null;//h^{vq}(mod n) = 1
+		}
 
-			if (h.gcd(n).equals(BigInteger.ONE)) {
-				break;//(h, n) = 1
-			}
+		if (h.modPow(u, n).equals(BigInteger.ONE)) {
+			return null;//h^{u}(mod n) = 1
 		}
 
-		BigInteger rprq = rp.multiply(rq);
-		logger.info("While loop 2: h is generated");
-
-		while(true) {
-			r = NTL.generateXBitRandom(n.bitLength());
-			g = r.modPow(rprq, n); //g = r^{rp*rq}(mod n)
-
-			if (g.equals(BigInteger.ONE)) {
-				continue;// g = 1
-			}
-
-			if (!g.gcd(n).equals(BigInteger.ONE)) {
-				continue;//(g, n) must be relatively prime
-			}
-			// h can still be of order u, vp, vq, or a combination of them different that u, vp, vq
-			if (g.modPow(u, n).equals(BigInteger.ONE)) {
-				continue;//g^{u} (mod n) = 1
-			}
-			if (g.modPow(u.multiply(u), n).equals(BigInteger.ONE)) {
-				continue;//g^{u*u} (mod n) = 1
-			}
-			if (g.modPow(u.multiply(u).multiply(vp), n).equals(BigInteger.ONE)) {
-				continue;//g^{u*u*vp} (mod n) = 1
-			}
-
-			if (g.modPow(u.multiply(u).multiply(vq), n).equals(BigInteger.ONE)) {
-				continue;//g^{u*u*vp} (mod n) = 1
-			}
-
-			if (g.modPow(vp, n).equals(BigInteger.ONE)) {
-				continue;//g^{vp} (mod n) = 1
-			}
-
-			if (g.modPow(vq, n).equals(BigInteger.ONE)) {
-				continue;//g^{vq} (mod n) = 1
-			}
-
-			if (g.modPow(u.multiply(vq), n).equals(BigInteger.ONE)) {
-				continue;//g^{u*vq}(mod n) = 1
-			}
-
-			if (g.modPow(u.multiply(vp), n).equals(BigInteger.ONE)) {
-				continue;//g^{u*vp} (mod n) = 1
-			}
-
-			if (g.modPow(vpvq, n).equals(BigInteger.ONE)) {
-				continue;//g^{vp*vq} (mod n) == 1
-			}
-
-			if (NTL.POSMOD(g, p).modPow(vp, p).equals(BigInteger.ONE)) {
-				continue; //g^{vp} (mod p) == 1
-			}
-
-			if ((NTL.POSMOD(g,p).modPow(u, p).equals(BigInteger.ONE))) {
-				continue;//g^{u} (mod p) = 1
-			}
-
-			if (NTL.POSMOD(g, q).modPow(vq, q).equals(BigInteger.ONE)) {
-				continue;//g^{vq}(mod q) == 1
-			}
-
-			if ((NTL.POSMOD(g, q).modPow(u, q).equals(BigInteger.ONE))) {
-				continue;//g^{u}(mod q)
-			}
-			break;
-		}
-		logger.info("While loop 3: g is generated");
+		if (h.modPow(u.multiply(vq), n).equals(BigInteger.ONE)) {
+			return null;//h^{u*vq} (mod n) = 1
+		}
 
-		logger.info("Generating hashmaps...");
-		public_key =  new DGKPublicKey(n, g, h, u, this.l, this.t, this.k);
-		private_key = new DGKPrivateKey(p, q, vp, vq, public_key);
-		boolean no_skip_public_key_maps = true;
-		if(no_skip_public_key_maps) {
-			public_key.run();
+		if (h.modPow(u.multiply(vp), n).equals(BigInteger.ONE)) {
+			return null;//h^{u*vp} (mod n) = 1
 		}
-		logger.info("FINISHED WITH DGK KEY GENERATION in " + (System.nanoTime() - start_time)/BILLION + " seconds!");
-		return new KeyPair(public_key, private_key);
+
+		if (h.gcd(n).equals(BigInteger.ONE)) {
+			return h;//(h, n) = 1
+		}
+		return null;
+	}
+
+	/**
+	 * Tries one random g = r^{rp*rq} (mod n).
+	 *
+	 * @return g, or null if it does not have the order u * vp * vq.
+	 */
+	private static BigInteger try_g(BigInteger n, BigInteger p, BigInteger q, BigInteger rprq,
+			BigInteger u, BigInteger vp, BigInteger vq, BigInteger vpvq) {
+		BigInteger r = NTL.generateXBitRandom(n.bitLength());
+		BigInteger g = r.modPow(rprq, n); //g = r^{rp*rq}(mod n)
+
+		if (g.equals(BigInteger.ONE)) {
+			return null;// g = 1
+		}
+
+		if (!g.gcd(n).equals(BigInteger.ONE)) {
+			return null;//(g, n) must be relatively prime
+		}
+		// h can still be of order u, vp, vq, or a combination of them different that u, vp, vq
+		if (g.modPow(u, n).equals(BigInteger.ONE)) {
+			return null;//g^{u} (mod n) = 1
+		}
+		if (g.modPow(u.multiply(u), n).equals(BigInteger.ONE)) {
+			return null;//g^{u*u} (mod n) = 1
+		}
+		if (g.modPow(u.multiply(u).multiply(vp), n).equals(BigInteger.ONE)) {
+			return null;//g^{u*u*vp} (mod n) = 1
+		}
+
+		if (g.modPow(u.multiply(u).multiply(vq), n).equals(BigInteger.ONE)) {
+			return null;//g^{u*u*vp} (mod n) = 1
+		}
+
+		if (g.modPow(vp, n).equals(BigInteger.ONE)) {
+			return null;//g^{vp} (mod n) = 1
+		}
+
+		if (g.modPow(vq, n).equals(BigInteger.ONE)) {
+			return null;//g^{vq} (mod n) = 1
+		}
+
+		if (g.modPow(u.multiply(vq), n).equals(BigInteger.ONE)) {
+			return null;//g^{u*vq}(mod n) = 1
+		}
+
+		if (g.modPow(u.multiply(vp), n).equals(BigInteger.ONE)) {
+			return null;//g^{u*vp} (mod n) = 1
+		}
+
+		if (g.modPow(vpvq, n).equals(BigInteger.ONE)) {
+			return null;//g^{vp*vq} (mod n) == 1
+		}
+
+		if (NTL.POSMOD(g, p).modPow(vp, p).equals(BigInteger.ONE)) {
+			return null; //g^{vp} (mod p) == 1
+		}
+
+		if ((NTL.POSMOD(g,p).modPow(u, p).equals(BigInteger.ONE))) {
+			return null;//g^{u} (mod p) = 1
+		}
+
+		if (NTL.POSMOD(g, q).modPow(vq, q).equals(BigInteger.ONE)) {
+			return null;//g^{vq}(mod q) == 1
+		}
+
+		if ((NTL.POSMOD(g, q).modPow(u, q).equals(BigInteger.ONE))) {
+			return null;//g^{u}(mod q)
+		}
+		return g;
 	}
 
 	/**
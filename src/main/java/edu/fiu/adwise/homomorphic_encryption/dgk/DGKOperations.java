@@ -6,8 +6,12 @@ package edu.fiu.adwise.homomorphic_encryption.dgk;
 
 import java.math.BigInteger;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BarrettReducer;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import edu.fiu.adwise.homomorphic_encryption.misc.MultiExponentiation;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 
@@ -28,6 +32,7 @@ import org.apache.logging.log4j.Logger;
  * - Subtract a plaintext and ciphertext y - [x] -> [y - x]
  * - Multiply a ciphertext and plaintext [x] * y -> [x * y]
  * - Divide a ciphertext by plaintext [x] / y -> [x / y] THIS ONLY WORKS IF YOU KNOW YOU HAVE A PERFECT DIVISOR
+ * - Prefix sums [x_0], ..., [x_{n-1}] -> [x_0 + ... + x_{i-1}] for every i, in one pass
  */
 public final class DGKOperations implements CipherConstants
 {
@@ -53,17 +58,10 @@ public final class DGKOperations implements CipherConstants
 					+ " (plaintext >= U) value of Plain Text is: " + plaintext);
 		}
 
-		// If it is null, just fill the HashMap to avoid Null Pointer!
-		//first part = g^m (mod n)
-		public_key.gLUT.computeIfAbsent(plaintext, p -> public_key.g.modPow(BigInteger.valueOf(p), public_key.n));
-		
-		// Generate 2 * t bit random number
-		BigInteger r = NTL.generateXBitRandom(2 * public_key.t);
-		
-		// First part = g^m
-		BigInteger first_part = public_key.gLUT.get(plaintext);
-		// Second part = h^r
-		BigInteger second_part = public_key.h.modPow(r, public_key.n);
+		// First part = g^m (mod n), computed directly if the lookup table does not have it yet
+		BigInteger first_part = public_key.gPow(plaintext);
+		// Second part = h^r for a 2t-bit random r, from the blinding pool if one is running
+		BigInteger second_part = public_key.blinding_factor();
 		ciphertext = NTL.POSMOD(first_part.multiply(second_part), public_key.n);
 		return ciphertext;
 	}
@@ -84,7 +82,7 @@ public final class DGKOperations implements CipherConstants
 	 * Compute DGK decryption
 	 * c = g^m * h^r (mod n)
 	 * c^vp (mod p) = g^{vp*m} (mod p), Because h^{vp} (mod p) = 1
-	 * Use the pre-computed hashmap to retrieve m.
+	 * Use the pre-computed lookup table to retrieve m.
 	 * @param ciphertext - DGK ciphertext
 	 * @param private_key - used to decrypt ciphertext
 	 * @throws HomomorphicException - If the ciphertext is larger than the ciphertext supported by DGK Public Key an exception will be thrown
@@ -99,10 +97,11 @@ public final class DGKOperations implements CipherConstants
 			throw new HomomorphicException("decryption Invalid Parameter : the cipher text is not in Zn,"
 					+ " value of cipher text is: (c > n): " + ciphertext);
 		}
-		
+
+		ModExpCounter.count();
 		BigInteger decipher = NTL.POSMOD(ciphertext.modPow(private_key.vp, private_key.p), private_key.p);
-		Long plain = private_key.LUT.get(decipher);
-		if(plain == null) {
+		long plain = private_key.lookup(decipher);
+		if(plain < 0) {
 			throw new HomomorphicException("Issue: DGK Public/Private Key mismatch! OR Using non-DGK encrypted value!");
 		}
 		return plain;
@@ -147,6 +146,7 @@ public final class DGKOperations implements CipherConstants
 		else if (plaintext.compareTo(NEG_ONE) < 0 || plaintext.compareTo(public_key.bigU) > 0) {
 			throw new HomomorphicException("DGK  add_plaintext Invalid Parameter plaintext: " + plaintext);		
 		}
+		ModExpCounter.count();
 		return ciphertext.multiply(public_key.g.modPow(plaintext, public_key.n)).mod(public_key.n);
 	}
 
@@ -221,6 +221,7 @@ public final class DGKOperations implements CipherConstants
 		if (ciphertext.signum() == -1 || ciphertext.compareTo(public_key.n) > 0) {
 			throw new HomomorphicException("DGKMultiply Invalid Parameter ciphertext: " + ciphertext);
 		}
+		ModExpCounter.count();
 		return ciphertext.modPow(plaintext, public_key.n);
 	}
 
@@ -254,7 +255,10 @@ public final class DGKOperations implements CipherConstants
 	}
 
 	/**
-	 * Compute the sum of the encrypted DGK values
+	 * Compute the sum of the encrypted DGK values.
+	 * The ciphertexts are multiplied with a balanced product tree starting from the identity 1,
+	 * so the result is NOT re-randomized, see {@link #rerandomize(BigInteger, DGKPublicKey)}.
+	 * An empty range returns a fresh encryption of 0 instead of the identity.
 	 * @param parts - Array of Encrypted DGK values
 	 * @param public_key - DGKPublicKey used to encrypt all the values
 	 * @return sum - the encrypted sum of all encrypted values in the array
@@ -262,15 +266,14 @@ public final class DGKOperations implements CipherConstants
 	 */
 	public static BigInteger sum (BigInteger [] parts, DGKPublicKey public_key) 
 			throws HomomorphicException {
-		BigInteger sum = public_key.ZERO();
-		for (BigInteger part : parts) {
-			sum = add(sum, part, public_key);
-		}
-		return sum;
+		return sum(parts, public_key, parts.length);
 	}
 
 	/**
-	 * Compute the sum of the encrypted DGK values
+	 * Compute the sum of the encrypted DGK values.
+	 * The ciphertexts are multiplied with a balanced product tree starting from the identity 1,
+	 * so the result is NOT re-randomized, see {@link #rerandomize(BigInteger, DGKPublicKey)}.
+	 * An empty range returns a fresh encryption of 0 instead of the identity.
 	 * @param values - Array of Encrypted DGK values
 	 * @param public_key - DGKPublicKey used to encrypt the values
 	 * @param limit - Sum values up to this index value in the list
@@ -279,17 +282,76 @@ public final class DGKOperations implements CipherConstants
 	 */
 	public static BigInteger sum (BigInteger [] values, DGKPublicKey public_key, int limit) 
 			throws HomomorphicException {
-		BigInteger sum = DGKOperations.encrypt(0, public_key);
-		if (limit > values.length) {
-			return sum(values, public_key);
-		}
-		else if(limit <= 0) {
-			return sum;
+		limit = Math.min(limit, values.length);
+		if (limit <= 0) {
+			// The empty product is the identity 1, which anyone can read as an encryption of 0
+			return DGKOperations.encrypt(0, public_key);
 		}
 		for (int i = 0; i < limit; i++) {
-			sum = add(sum, values[i], public_key);
+			if (values[i].signum() == -1 || values[i].compareTo(public_key.n) > 0) {
+				throw new HomomorphicException("DGKSum Invalid Parameter ciphertext: " + values[i]);
+			}
+		}
+		return MultiExponentiation.product(values, 0, limit, public_key.n);
+	}
+	
+	/**
+	 * Compute all prefix sums of the encrypted DGK values, in one pass over the array.
+	 * Element i of the result equals {@code sum(values, public_key, i)}, so a loop over every i costs
+	 * O(n) ciphertext multiplications instead of O(n^2).
+	 * Like {@link #sum(BigInteger[], DGKPublicKey)}, the sums are NOT re-randomized.
+	 * @param values - Array of Encrypted DGK values
+	 * @param public_key - DGKPublicKey used to encrypt the values
+	 * @return prefix - array of length values.length + 1, where prefix[i] = [values[0] + ... + values[i - 1]]
+	 * and prefix[0] = 1 is the empty sum
+	 * @throws HomomorphicException - If an invalid input was found
+	 */
+	public static BigInteger [] prefix_sum (BigInteger [] values, DGKPublicKey public_key)
+			throws HomomorphicException {
+		check_ciphertexts(values, public_key);
+		BarrettReducer reducer = new BarrettReducer(public_key.n);
+		BigInteger [] prefix = new BigInteger[values.length + 1];
+		prefix[0] = BigInteger.ONE;
+		for (int i = 0; i < values.length; i++) {
+			prefix[i + 1] = reducer.multiply(prefix[i], values[i]);
+		}
+		return prefix;
+	}
+
+	/**
+	 * Compute all suffix sums of the encrypted DGK values, in one pass over the array.
+	 * Like {@link #sum(BigInteger[], DGKPublicKey)}, the sums are NOT re-randomized.
+	 * @param values - Array of Encrypted DGK values
+	 * @param public_key - DGKPublicKey used to encrypt the values
+	 * @return suffix - array of length values.length + 1, where suffix[i] = [values[i] + ... + values[n - 1]]
+	 * and suffix[n] = 1 is the empty sum
+	 * @throws HomomorphicException - If an invalid input was found
+	 */
+	public static BigInteger [] suffix_sum (BigInteger [] values, DGKPublicKey public_key)
+			throws HomomorphicException {
+		check_ciphertexts(values, public_key);
+		BarrettReducer reducer = new BarrettReducer(public_key.n);
+		BigInteger [] suffix = new BigInteger[values.length + 1];
+		suffix[values.length] = BigInteger.ONE;
+		for (int i = values.length - 1; i >= 0; i--) {
+			suffix[i] = reducer.multiply(suffix[i + 1], values[i]);
+		}
+		return suffix;
+	}
+
+	/**
+	 * Checks that every ciphertext is in [0, N].
+	 * @param values - Array of Encrypted DGK values
+	 * @param public_key - DGKPublicKey used to encrypt the values
+	 * @throws HomomorphicException - If a ciphertext is negative or exceeds N
+	 */
+	private static void check_ciphertexts(BigInteger [] values, DGKPublicKey public_key)
+			throws HomomorphicException {
+		for (BigInteger value : values) {
+			if (value.signum() == -1 || value.compareTo(public_key.n) > 0) {
+				throw new HomomorphicException("DGKSum Invalid Parameter ciphertext: " + value);
+			}
 		}
-		return sum;
 	}
 	
 	/**
@@ -301,11 +363,7 @@ public final class DGKOperations implements CipherConstants
 	 */
 	public static BigInteger sum (List<BigInteger> values, DGKPublicKey public_key) 
 			throws HomomorphicException {
-		BigInteger sum = DGKOperations.encrypt(0, public_key);
-		for (BigInteger value : values) {
-			sum = add(sum, value, public_key);
-		}
-		return sum;
+		return sum(values.toArray(new BigInteger[0]), public_key);
 	}
 	
 	/**
@@ -318,17 +376,7 @@ public final class DGKOperations implements CipherConstants
 	 */
 	public static BigInteger sum (List<BigInteger> values, DGKPublicKey public_key, int limit) 
 			throws HomomorphicException {
-		BigInteger sum = DGKOperations.encrypt(0, public_key);
-		if (limit > values.size()) {
-			return sum(values, public_key);
-		}
-		else if(limit <= 0) {
-			return sum;
-		}
-		for (int i = 0; i < limit; i++) {
-			sum = add(sum, values.get(i), public_key);
-		}
-		return sum;
+		return sum(values.toArray(new BigInteger[0]), public_key, limit);
 	}
 	
 	/**
@@ -346,19 +394,14 @@ public final class DGKOperations implements CipherConstants
 		if(ciphertext.size() != plaintext.size()) {
 			throw new HomomorphicException("Lists are NOT the same size!");
 		}
-		BigInteger sum = DGKOperations.encrypt(0, public_key);
-		BigInteger temp;
-		for (int i = 0; i < ciphertext.size(); i++) {
-			temp = DGKOperations.multiply(ciphertext.get(i), plaintext.get(i), public_key);
-			sum = DGKOperations.add(temp, sum, public_key);
-		}
-		return sum;
+		return sum_product(ciphertext.toArray(new BigInteger[0]), plaintext.toArray(new Long[0]), public_key);
 	}
 	
 	/**
-	 * Compute the sum-product. It computes the scalar multiplication between
-	 * the array of Encrypted and plaintext values.
-	 * Then it computes the encrypted sum.
+	 * Compute the sum-product c_1^{k_1} * ... * c_n^{k_n} (mod N) with one multi-exponentiation,
+	 * see {@link MultiExponentiation#pow_product(BigInteger[], BigInteger[], BigInteger)}.
+	 * If the input is empty or every plaintext is 0, it returns a fresh encryption of 0, like sum.
+	 * Otherwise the result is NOT re-randomized, see {@link #rerandomize(BigInteger, DGKPublicKey)}.
 	 * @param ciphertext - Array of Encrypted DGK values
 	 * @param plaintext - Array of Plaintext values
 	 * @param public_key - DGK Public Key used to encrypt values in a ciphertext list
@@ -367,16 +410,116 @@ public final class DGKOperations implements CipherConstants
 	 */
 	public static BigInteger sum_product (BigInteger[] ciphertext, Long [] plaintext, DGKPublicKey public_key)
 			throws HomomorphicException {
-		if(ciphertext.length != plaintext.length) {
-			throw new HomomorphicException("Arrays are NOT the same size!");
-		}
-		
-		BigInteger sum = DGKOperations.encrypt(0, public_key);
-		BigInteger temp;
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
+
+		BigInteger [] scalars = new BigInteger[plaintext.length];
+		boolean empty = true;
 		for (int i = 0; i < ciphertext.length; i++) {
-			temp = DGKOperations.multiply(ciphertext[i], plaintext[i], public_key);
-			sum = DGKOperations.add(temp, sum, public_key);
+			if (ciphertext[i].signum() == -1 || ciphertext[i].compareTo(public_key.n) > 0) {
+				throw new HomomorphicException("DGKMultiply Invalid Parameter ciphertext: " + ciphertext[i]);
+			}
+			scalars[i] = BigInteger.valueOf(plaintext[i]);
+			empty &= scalars[i].signum() == 0;
+		}
+		if (empty) {
+			// The product would be 1, an encryption of 0 that anyone can recognize
+			return DGKOperations.encrypt(0, public_key);
+		}
+		return MultiExponentiation.pow_product(ciphertext, scalars, public_key.n);
+	}
+
+	/**
+	 * Re-randomizes a ciphertext by multiplying it with a fresh h^r (mod N).
+	 * The plaintext is unchanged. Use it before sending the result of
+	 * {@link #sum(BigInteger[], DGKPublicKey)} or a sum-product to another party.
+	 * @param ciphertext - DGK encrypted value
+	 * @param public_key - DGKPublicKey used to encrypt the ciphertext
+	 * @return a new encryption of the same plaintext
+	 * @throws HomomorphicException - If the ciphertext is negative or exceeds N
+	 */
+	public static BigInteger rerandomize(BigInteger ciphertext, DGKPublicKey public_key)
+			throws HomomorphicException {
+		if (ciphertext.signum() == -1 || ciphertext.compareTo(public_key.n) > 0) {
+			throw new HomomorphicException("DGKRerandomize Invalid Parameter ciphertext: " + ciphertext);
 		}
+		return ciphertext.multiply(public_key.blinding_factor()).mod(public_key.n);
+	}
+
+	//-----------------------Batched DGK Operations----------------------------------------------
+
+	/**
+	 * Encrypts every plaintext of the array, in parallel on the {@link BatchExecutor} pool.
+	 * @param plaintext - Array of plaintext values
+	 * @param public_key - DGKPublicKey used to encrypt the values
+	 * @return Array of ciphertexts, where element i encrypts plaintext[i]
+	 * @throws HomomorphicException - If any plaintext is out of range
+	 */
+	public static BigInteger [] encrypt(long [] plaintext, DGKPublicKey public_key)
+			throws HomomorphicException {
+		BigInteger [] ciphertext = new BigInteger[plaintext.length];
+		BatchExecutor.run(plaintext.length, i -> ciphertext[i] = DGKOperations.encrypt(plaintext[i], public_key));
+		return ciphertext;
+	}
+
+	/**
+	 * Decrypts every ciphertext of the array, in parallel on the {@link BatchExecutor} pool.
+	 * @param ciphertext - Array of DGK ciphertexts
+	 * @param private_key - DGKPrivateKey used to decrypt the values
+	 * @return Array of plaintexts, where element i decrypts ciphertext[i]
+	 * @throws HomomorphicException - If any ciphertext is out of range
+	 */
+	public static long [] decrypt(BigInteger [] ciphertext, DGKPrivateKey private_key)
+			throws HomomorphicException {
+		long [] plaintext = new long[ciphertext.length];
+		BatchExecutor.run(ciphertext.length, i -> plaintext[i] = DGKOperations.decrypt(ciphertext[i], private_key));
+		return plaintext;
+	}
+
+	/**
+	 * Element-wise homomorphic addition of two arrays of ciphertexts.
+	 * @param ciphertext1 - Array of DGK ciphertexts
+	 * @param ciphertext2 - Array of DGK ciphertexts, same length as ciphertext1
+	 * @param public_key - DGKPublicKey used to encrypt both arrays
+	 * @return Array where element i encrypts the sum of the plaintexts at index i
+	 * @throws HomomorphicException - If the arrays differ in length or a ciphertext is out of range
+	 */
+	public static BigInteger [] add(BigInteger [] ciphertext1, BigInteger [] ciphertext2, DGKPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext1.length, ciphertext2.length);
+		BigInteger [] sum = new BigInteger[ciphertext1.length];
+		BatchExecutor.run(sum.length, i -> sum[i] = DGKOperations.add(ciphertext1[i], ciphertext2[i], public_key));
 		return sum;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Element-wise homomorphic addition of an array of ciphertexts and an array of plaintexts.
+	 * @param ciphertext - Array of DGK ciphertexts
+	 * @param plaintext - Array of plaintext values, same length as ciphertext
+	 * @param public_key - DGKPublicKey used to encrypt the ciphertexts
+	 * @return Array where element i encrypts ciphertext[i] + plaintext[i]
+	 * @throws HomomorphicException - If the arrays differ in length or a value is out of range
+	 */
+	public static BigInteger [] add_plaintext(BigInteger [] ciphertext, BigInteger [] plaintext, DGKPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
+		BigInteger [] sum = new BigInteger[ciphertext.length];
+		BatchExecutor.run(sum.length, i -> sum[i] = DGKOperations.add_plaintext(ciphertext[i], plaintext[i], public_key));
+		return sum;
+	}
+
+	/**
+	 * Element-wise scalar multiplication of an array of ciphertexts and an array of plaintexts.
+	 * @param ciphertext - Array of DGK ciphertexts
+	 * @param plaintext - Array of plaintext scalars, same length as ciphertext
+	 * @param public_key - DGKPublicKey used to encrypt the ciphertexts
+	 * @return Array where element i encrypts ciphertext[i] * plaintext[i]
+	 * @throws HomomorphicException - If the arrays differ in length or a value is out of range
+	 */
+	public static BigInteger [] multiply(BigInteger [] ciphertext, BigInteger [] plaintext, DGKPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
+		BigInteger [] product = new BigInteger[ciphertext.length];
+		BatchExecutor.run(product.length, i -> product[i] = DGKOperations.multiply(ciphertext[i], plaintext[i], public_key));
+		return product;
+	}
+}
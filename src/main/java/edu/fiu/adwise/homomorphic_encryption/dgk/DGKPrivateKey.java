@@ -7,10 +7,10 @@ package edu.fiu.adwise.homomorphic_encryption.dgk;
 import java.io.*;
 import java.math.BigInteger;
 import java.security.PrivateKey;
-import java.util.HashMap;
-import java.util.Map;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.FingerprintTable;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.misc.PowerTable;
 
 /**
  * Represents a DGK (Damgård-Geisler-Krøigaard) private key used for homomorphic encryption.
@@ -35,8 +35,14 @@ public final class DGKPrivateKey implements Serializable, DGK_Key, PrivateKey {
 	/** A precomputed value for decryption using the second prime factor \( q \). */
 	private final BigInteger vq;
 
-	/** The lookup table (LUT) for decryption, mapping ciphertext values to plaintext values. */
-	final Map<BigInteger, Long> LUT;
+	/**
+	 * The lookup table (LUT) for decryption, mapping g^{vp * m} (mod p) to m.
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile FingerprintTable LUT = null;
+
+	/** The background build of the LUT, or null if the LUT is complete. */
+	private transient volatile PowerTable LUT_build = null;
 
 	// Public Key Parameters
 	/** The modulus \( n \) used in the encryption scheme. */
@@ -97,9 +103,6 @@ public final class DGKPrivateKey implements Serializable, DGK_Key, PrivateKey {
 		this.t = pubKey.t;
 		this.k = pubKey.k;
 
-		// I already know the size of my map, so just initialize the size now to avoid memory waste!
-		this.LUT = new HashMap<>((int) this.u, (float) 1.0);
-
 		// Now that I have public key parameters, build LUT!
 		this.generategLUT();
 	}
@@ -111,7 +114,6 @@ public final class DGKPrivateKey implements Serializable, DGK_Key, PrivateKey {
 	 * @throws IOException If an I/O error occurs during serialization
 	 */
 	public void writeKey(String dgk_private_key_file) throws IOException {
-		LUT.clear();
 		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dgk_private_key_file))) {
 			oos.writeObject(this);
 			oos.flush();
@@ -136,16 +138,134 @@ public final class DGKPrivateKey implements Serializable, DGK_Key, PrivateKey {
 	}
 
 	/**
-	 * Generates the lookup table (LUT) for decryption.
-	 * The LUT maps ciphertext values to their corresponding plaintext values.
+	 * Deserializes a DGK private key from a file, and memory-maps its lookup table from a sidecar file.
+	 * If the sidecar file is missing, corrupt or was built for another key, the table is rebuilt
+	 * and the sidecar file is replaced.
+	 *
+	 * @param dgk_private_key Path to the file containing the serialized private key
+	 * @param lut_file        Path to the lookup table of the key, see {@link #writeTable(String)}
+	 * @return The deserialized DGKPrivateKey object
+	 * @throws IOException            If an I/O error occurs during deserialization
+	 * @throws ClassNotFoundException If the class of the serialized object cannot be found
+	 */
+	public static DGKPrivateKey readKey(String dgk_private_key, String lut_file) throws IOException, ClassNotFoundException {
+		DGKPrivateKey sk;
+		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(dgk_private_key))) {
+			sk = (DGKPrivateKey) ois.readObject();
+		}
+		if (new File(lut_file).isFile()) {
+			try {
+				sk.readTable(lut_file);
+				return sk;
+			}
+			catch (StreamCorruptedException | IllegalArgumentException e) {
+				// Stale or damaged table, replace it below
+			}
+		}
+		sk.writeTable(lut_file);
+		return sk;
+	}
+
+	/**
+	 * Writes the lookup table to a file, so it can be memory-mapped instead of rebuilt when the key is loaded.
+	 * The table reveals as much as the private key, so protect the file like the key.
+	 *
+	 * @param lut_file Path to the file where the lookup table will be saved
+	 * @throws IOException If an I/O error occurs while writing the table
+	 */
+	public void writeTable(String lut_file) throws IOException {
+		complete_LUT().write(lut_file, table_digest());
+	}
+
+	/**
+	 * Memory-maps the lookup table from a file written by {@link #writeTable(String)}.
+	 *
+	 * @param lut_file Path to the file containing the lookup table
+	 * @throws IOException              If an I/O error occurs or the file is not a lookup table
+	 * @throws IllegalArgumentException If the lookup table was built for another key
+	 */
+	public synchronized void readTable(String lut_file) throws IOException {
+		FingerprintTable table = FingerprintTable.read(lut_file, table_digest());
+		this.LUT_build = null;
+		this.LUT = table;
+	}
+
+	/**
+	 * @return The digest of the parameters that determine the lookup table.
 	 */
-	private void generategLUT() {
+	private byte [] table_digest() {
+		return FingerprintTable.digest(this.n, this.g, this.p, this.vp, this.bigU);
+	}
+
+	/**
+	 * Starts generating the lookup table (LUT) for decryption in the background, see {@link PowerTable}.
+	 * The LUT maps g^{vp * m} (mod p) to m for every plaintext m in [0, u), see {@link FingerprintTable}.
+	 * The key can decrypt immediately, a lookup only waits for the build if the LUT does not have the entry yet.
+	 * If another thread already started the LUT, no second build is started.
+	 *
+	 * @return The table being generated.
+	 */
+	private synchronized FingerprintTable generategLUT() {
+		if (this.LUT != null) {
+			return this.LUT;
+		}
 		BigInteger gvp = NTL.POSMOD(this.g.modPow(this.vp, this.p), this.p);
-		for (long i = 0; i < this.u; ++i)
-		{
-			BigInteger decipher = gvp.modPow(BigInteger.valueOf(i), this.p);
-			this.LUT.put(decipher, i);
+		FingerprintTable table = new FingerprintTable(this.u, i -> gvp.modPow(BigInteger.valueOf(i), this.p));
+		// Publish the build first, so a thread that sees the LUT also knows it is incomplete
+		this.LUT_build = PowerTable.start(gvp, this.p, Math.toIntExact(this.u), false, (start, powers) -> {
+			synchronized (table) {
+				for (int j = 0; j < powers.length; j++) {
+					table.put(powers[j], start + j);
+				}
+			}
+		});
+		this.LUT = table;
+		return table;
+	}
+
+	/**
+	 * Waits until the lookup table is complete, building the remaining parts on the calling thread.
+	 *
+	 * @return The complete table.
+	 */
+	private FingerprintTable complete_LUT() {
+		FingerprintTable table = this.LUT;
+		if (table == null) {
+			table = generategLUT();
+		}
+		PowerTable build = this.LUT_build;
+		if (build != null) {
+			build.await();
+			this.LUT_build = null;
+		}
+		return table;
+	}
+
+	/**
+	 * Looks up the plaintext of c^vp (mod p).
+	 * The LUT is built on first use if it is not available (e.g. after the key was deserialized).
+	 *
+	 * @param decipher - c^vp (mod p) for a ciphertext c
+	 * @return The plaintext m with g^{vp * m} = decipher (mod p), or -1 if there is none.
+	 */
+	long lookup(BigInteger decipher) {
+		FingerprintTable table = this.LUT;
+		if (table == null) {
+			table = generategLUT();
+		}
+		PowerTable build = this.LUT_build;
+		if (build == null || build.isDone()) {
+			return table.get(decipher);
+		}
+		// The LUT is still being built, a miss is only final once it is complete
+		int plaintext;
+		synchronized (table) {
+			plaintext = table.get(decipher);
+		}
+		if (plaintext >= 0) {
+			return plaintext;
 		}
+		return complete_LUT().get(decipher);
 	}
 
 	/**
@@ -7,10 +7,18 @@ package edu.fiu.adwise.homomorphic_encryption.dgk;
 import java.io.*;
 import java.math.BigInteger;
 import java.security.PublicKey;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BlindingPool;
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
+import edu.fiu.adwise.homomorphic_encryption.misc.FixedBaseTable;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.misc.PowerTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Represents the public key for the DGK (Damgård-Geisler-Krøigaard) cryptosystem.
@@ -20,6 +28,14 @@ import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 public final class DGKPublicKey implements Serializable, DGK_Key, PublicKey, Runnable, CipherConstants {
 	@Serial
 	private static final long serialVersionUID = -1613333167285302035L;
+	private static final Logger logger = LogManager.getLogger(DGKPublicKey.class);
+
+	/** The largest number of powers of g outside the lookup table that are cached, e.g. g^{-1}. */
+	static final int MAX_CACHED_POWERS = 1024;
+
+	/** The default number of exponent bits consumed per lookup in the fixed-base table for h. */
+	public static final int DEFAULT_WINDOW_SIZE = 6;
+
 	/** The modulus \( n \) used in the DGK cryptosystem. */
 	final BigInteger n;
 
@@ -35,11 +51,26 @@ public final class DGKPublicKey implements Serializable, DGK_Key, PublicKey, Run
 	/** The order of the subgroup as a BigInteger. */
 	final BigInteger bigU;
 
-	/** The lookup table for \( g^i \mod n \) values. */
-	final HashMap<Long, BigInteger> gLUT = new HashMap<>();
+	/**
+	 * The lookup table for \( g^i \mod n \) values, built in the background.
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile PowerTable gLUT = null;
+
+	/**
+	 * The fixed-base windowed table for h, holding h^{v * 2^{j * w}} (mod n).
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile FixedBaseTable hLUT = null;
+
+	/** The powers of g whose exponent is outside the lookup table, cached on first use. */
+	private transient volatile Map<Long, BigInteger> gCache = null;
 
-	/** The lookup table for \( h^i \mod n \) values. */
-	private final HashMap<Long, BigInteger> hLUT = new HashMap<>();
+	/** The window size w (in bits) used to build the fixed-base table for h. */
+	private transient int window_size = DEFAULT_WINDOW_SIZE;
+
+	/** Optional pool of precomputed h^r (mod n) values, it is not serialized with the key. */
+	private transient volatile BlindingPool blinding_pool = null;
 
 	// Key Parameters
 	/** The bit length of plaintext values. */
@@ -87,9 +118,6 @@ public final class DGKPublicKey implements Serializable, DGK_Key, PublicKey, Run
 	 * @throws IOException If an I/O error occurs.
 	 */
 	public void writeKey(String dgk_public_key_file)  throws IOException {
-		// clear hashmaps
-		hLUT.clear();
-		gLUT.clear();
 		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(dgk_public_key_file))) {
 			oos.writeObject(this);
 			oos.flush();
@@ -174,33 +202,179 @@ public final class DGKPublicKey implements Serializable, DGK_Key, PublicKey, Run
 
 	/**
 	 * Generates the lookup tables for g and h.
+	 * The table for g is built in the background first, so it overlaps the table for h.
 	 */
 	public void run() {
-		this.generatehLUT();
 		this.generategLUT();
+		this.generatehLUT();
+	}
+
+	/**
+	 * Generates the fixed-base windowed table for h, covering exponents of 2t bits.
+	 * With a window of w bits, h^r (mod n) takes at most ceil(2t/w) modular multiplications and no squaring.
+	 *
+	 * @return The generated table.
+	 */
+	private synchronized FixedBaseTable generatehLUT() {
+		FixedBaseTable table = new FixedBaseTable(this.h, this.n, 2 * this.t, getWindowSize());
+		this.hLUT = table;
+		logger.info("Built fixed-base table for h with window size {}: {} entries, about {} bytes",
+				table.getWindowSize(), table.getEntries(), table.getMemoryFootprint());
+		return table;
+	}
+
+	/**
+	 * Computes h^r (mod n) using the fixed-base windowed table.
+	 * The table is built on first use if it is not available (e.g. after the key was received on a socket).
+	 *
+	 * @param r - non-negative exponent
+	 * @return h^r (mod n)
+	 */
+	BigInteger hPow(BigInteger r) {
+		FixedBaseTable table = this.hLUT;
+		if (table == null) {
+			table = generatehLUT();
+		}
+		return table.pow(r);
+	}
+
+	/**
+	 * Computes a fresh blinding factor h^r (mod n) for a random 2t-bit r.
+	 * If a blinding pool is running, the factor is taken from the pool instead.
+	 *
+	 * @return A blinding factor for encryption.
+	 */
+	BigInteger blinding_factor() {
+		BlindingPool pool = this.blinding_pool;
+		if (pool != null) {
+			return pool.next();
+		}
+		return compute_blinding_factor();
+	}
+
+	/**
+	 * @return h^r (mod n) for a fresh random 2t-bit r.
+	 */
+	private BigInteger compute_blinding_factor() {
+		return hPow(NTL.generateXBitRandom(2 * this.t));
 	}
 
 	/**
-	 * Generates the lookup table for h^i mod n values.
+	 * Starts a background pool of precomputed blinding factors h^r (mod n).
+	 * Encryption then only needs one modular multiplication while the pool has factors.
+	 * A running pool is stopped and replaced.
+	 *
+	 * @param low_watermark  Refill the pool once it drains to this size.
+	 * @param high_watermark The capacity of the pool.
+	 * @param threads        The number of background threads filling the pool.
+	 * @return The started {@link BlindingPool}, e.g. to read its hit/miss counters.
+	 */
+	public synchronized BlindingPool startBlindingPool(int low_watermark, int high_watermark, int threads) {
+		stopBlindingPool();
+		this.blinding_pool = new BlindingPool(this::compute_blinding_factor, low_watermark, high_watermark, threads);
+		return this.blinding_pool;
+	}
+
+	/**
+	 * Stops the background pool of blinding factors, if any.
+	 * Encryption goes back to computing h^r (mod n) inline.
 	 */
-	private void generatehLUT() {		
-		for (long i = 0; i < 2L * t; ++i) {
-			// e = 2^i (mod n)
-			// h^{2^i (mod n)} (mod n)
-			// f(i) = h^{2^i}(mod n)
-			BigInteger e = TWO.pow((int) i).mod(this.n);
-			this.hLUT.put(i, this.h.modPow(e, this.n));
+	public synchronized void stopBlindingPool() {
+		if (this.blinding_pool != null) {
+			this.blinding_pool.close();
+			this.blinding_pool = null;
 		}
 	}
 
 	/**
-	 * Generates the lookup table for g^i mod n values.
+	 * @return The running {@link BlindingPool}, or null if none was started.
 	 */
-	private void generategLUT() {	
-		for (long i = 0; i < this.u; ++i) {
-			BigInteger out = this.g.modPow(BigInteger.valueOf(i), this.n);
-			this.gLUT.put(i, out);
+	public BlindingPool getBlindingPool() {
+		return this.blinding_pool;
+	}
+
+	/**
+	 * Sets the window size of the fixed-base table for h and rebuilds the table.
+	 * Larger windows need fewer multiplications per encryption but use exponentially more memory,
+	 * see {@link #getWindowTableMemory()}.
+	 *
+	 * @param window_size - number of exponent bits per table row, between 1 and 16
+	 * @throws IllegalArgumentException - If the window size is out of range
+	 */
+	public void setWindowSize(int window_size) {
+		if (window_size < 1 || window_size > 16) {
+			throw new IllegalArgumentException("Window size must be between 1 and 16 bits: " + window_size);
+		}
+		this.window_size = window_size;
+		this.generatehLUT();
+	}
+
+	/**
+	 * @return The window size (in bits) of the fixed-base table for h.
+	 */
+	public int getWindowSize() {
+		return this.window_size <= 0 ? DEFAULT_WINDOW_SIZE : this.window_size;
+	}
+
+	/**
+	 * Estimates the memory used by the fixed-base table for h.
+	 *
+	 * @return The estimated size of the table in bytes, or 0 if it has not been built yet.
+	 */
+	public long getWindowTableMemory() {
+		FixedBaseTable table = this.hLUT;
+		if (table == null) {
+			return 0;
+		}
+		return table.getMemoryFootprint();
+	}
+
+	/**
+	 * Starts generating the lookup table for g^i mod n values in the background, see {@link PowerTable}.
+	 *
+	 * @return The table being generated.
+	 */
+	private synchronized PowerTable generategLUT() {
+		PowerTable table = PowerTable.start(this.g, this.n, Math.toIntExact(this.u), true, null);
+		this.gLUT = table;
+		return table;
+	}
+
+	/**
+	 * Computes g^m (mod n), from the lookup table if it has the entry already.
+	 * The table is built on first use if it is not available (e.g. after the key was received on a socket).
+	 * A power outside the table, e.g. for m = -1, is cached on first use,
+	 * until {@link #MAX_CACHED_POWERS} of them are cached.
+	 *
+	 * @param m - the exponent
+	 * @return g^m (mod n)
+	 */
+	BigInteger gPow(long m) {
+		if (m < 0 || m >= this.u) {
+			Map<Long, BigInteger> cache = this.gCache;
+			if (cache == null) {
+				synchronized (this) {
+					if (this.gCache == null) {
+						this.gCache = new ConcurrentHashMap<>();
+					}
+					cache = this.gCache;
+				}
+			}
+			BigInteger power = cache.get(m);
+			if (power == null) {
+				ModExpCounter.count();
+				power = this.g.modPow(BigInteger.valueOf(m), this.n);
+				if (cache.size() < MAX_CACHED_POWERS) {
+					cache.putIfAbsent(m, power);
+				}
+			}
+			return power;
+		}
+		PowerTable table = this.gLUT;
+		if (table == null) {
+			table = generategLUT();
 		}
+		return table.get((int) m);
 	}
 
 	/**
@@ -9,6 +9,7 @@ import java.util.List;
 
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 /**
@@ -73,8 +74,8 @@ public class ElGamalCipher {
 	private static ElGamal_Ciphertext Encrypt(BigInteger plaintext, ElGamalPublicKey public_key) {
 		BigInteger pPrime = public_key.p.subtract(BigInteger.ONE).divide(ElGamalKeyPairGenerator.TWO);
 		BigInteger r = NTL.RandomBnd(pPrime);
-		BigInteger gr = public_key.g.modPow(r, public_key.p);
-		BigInteger hrgm = plaintext.multiply(public_key.h.modPow(r, public_key.p)).mod(public_key.p);
+		BigInteger gr = public_key.gPow(r);
+		BigInteger hrgm = plaintext.multiply(public_key.hPow(r)).mod(public_key.p);
 		// encrypt couple (g^r (mod p), m * h^r (mod p))
 		return new ElGamal_Ciphertext(gr, hrgm);
 	}
@@ -90,9 +91,10 @@ public class ElGamalCipher {
 		BigInteger pPrime = public_key.p.subtract(BigInteger.ONE).divide(ElGamalKeyPairGenerator.TWO);
 		BigInteger r = NTL.RandomBnd(pPrime);
 		// encrypt couple (g^r (mod p), h^r * g^m (mod p))
-		BigInteger hr = public_key.h.modPow(r, public_key.p);
-		BigInteger gm = public_key.g.modPow(plaintext, public_key.p);
-		return new ElGamal_Ciphertext(public_key.g.modPow(r, public_key.p), hr.multiply(gm).mod(public_key.p));
+		// g^r and h^r use the fixed-base tables, g^m the message lookup table if there is one
+		BigInteger hr = public_key.hPow(r);
+		BigInteger gm = public_key.gPowMessage(plaintext);
+		return new ElGamal_Ciphertext(public_key.gPow(r), hr.multiply(gm).mod(public_key.p));
 	}
 
 	/**
@@ -103,6 +105,7 @@ public class ElGamalCipher {
 	 * @return The decrypted plaintext message.
 	 */
 	private static BigInteger Decrypt(ElGamal_Ciphertext ciphertext, ElGamalPrivateKey private_key) {
+		ModExpCounter.count();
 		BigInteger hr = ciphertext.gr.modPow(private_key.x, private_key.p);
 		return ciphertext.hrgm.multiply(hr.modInverse(private_key.p)).mod(private_key.p);
 	}
@@ -116,10 +119,11 @@ public class ElGamalCipher {
 	 */
 	private static BigInteger Decrypt_Homomorph(ElGamal_Ciphertext ciphertext, ElGamalPrivateKey private_key) {
 		// h^r (mod p) = g^{r * x} (mod p)
+		ModExpCounter.count();
 		BigInteger hr = ciphertext.gr.modPow(private_key.x, private_key.p);
 		// g^m = (h^r * g^m) * (h^r)-1 (mod p) = g^m (mod p)
 		BigInteger gm = ciphertext.hrgm.multiply(hr.modInverse(private_key.p)).mod(private_key.p);
-		BigInteger m = private_key.LUT.get(gm);
+		BigInteger m = private_key.lookup(gm);
 
 		if (m != null)
 		{
@@ -151,6 +155,7 @@ public class ElGamalCipher {
 	public static ElGamal_Ciphertext multiply_scalar(ElGamal_Ciphertext ciphertext1, BigInteger scalar, ElGamalPublicKey public_key) {
 		if(public_key.additive) {
 			ElGamal_Ciphertext answer;
+			ModExpCounter.count(2);
 			answer = new ElGamal_Ciphertext(ciphertext1.gr.modPow(scalar, public_key.p),
 					ciphertext1.hrgm.modPow(scalar, public_key.p));
 			return answer;
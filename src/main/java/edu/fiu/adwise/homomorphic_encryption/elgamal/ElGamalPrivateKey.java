@@ -4,14 +4,14 @@
  */
 package edu.fiu.adwise.homomorphic_encryption.elgamal;
 
+import java.io.IOException;
 import java.io.Serial;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.security.PrivateKey;
-import java.util.HashMap;
-import java.util.Map;
 
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
+import edu.fiu.adwise.homomorphic_encryption.misc.FingerprintTable;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -33,8 +33,26 @@ public final class ElGamalPrivateKey implements ElGamal_Key, Serializable, Priva
 	/** The private key parameter \( x \) used in the ElGamal encryption scheme. */
 	final BigInteger x;
 
-	/** The lookup table mapping \( g^m \mod p \) to \( m \) for decryption. */
-	final Map<BigInteger, BigInteger> LUT;
+	/**
+	 * The lookup table mapping \( g^m \mod p \) to the index of \( m \) for decryption, see {@link #message_of(int)}.
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile FingerprintTable LUT = null;
+
+	/**
+	 * The default number of non-negative messages in the lookup table, the largest value of x - y + r + 2^l.
+	 * These are the baby steps of the decryption, see {@link #setBabySteps(int)}.
+	 */
+	public static final int DEFAULT_BABY_STEPS = FIELD_SIZE.add(FIELD_SIZE).subtract(TWO).add(TWO.pow(16)).intValue();
+
+	/** The number of messages below p - 1 in the lookup table, p - 2 down to p - 9. */
+	private static final int NEGATIVE_MESSAGES = 8;
+
+	/** The number of non-negative messages in the lookup table. */
+	private transient int baby_steps = DEFAULT_BABY_STEPS;
+
+	/** Non-negative messages below this bound are decrypted, using giant steps past the lookup table. */
+	private transient long max_message = DEFAULT_BABY_STEPS;
 
 	// Taken from ElGamal Public Key
 	/** The prime modulus \( p \) used in the ElGamal encryption scheme. */
@@ -65,12 +83,8 @@ public final class ElGamalPrivateKey implements ElGamal_Key, Serializable, Priva
 		this.h = h;
 		this.additive = additive;
 		if(additive) {
-			this.LUT = new HashMap<>(FIELD_SIZE.intValue(), (float) 1.0);
 			this.decrypt_table();
 		}
-		else {
-			this.LUT = null;
-		}
 	}
 
 	/**
@@ -114,29 +128,166 @@ public final class ElGamalPrivateKey implements ElGamal_Key, Serializable, Priva
 
 	/**
 	 * Generates the lookup table for decryption.
-	 * The table maps g^m mod p to m for plaintext space [0, p - 1).
+	 * The table maps g^m mod p to m for the baby steps m in [0, baby_steps), and for m from p - 2 down to p - 9.
+	 *
+	 * @return The generated table.
 	 */
-	private void decrypt_table() {
+	private synchronized FingerprintTable decrypt_table() {
 		// Get maximum size of x - y + r + 2^l
 		// Assume maximum value is u: biggest value in DGK which is the closest prime from 2^l l = 16 default.
-		BigInteger decrypt_size = FIELD_SIZE.add(FIELD_SIZE).subtract(TWO).add(TWO.pow(16));
+		int baby = getBabySteps();
 		long start_time = System.nanoTime();
 		logger.info("Building Lookup Table g^m --> m for ElGamal");
-		BigInteger message = BigInteger.ZERO;
-		while (!message.equals(decrypt_size)) {
-			BigInteger gm = this.g.modPow(message, this.p);
-			this.LUT.put(gm, message);
-			message = message.add(BigInteger.ONE);
+		FingerprintTable table = new FingerprintTable(baby + NEGATIVE_MESSAGES,
+				i -> this.g.modPow(message_of(baby, i), this.p));
+		BigInteger gm = BigInteger.ONE;
+		for (int i = 0; i < baby; i++) {
+			table.put(gm, i);
+			gm = gm.multiply(this.g).mod(this.p);
 		}
 
 		// For negative numbers, go from p - 2 and go down a bit
-		message = this.p.subtract(TWO);
-		while (!message.equals(this.p.subtract(BigInteger.TEN))) {
-			BigInteger gm = this.g.modPow(message, this.p);
-			this.LUT.put(gm, message);
-			message = message.subtract(BigInteger.ONE);
+		for (int i = baby; i < baby + NEGATIVE_MESSAGES; i++) {
+			table.put(this.g.modPow(message_of(baby, i), this.p), i);
 		}
+		this.LUT = table;
         logger.info("Finished Building Lookup Table g^m --> m for ElGamal in {} seconds", (System.nanoTime() - start_time) / BigInteger.TEN.pow(9).longValue());
+		return table;
+	}
+
+	/**
+	 * @param baby - the number of baby steps of the lookup table
+	 * @param index - the index of a message in the lookup table
+	 * @return The message, the index itself for non-negative messages, and p - 2 down to p - 9 after them.
+	 */
+	private BigInteger message_of(int baby, int index) {
+		if (index < baby) {
+			return BigInteger.valueOf(index);
+		}
+		return this.p.subtract(TWO).subtract(BigInteger.valueOf(index - baby));
+	}
+
+	/**
+	 * Looks up the message m of g^m mod p.
+	 * The lookup table is built on first use if it is not available (e.g. after the key was deserialized).
+	 * If m is not in the table, the baby-step giant-step algorithm searches the messages up to {@link #getMaxMessage()}:
+	 * the i-th giant step looks up g^m * g^{-i * baby_steps} mod p in the table.
+	 *
+	 * @param gm - g^m mod p
+	 * @return The message m, or null if it is not in the lookup table or reachable by giant steps.
+	 */
+	BigInteger lookup(BigInteger gm) {
+		FingerprintTable table = this.LUT;
+		if (table == null) {
+			table = decrypt_table();
+		}
+		// Take the baby steps from the table, in case they were changed since it was built
+		int baby = table.size() - NEGATIVE_MESSAGES;
+		int index = table.get(gm);
+		if (index >= 0) {
+			return message_of(baby, index);
+		}
+
+		long max = getMaxMessage();
+		if (max <= baby) {
+			return null;
+		}
+		// One giant step multiplies by g^{-baby_steps} mod p
+		BigInteger factor = this.g.modPow(BigInteger.valueOf(baby).negate(), this.p);
+		BigInteger giant = gm;
+		for (long i = baby; i < max; i += baby) {
+			giant = giant.multiply(factor).mod(this.p);
+			index = table.get(giant);
+			// A match with a message below p - 1 would be a negative message, keep searching
+			if (index >= 0 && index < baby) {
+				return BigInteger.valueOf(i + index);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Sets the number of baby steps, the non-negative messages kept in the lookup table, and rebuilds the table.
+	 * Messages past the table are found by giant steps, see {@link #setMaxMessage(long)}.
+	 * Searching messages up to M takes about M / baby_steps giant steps, so about sqrt(M) baby steps
+	 * balance the memory of the table against the time of decryption.
+	 *
+	 * @param baby_steps The number of baby steps, at least 1.
+	 * @throws IllegalArgumentException If the number of baby steps is out of range.
+	 */
+	public synchronized void setBabySteps(int baby_steps) {
+		if (baby_steps < 1 || baby_steps > Integer.MAX_VALUE / 64) {
+			throw new IllegalArgumentException("Invalid number of baby steps: " + baby_steps);
+		}
+		this.baby_steps = baby_steps;
+		if (this.additive) {
+			this.decrypt_table();
+		}
+		else {
+			this.LUT = null;
+		}
+	}
+
+	/**
+	 * @return The number of baby steps, the non-negative messages kept in the lookup table.
+	 */
+	public int getBabySteps() {
+		return this.baby_steps <= 0 ? DEFAULT_BABY_STEPS : this.baby_steps;
+	}
+
+	/**
+	 * Sets the bound of the messages that are decrypted. Messages past the lookup table,
+	 * e.g. 32-bit to 40-bit sums, are found with giant steps of {@link #getBabySteps()} messages each.
+	 * By default, the bound is the default number of baby steps, so no giant steps are taken.
+	 *
+	 * @param max_message Decrypt the non-negative messages below this bound.
+	 * @throws IllegalArgumentException If the bound is not positive.
+	 */
+	public void setMaxMessage(long max_message) {
+		if (max_message < 1) {
+			throw new IllegalArgumentException("The bound of the messages must be positive: " + max_message);
+		}
+		this.max_message = max_message;
+	}
+
+	/**
+	 * @return The bound of the non-negative messages that are decrypted.
+	 */
+	public long getMaxMessage() {
+		return this.max_message <= 0 ? DEFAULT_BABY_STEPS : this.max_message;
+	}
+
+	/**
+	 * Writes the lookup table to a file, so it can be memory-mapped instead of rebuilt.
+	 * The file only depends on p and g, but protect it like the key.
+	 *
+	 * @param lut_file Path to the file where the lookup table will be saved.
+	 * @throws IOException If an I/O error occurs while writing the table.
+	 */
+	public void writeTable(String lut_file) throws IOException {
+		FingerprintTable table = this.LUT;
+		if (table == null) {
+			table = decrypt_table();
+		}
+		table.write(lut_file, table_digest());
+	}
+
+	/**
+	 * Memory-maps the lookup table from a file written by {@link #writeTable(String)}.
+	 *
+	 * @param lut_file Path to the file containing the lookup table.
+	 * @throws IOException If an I/O error occurs or the file is not a lookup table.
+	 * @throws IllegalArgumentException If the lookup table was built for another key.
+	 */
+	public void readTable(String lut_file) throws IOException {
+		this.LUT = FingerprintTable.read(lut_file, table_digest());
+	}
+
+	/**
+	 * @return The digest of the parameters that determine the lookup table.
+	 */
+	private byte [] table_digest() {
+		return FingerprintTable.digest(this.p, this.g, BigInteger.valueOf(getBabySteps() + NEGATIVE_MESSAGES));
 	}
 
 	/**
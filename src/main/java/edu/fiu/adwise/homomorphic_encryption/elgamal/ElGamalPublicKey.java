@@ -9,12 +9,19 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.security.PublicKey;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.FixedBaseTable;
+import edu.fiu.adwise.homomorphic_encryption.misc.PowerTable;
+
 /**
  * Represents the public key for the ElGamal encryption scheme.
  */
 public final class ElGamalPublicKey implements Serializable, PublicKey, ElGamal_Key {
 	@Serial
 	private static final long serialVersionUID = -6796919675914392847L;
+
+	/** The default number of exponent bits consumed per lookup in the fixed-base tables for g and h. */
+	public static final int DEFAULT_WINDOW_SIZE = 6;
+
 	/** The prime modulus \( p \) used in the ElGamal encryption scheme. */
 	final BigInteger p;
 
@@ -27,6 +34,24 @@ public final class ElGamalPublicKey implements Serializable, PublicKey, ElGamal_
 	/** Indicates whether additive homomorphic encryption is enabled. */
 	public boolean additive;
 
+	/**
+	 * The fixed-base windowed table for g, holding g^{v * 2^{j * w}} (mod p).
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile FixedBaseTable gTable = null;
+
+	/**
+	 * The fixed-base windowed table for h, holding h^{v * 2^{j * w}} (mod p).
+	 * It is rebuilt locally instead of being serialized with the key.
+	 */
+	private transient volatile FixedBaseTable hTable = null;
+
+	/** The window size w (in bits) used to build the fixed-base tables. */
+	private transient int window_size = DEFAULT_WINDOW_SIZE;
+
+	/** Optional lookup table for g^m (mod p) of small messages m, it is not serialized with the key. */
+	private transient volatile PowerTable gLUT = null;
+
 	/**
 	 * Constructs an ElGamalPublicKey with the specified parameters.
 	 *
@@ -78,6 +103,121 @@ public final class ElGamalPublicKey implements Serializable, PublicKey, ElGamal_
 		return null;
 	}
 
+	/**
+	 * Generates the fixed-base windowed tables for g and h, covering exponents as long as p.
+	 * With a window of w bits, g^r (mod p) takes at most ceil(|p|/w) modular multiplications and no squaring.
+	 */
+	private synchronized void generate_tables() {
+		this.gTable = new FixedBaseTable(this.g, this.p, this.p.bitLength(), getWindowSize());
+		this.hTable = new FixedBaseTable(this.h, this.p, this.p.bitLength(), getWindowSize());
+	}
+
+	/**
+	 * Computes g^r (mod p) using the fixed-base windowed table.
+	 * The tables are built on first use (e.g. after the key was received on a socket).
+	 *
+	 * @param r - the exponent, negative exponents are computed with modPow
+	 * @return g^r (mod p)
+	 */
+	BigInteger gPow(BigInteger r) {
+		FixedBaseTable table = this.gTable;
+		if (table == null) {
+			generate_tables();
+			table = this.gTable;
+		}
+		return table.pow(r);
+	}
+
+	/**
+	 * Computes h^r (mod p) using the fixed-base windowed table.
+	 * The tables are built on first use (e.g. after the key was received on a socket).
+	 *
+	 * @param r - the exponent, negative exponents are computed with modPow
+	 * @return h^r (mod p)
+	 */
+	BigInteger hPow(BigInteger r) {
+		FixedBaseTable table = this.hTable;
+		if (table == null) {
+			generate_tables();
+			table = this.hTable;
+		}
+		return table.pow(r);
+	}
+
+	/**
+	 * Computes g^m (mod p) for a message m, from the message lookup table if it covers m.
+	 *
+	 * @param m - the message
+	 * @return g^m (mod p)
+	 */
+	BigInteger gPowMessage(BigInteger m) {
+		PowerTable table = this.gLUT;
+		if (table != null && m.signum() >= 0 && m.compareTo(BigInteger.valueOf(table.size())) < 0) {
+			return table.get(m.intValue());
+		}
+		return gPow(m);
+	}
+
+	/**
+	 * Sets the window size of the fixed-base tables for g and h and rebuilds the tables.
+	 * Larger windows need fewer multiplications per encryption but use exponentially more memory,
+	 * see {@link #getWindowTableMemory()}.
+	 *
+	 * @param window_size - number of exponent bits per table row, between 1 and 16
+	 * @throws IllegalArgumentException - If the window size is out of range
+	 */
+	public void setWindowSize(int window_size) {
+		if (window_size < 1 || window_size > 16) {
+			throw new IllegalArgumentException("Window size must be between 1 and 16 bits: " + window_size);
+		}
+		this.window_size = window_size;
+		this.generate_tables();
+	}
+
+	/**
+	 * @return The window size (in bits) of the fixed-base tables for g and h.
+	 */
+	public int getWindowSize() {
+		return this.window_size <= 0 ? DEFAULT_WINDOW_SIZE : this.window_size;
+	}
+
+	/**
+	 * Estimates the memory used by the fixed-base tables for g and h.
+	 *
+	 * @return The estimated size of the tables in bytes, or 0 if they have not been built yet.
+	 */
+	public long getWindowTableMemory() {
+		FixedBaseTable g_table = this.gTable;
+		FixedBaseTable h_table = this.hTable;
+		if (g_table == null || h_table == null) {
+			return 0;
+		}
+		return g_table.getMemoryFootprint() + h_table.getMemoryFootprint();
+	}
+
+	/**
+	 * Starts building a lookup table of g^m (mod p) for the messages m in [0, size) in the background,
+	 * so encrypting a small message in additive mode costs a lookup instead of an exponentiation.
+	 * Each entry takes about the size of p, e.g. 2^16 entries of a 1024-bit key take about 12 MB.
+	 *
+	 * @param size - the number of messages in the table, or 0 to drop the table
+	 * @throws IllegalArgumentException - If the size is negative
+	 */
+	public synchronized void setMessageCache(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Size of the message cache must be non-negative: " + size);
+		}
+		this.gLUT = (size == 0) ? null : PowerTable.start(this.g, this.p, size, true, null);
+	}
+
+	/**
+	 * @return The number of messages in the lookup table of g^m (mod p), 0 if there is none.
+	 */
+	public int getMessageCache() {
+		PowerTable table = this.gLUT;
+		return table == null ? 0 : table.size();
+	}
+
 	/**
 	 * Returns the prime modulus.
 	 *
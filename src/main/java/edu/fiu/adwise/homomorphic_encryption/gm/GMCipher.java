@@ -9,6 +9,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
@@ -17,6 +18,9 @@ import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
  * This class implements the Goldwasser-Micali (GM) encryption scheme.
  * It provides methods for encrypting, decrypting, and performing XOR operations
  * on encrypted bits using the GM cryptosystem.
+ * <p>
+ * Besides arrays of {@link BigInteger}, bits can be encrypted into a packed {@link GMVector}.
+ * The vector operations process the bits in parallel chunks on the {@link BatchExecutor} pool.
  */
 public class GMCipher implements CipherConstants
 {
@@ -53,11 +57,9 @@ public class GMCipher implements CipherConstants
 	 * @return The decrypted plaintext as a BigInteger.
 	 */
 	public static BigInteger decrypt(BigInteger [] cipher, GMPrivateKey private_key) {
-		BigInteger e;
 		BigInteger m = BigInteger.ZERO;
 		for (int i = cipher.length - 1; i >= 0 ; i--) {
-			e = NTL.jacobi(cipher[i], private_key.p);
-			if (e.equals(NEG_ONE)) {
+			if (decrypt_bit(cipher[i], private_key)) {
 				m = m.setBit(i);
 			}
 		}
@@ -84,4 +86,204 @@ public class GMCipher implements CipherConstants
 		}
 		return xor_solution;
 	}
+
+	//------------------------------------------Packed vector Code----------------------------------------
+
+	/**
+	 * Encrypts the lowest bits of a plaintext into a packed vector, in parallel.
+	 * Unlike {@link #encrypt(BigInteger, GMPublicKey)}, the length is fixed, so vectors of different
+	 * messages line up bit by bit.
+	 *
+	 * @param message    The plaintext message to be encrypted, in [0, 2^bits).
+	 * @param bits       The number of bits to encrypt.
+	 * @param public_key The public key used for encryption.
+	 * @return The vector of encrypted bits, bit i at index i.
+	 * @throws HomomorphicException If the message is negative or has more than the given number of bits.
+	 */
+	public static GMVector encrypt(BigInteger message, int bits, GMPublicKey public_key)
+			throws HomomorphicException {
+		if (message.signum() < 0 || message.bitLength() > bits) {
+			throw new HomomorphicException("GM Encryption Invalid Range: message does not fit in " + bits + " bits");
+		}
+		GMVector cipher = new GMVector(bits, public_key.n);
+		BatchExecutor.run(bits, i -> cipher.set(i, encrypt_bit(message.testBit(i), public_key)));
+		return cipher;
+	}
+
+	/**
+	 * Decrypts a packed vector of encrypted bits, in parallel.
+	 *
+	 * @param cipher      The vector of encrypted bits.
+	 * @param private_key The private key used for decryption.
+	 * @return The decrypted plaintext as a BigInteger.
+	 * @throws HomomorphicException If the decryption of a bit failed.
+	 */
+	public static BigInteger decrypt(GMVector cipher, GMPrivateKey private_key) throws HomomorphicException {
+		boolean [] bits = decrypt_bits(cipher, private_key);
+		// Big-endian magnitude of the message
+		byte [] magnitude = new byte[(bits.length + 7) >>> 3];
+		for (int i = 0; i < bits.length; i++) {
+			if (bits[i]) {
+				magnitude[magnitude.length - 1 - (i >>> 3)] |= (byte) (1 << (i & 7));
+			}
+		}
+		return new BigInteger(1, magnitude);
+	}
+
+	/**
+	 * Performs a bitwise XOR on two packed vectors, in parallel.
+	 *
+	 * @param cipher_1   The first vector of encrypted bits.
+	 * @param cipher_2   The second vector of encrypted bits.
+	 * @param public_key The public key used for encryption.
+	 * @return The vector of the XORed encrypted bits.
+	 * @throws HomomorphicException If the vectors do not have the same length.
+	 */
+	public static GMVector xor(GMVector cipher_1, GMVector cipher_2, GMPublicKey public_key)
+			throws HomomorphicException {
+		if (!cipher_1.same_shape(cipher_2)) {
+			throw new HomomorphicException("Unequal Size of Ciphertext for XOR!");
+		}
+		GMVector xor_solution = cipher_1.empty();
+		BatchExecutor.run(cipher_1.size(), i ->
+				xor_solution.set(i, cipher_1.get(i).multiply(cipher_2.get(i)).mod(public_key.n)));
+		return xor_solution;
+	}
+
+	/**
+	 * Flips every bit of a packed vector, in parallel, by multiplying each ciphertext
+	 * with the quadratic non-residue y, i.e. an encryption of 1.
+	 *
+	 * @param cipher     The vector of encrypted bits.
+	 * @param public_key The public key used for encryption.
+	 * @return The vector of the negated encrypted bits.
+	 * @throws HomomorphicException If the operation on a bit failed.
+	 */
+	public static GMVector not(GMVector cipher, GMPublicKey public_key) throws HomomorphicException {
+		GMVector not_solution = cipher.empty();
+		BatchExecutor.run(cipher.size(), i ->
+				not_solution.set(i, cipher.get(i).multiply(public_key.y).mod(public_key.n)));
+		return not_solution;
+	}
+
+	/**
+	 * Computes the AND of a packed vector with plaintext bits, in parallel.
+	 * Where the mask bit is 1 the ciphertext is re-randomized, otherwise it is replaced by a fresh
+	 * encryption of 0, so the result does not reveal the mask.
+	 *
+	 * @param cipher     The vector of encrypted bits.
+	 * @param mask       The plaintext bits, bit i is applied to index i.
+	 * @param public_key The public key used for encryption.
+	 * @return The vector of the ANDed encrypted bits.
+	 * @throws HomomorphicException If the operation on a bit failed.
+	 */
+	public static GMVector and(GMVector cipher, BigInteger mask, GMPublicKey public_key)
+			throws HomomorphicException {
+		GMVector and_solution = cipher.empty();
+		BatchExecutor.run(cipher.size(), i -> {
+			BigInteger zero = encrypt_bit(false, public_key);
+			if (mask.testBit(i)) {
+				and_solution.set(i, cipher.get(i).multiply(zero).mod(public_key.n));
+			}
+			else {
+				and_solution.set(i, zero);
+			}
+		});
+		return and_solution;
+	}
+
+	/**
+	 * The step of a blinded AND run by the holder of the private key.
+	 * Both vectors are blinded with random bits, so decrypting them reveals nothing.
+	 * The plaintext AND of the blinded bits is encrypted and returned.
+	 *
+	 * @param blinded_1   [[x XOR r]], the first blinded vector.
+	 * @param blinded_2   [[y XOR s]], the second blinded vector.
+	 * @param private_key The private key used for decryption.
+	 * @param public_key  The public key used for encryption.
+	 * @return [[(x XOR r) AND (y XOR s)]]
+	 * @throws HomomorphicException If the vectors do not have the same length.
+	 */
+	public static GMVector and_blinded(GMVector blinded_1, GMVector blinded_2,
+			GMPrivateKey private_key, GMPublicKey public_key) throws HomomorphicException {
+		if (!blinded_1.same_shape(blinded_2)) {
+			throw new HomomorphicException("Unequal Size of Ciphertext for AND!");
+		}
+		boolean [] bits_1 = decrypt_bits(blinded_1, private_key);
+		boolean [] bits_2 = decrypt_bits(blinded_2, private_key);
+		GMVector and_solution = blinded_1.empty();
+		BatchExecutor.run(and_solution.size(), i -> and_solution.set(i, encrypt_bit(bits_1[i] && bits_2[i], public_key)));
+		return and_solution;
+	}
+
+	/**
+	 * Removes the blinding from the answer of {@link #and_blinded(GMVector, GMVector, GMPrivateKey, GMPublicKey)}.
+	 * The AND of two encrypted vectors takes one round trip:
+	 * <ol>
+	 *     <li>Draw random bits r and s, send [[x XOR r]] = xor([[x]], encrypt(r)) and [[y XOR s]] = xor([[y]], encrypt(s)).</li>
+	 *     <li>The holder of the private key answers with [[(x XOR r) AND (y XOR s)]].</li>
+	 *     <li>Over GF(2), x AND y = (x XOR r)(y XOR s) XOR (x AND s) XOR (r AND y) XOR (r AND s).</li>
+	 * </ol>
+	 * Every bit of the result is re-randomized with a fresh encryption of 0, otherwise the holder of the
+	 * private key could divide out its own answer and learn r and s, and so x and y.
+	 *
+	 * @param answer     [[(x XOR r) AND (y XOR s)]]
+	 * @param cipher_1   [[x]], the first vector.
+	 * @param cipher_2   [[y]], the second vector.
+	 * @param r          The bits that blinded x.
+	 * @param s          The bits that blinded y.
+	 * @param public_key The public key used for encryption.
+	 * @return [[x AND y]]
+	 * @throws HomomorphicException If the vectors do not have the same length.
+	 */
+	public static GMVector and_unblind(GMVector answer, GMVector cipher_1, GMVector cipher_2,
+			BigInteger r, BigInteger s, GMPublicKey public_key) throws HomomorphicException {
+		if (!answer.same_shape(cipher_1) || !answer.same_shape(cipher_2)) {
+			throw new HomomorphicException("Unequal Size of Ciphertext for AND!");
+		}
+		GMVector and_solution = answer.empty();
+		BatchExecutor.run(answer.size(), i -> {
+			BigInteger c = answer.get(i).multiply(encrypt_bit(false, public_key)).mod(public_key.n);
+			if (s.testBit(i)) {
+				c = c.multiply(cipher_1.get(i)).mod(public_key.n);
+			}
+			if (r.testBit(i)) {
+				c = c.multiply(cipher_2.get(i)).mod(public_key.n);
+				if (s.testBit(i)) {
+					c = c.multiply(public_key.y).mod(public_key.n);
+				}
+			}
+			and_solution.set(i, c);
+		});
+		return and_solution;
+	}
+
+	/**
+	 * Encrypts one bit, x^2 (mod n) for 0 and y * x^2 (mod n) for 1.
+	 */
+	private static BigInteger encrypt_bit(boolean bit, GMPublicKey public_key) {
+		BigInteger x = NTL.RandomBnd(public_key.n);
+		BigInteger square = x.multiply(x).mod(public_key.n);
+		if (bit) {
+			return public_key.y.multiply(square).mod(public_key.n);
+		}
+		return square;
+	}
+
+	/**
+	 * Decrypts every bit of a packed vector, in parallel.
+	 */
+	private static boolean [] decrypt_bits(GMVector cipher, GMPrivateKey private_key) throws HomomorphicException {
+		boolean [] bits = new boolean[cipher.size()];
+		BatchExecutor.run(bits.length, i -> bits[i] = decrypt_bit(cipher.get(i), private_key));
+		return bits;
+	}
+
+	/**
+	 * Decrypts one bit: it is 1 if the ciphertext is a quadratic non-residue modulo p,
+	 * i.e. its Legendre symbol (c/p) is -1. This only uses p, as y is a non-residue modulo both p and q.
+	 */
+	private static boolean decrypt_bit(BigInteger cipher, GMPrivateKey private_key) {
+		return NTL.jacobi_symbol(cipher, private_key.p) == -1;
+	}
 }
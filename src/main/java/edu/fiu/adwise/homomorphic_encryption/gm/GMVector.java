@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.gm;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * A vector of Goldwasser-Micali encrypted bits, packed in one contiguous {@code long} array.
+ * <p>
+ * Every ciphertext is in Z_n, so it is stored in a fixed number of 64-bit words, least significant word first.
+ * Ciphertext i is in the words [i * width, (i + 1) * width), and encrypts bit i of the message,
+ * the same order as {@link GMCipher#encrypt(BigInteger, GMPublicKey)}.
+ * Compared to an array of {@link BigInteger}, there is one object per vector instead of two per bit,
+ * and the vector is serialized as one array.
+ */
+public final class GMVector implements Serializable {
+	@Serial
+	private static final long serialVersionUID = 4381913217658042311L;
+
+	/** The number of encrypted bits. */
+	private final int length;
+
+	/** The number of 64-bit words of every ciphertext. */
+	private final int width;
+
+	/** The packed ciphertexts. */
+	private final long [] words;
+
+	/**
+	 * Creates a vector of the given length, with every word zero.
+	 *
+	 * @param length The number of encrypted bits.
+	 * @param n      The modulus of the public key, which sets the width of every ciphertext.
+	 */
+	GMVector(int length, BigInteger n) {
+		this(length, (n.bitLength() + 63) >>> 6);
+	}
+
+	private GMVector(int length, int width) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Negative length: " + length);
+		}
+		this.length = length;
+		this.width = width;
+		this.words = new long[Math.multiplyExact(length, width)];
+	}
+
+	/**
+	 * Packs an array of encrypted bits, e.g. the output of {@link GMCipher#encrypt(BigInteger, GMPublicKey)}.
+	 *
+	 * @param cipher     The encrypted bits.
+	 * @param public_key The public key used for encryption.
+	 * @return The packed vector.
+	 */
+	public static GMVector pack(BigInteger [] cipher, GMPublicKey public_key) {
+		GMVector vector = new GMVector(cipher.length, public_key.n);
+		for (int i = 0; i < cipher.length; i++) {
+			vector.set(i, cipher[i]);
+		}
+		return vector;
+	}
+
+	/**
+	 * @return The encrypted bits as an array, e.g. for {@link GMCipher#decrypt(BigInteger[], GMPrivateKey)}.
+	 */
+	public BigInteger [] unpack() {
+		BigInteger [] cipher = new BigInteger[length];
+		for (int i = 0; i < length; i++) {
+			cipher[i] = get(i);
+		}
+		return cipher;
+	}
+
+	/**
+	 * @return The number of encrypted bits.
+	 */
+	public int size() {
+		return length;
+	}
+
+	/**
+	 * @return The number of 64-bit words of every ciphertext.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @param i The index of the bit.
+	 * @return The ciphertext of bit i.
+	 */
+	public BigInteger get(int i) {
+		// Big-endian magnitude, with a leading zero byte so it is never negative
+		byte [] magnitude = new byte[width * 8 + 1];
+		int base = i * width;
+		for (int j = 0; j < width; j++) {
+			long word = words[base + j];
+			int end = magnitude.length - 8 * j;
+			for (int k = 1; k <= 8; k++) {
+				magnitude[end - k] = (byte) word;
+				word >>>= 8;
+			}
+		}
+		return new BigInteger(magnitude);
+	}
+
+	/**
+	 * @param i      The index of the bit.
+	 * @param cipher The ciphertext of bit i, in [0, n).
+	 */
+	void set(int i, BigInteger cipher) {
+		byte [] magnitude = cipher.toByteArray();
+		int base = i * width;
+		Arrays.fill(words, base, base + width, 0L);
+		int limit = width * 8;
+		for (int k = magnitude.length - 1, position = 0; k >= 0 && position < limit; k--, position++) {
+			words[base + (position >>> 3)] |= (magnitude[k] & 0xFFL) << ((position & 7) << 3);
+		}
+	}
+
+	/**
+	 * @param other Another vector.
+	 * @return True if both vectors have the same length and width.
+	 */
+	boolean same_shape(GMVector other) {
+		return length == other.length && width == other.width;
+	}
+
+	/**
+	 * @return An empty vector of the same length and width.
+	 */
+	GMVector empty() {
+		return new GMVector(length, width);
+	}
+
+	/**
+	 * Compares this vector with another object for equality.
+	 *
+	 * @param o The object to compare with.
+	 * @return True if both vectors hold the same ciphertexts, false otherwise.
+	 */
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (o == null || getClass() != o.getClass()) {
+			return false;
+		}
+		GMVector that = (GMVector) o;
+		return length == that.length && width == that.width && Arrays.equals(words, that.words);
+	}
+
+	/**
+	 * @return The hash code of the ciphertexts.
+	 */
+	public int hashCode() {
+		return 31 * length + Arrays.hashCode(words);
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+
+/**
+ * Modular multiplication with Barrett reduction.
+ * {@link BigInteger#mod(BigInteger)} runs a long division for each product, while a Barrett
+ * reduction only needs two multiplications and shifts with a precomputed constant.
+ * It is used when many products are reduced by the same modulus.
+ */
+public final class BarrettReducer {
+	/** The modulus m. */
+	private final BigInteger modulus;
+
+	/** The bit length k of the modulus. */
+	private final int k;
+
+	/** Barrett constant floor(4^k / m). */
+	private final BigInteger mu;
+
+	/**
+	 * @param modulus - the modulus m, must be positive
+	 */
+	public BarrettReducer(BigInteger modulus) {
+		this.modulus = modulus;
+		this.k = modulus.bitLength();
+		this.mu = BigInteger.ONE.shiftLeft(2 * k).divide(modulus);
+	}
+
+	/**
+	 * Computes a * b (mod m) for a, b in [0, m).
+	 *
+	 * @param a - first factor, reduced modulo m
+	 * @param b - second factor, reduced modulo m
+	 * @return a * b (mod m)
+	 */
+	public BigInteger multiply(BigInteger a, BigInteger b) {
+		return reduce(a.multiply(b));
+	}
+
+	/**
+	 * Reduces x in [0, m^2) to x (mod m).
+	 *
+	 * @param x - value to reduce
+	 * @return x (mod m)
+	 */
+	public BigInteger reduce(BigInteger x) {
+		BigInteger q = x.shiftRight(k - 1).multiply(mu).shiftRight(k + 1);
+		BigInteger r = x.subtract(q.multiply(modulus));
+		while (r.compareTo(modulus) >= 0) {
+			r = r.subtract(modulus);
+		}
+		return r;
+	}
+
+	/**
+	 * @return The modulus m.
+	 */
+	public BigInteger getModulus() {
+		return modulus;
+	}
+
+	/**
+	 * @return The bit length of the modulus.
+	 */
+	public int getBitLength() {
+		return k;
+	}
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the batched (array) operations of the cryptosystems on a {@link ForkJoinPool}.
+ * An index range is split in halves until it has at most {@link #getThreshold()} elements,
+ * and each chunk is processed serially. Ranges at or below the threshold run on the calling thread.
+ * <p>
+ * By default, the common pool is used. Both the pool and the chunk threshold can be configured.
+ * The tasks run in the {@link ModExpCounter} scope of the calling thread.
+ */
+public final class BatchExecutor {
+	/** The default number of elements processed serially by one task. */
+	public static final int DEFAULT_THRESHOLD = 4;
+
+	private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+	private static volatile int threshold = DEFAULT_THRESHOLD;
+
+	private BatchExecutor() {}
+
+	/**
+	 * Operation applied to each index of a batch.
+	 */
+	@FunctionalInterface
+	public interface IndexedTask {
+		/**
+		 * @param i - index of the element to process
+		 * @throws HomomorphicException - If the operation on this element is invalid
+		 */
+		void apply(int i) throws HomomorphicException;
+	}
+
+	/**
+	 * Sets the pool used for batched operations.
+	 *
+	 * @param fork_join_pool - the pool to use, or null to use the common pool
+	 */
+	public static void setPool(ForkJoinPool fork_join_pool) {
+		pool = (fork_join_pool == null) ? ForkJoinPool.commonPool() : fork_join_pool;
+	}
+
+	/**
+	 * @return The pool used for batched operations.
+	 */
+	public static ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the maximum number of elements that a single task processes serially.
+	 *
+	 * @param chunk_threshold - chunk size, must be at least 1
+	 * @throws IllegalArgumentException - If the threshold is smaller than 1
+	 */
+	public static void setThreshold(int chunk_threshold) {
+		if (chunk_threshold < 1) {
+			throw new IllegalArgumentException("Chunk threshold must be at least 1: " + chunk_threshold);
+		}
+		threshold = chunk_threshold;
+	}
+
+	/**
+	 * @return The maximum number of elements that a single task processes serially.
+	 */
+	public static int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * Applies the task to every index in [0, size), in parallel if size is above the threshold.
+	 *
+	 * @param size - number of elements
+	 * @param task - operation applied to each index
+	 * @throws HomomorphicException - If the task failed on any element
+	 */
+	public static void run(int size, IndexedTask task) throws HomomorphicException {
+		int chunk = threshold;
+		if (size <= chunk) {
+			for (int i = 0; i < size; i++) {
+				task.apply(i);
+			}
+			return;
+		}
+		try {
+			pool.invoke(new Chunk(task, 0, size, chunk, ModExpCounter.getScope()));
+		}
+		catch (WrappedException e) {
+			throw e.cause;
+		}
+	}
+
+	/**
+	 * Checks that two batches have the same length.
+	 *
+	 * @param first - length of the first batch
+	 * @param second - length of the second batch
+	 * @throws HomomorphicException - If the lengths differ
+	 */
+	public static void check_length(int first, int second) throws HomomorphicException {
+		if (first != second) {
+			throw new HomomorphicException("Arrays are NOT the same size!");
+		}
+	}
+
+	/**
+	 * Splits the range [start, end) until it is small enough to process serially.
+	 */
+	private static final class Chunk extends RecursiveAction {
+		private final IndexedTask task;
+		private final int start;
+		private final int end;
+		private final int chunk;
+		private final LongAdder scope;
+
+		Chunk(IndexedTask task, int start, int end, int chunk, LongAdder scope) {
+			this.task = task;
+			this.start = start;
+			this.end = end;
+			this.chunk = chunk;
+			this.scope = scope;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= chunk) {
+				LongAdder previous = ModExpCounter.setScope(scope);
+				try {
+					for (int i = start; i < end; i++) {
+						task.apply(i);
+					}
+				}
+				catch (HomomorphicException e) {
+					throw new WrappedException(e);
+				}
+				finally {
+					ModExpCounter.setScope(previous);
+				}
+				return;
+			}
+			int middle = (start + end) >>> 1;
+			invokeAll(new Chunk(task, start, middle, chunk, scope), new Chunk(task, middle, end, chunk, scope));
+		}
+	}
+
+	/**
+	 * Carries a checked {@link HomomorphicException} out of a fork/join task.
+	 */
+	private static final class WrappedException extends RuntimeException {
+		private final HomomorphicException cause;
+
+		WrappedException(HomomorphicException cause) {
+			super(cause);
+			this.cause = cause;
+		}
+	}
+}
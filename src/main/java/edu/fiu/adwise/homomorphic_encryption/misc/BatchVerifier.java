@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+import java.util.function.IntPredicate;
+
+/**
+ * Verifies a batch of signatures with the small exponents test, and finds the invalid ones by bisection.
+ * <p>
+ * Every signature i is checked by an equation of the form a_i = b_i. Instead of checking each equation,
+ * the batch is checked once with a random exponent d_i per signature: prod a_i^{d_i} = prod b_i^{d_i},
+ * which the cryptosystem computes with a few multi-exponentiations, see {@link MultiExponentiation}.
+ * If the batch holds, every signature is accepted. A batch with an invalid signature is accepted with a
+ * probability of at most 2^-{@link #SECURITY}, as long as the errors a_i / b_i have no factor of small order.
+ * Errors of small order can cancel each other: two signatures that are each off by a factor -1 pass
+ * the combined check for any odd exponents. The cheap checks of each signature must therefore rule out
+ * such factors, e.g. by comparing the Legendre or Jacobi symbols of both sides, see {@link #power_symbol(int, BigInteger)}.
+ * <p>
+ * If the batch fails, it is split in halves, each half is checked with fresh exponents, and so on
+ * until a single signature is left, which is checked on its own. With few invalid signatures,
+ * this costs about 2 * log2(size) batch checks per invalid signature.
+ */
+public final class BatchVerifier implements CipherConstants {
+	/** The number of bits of the random exponents. */
+	public static final int SECURITY = 64;
+
+	private BatchVerifier() {}
+
+	/**
+	 * The combined check of some signatures of the batch.
+	 */
+	@FunctionalInterface
+	public interface BatchCheck {
+		/**
+		 * @param indexes - the indexes of the signatures to check, at least two
+		 * @param exponents - a fresh random exponent for each of them, same length as indexes
+		 * @return true if the combined equation holds.
+		 * @throws HomomorphicException - If the signatures cannot be combined
+		 */
+		boolean test(int [] indexes, BigInteger [] exponents) throws HomomorphicException;
+	}
+
+	/**
+	 * Verifies every signature of a batch.
+	 *
+	 * @param size - the number of signatures
+	 * @param well_formed - the cheap checks of one signature, e.g. its range, which the combined equation does not cover
+	 * @param batch - the combined check of several well-formed signatures
+	 * @param single - the check of one well-formed signature
+	 * @return for each signature, true if it is valid.
+	 * @throws HomomorphicException - If the signatures cannot be combined
+	 */
+	public static boolean [] verify(int size, IntPredicate well_formed, BatchCheck batch, IntPredicate single)
+			throws HomomorphicException {
+		boolean [] valid = new boolean[size];
+		int [] indexes = new int[size];
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (well_formed.test(i)) {
+				indexes[count++] = i;
+			}
+		}
+		bisect(indexes, 0, count, batch, single, valid);
+		return valid;
+	}
+
+	/**
+	 * Checks the signatures indexes[from..to), and splits them in halves if the combined check fails.
+	 */
+	private static void bisect(int [] indexes, int from, int to, BatchCheck batch, IntPredicate single,
+			boolean [] valid) throws HomomorphicException {
+		int size = to - from;
+		if (size == 0) {
+			return;
+		}
+		if (size == 1) {
+			valid[indexes[from]] = single.test(indexes[from]);
+			return;
+		}
+		int [] range = new int[size];
+		System.arraycopy(indexes, from, range, 0, size);
+		if (batch.test(range, exponents(size))) {
+			for (int i : range) {
+				valid[i] = true;
+			}
+			return;
+		}
+		int middle = (from + to) >>> 1;
+		bisect(indexes, from, middle, batch, single, valid);
+		bisect(indexes, middle, to, batch, single, valid);
+	}
+
+	/**
+	 * Computes the Jacobi symbol of x^e from the Jacobi symbol of x,
+	 * which is how the symbols of both sides of a signature equation are compared without exponentiating.
+	 *
+	 * @param symbol - the Jacobi symbol of x, -1, 0 or 1
+	 * @param exponent - the exponent e, a negative exponent stands for the inverse of x
+	 * @return the Jacobi symbol of x^e.
+	 */
+	public static int power_symbol(int symbol, BigInteger exponent) {
+		if (exponent.signum() == 0) {
+			return 1;
+		}
+		// The parity of a negative exponent is the parity of its two's complement
+		return exponent.testBit(0) ? symbol : symbol * symbol;
+	}
+
+	/**
+	 * @return random odd exponents of {@link #SECURITY} bits.
+	 */
+	private static BigInteger [] exponents(int size) {
+		BigInteger [] exponents = new BigInteger[size];
+		for (int i = 0; i < size; i++) {
+			exponents[i] = new BigInteger(SECURITY, rnd).setBit(0);
+		}
+		return exponents;
+	}
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bounded pool of precomputed blinding factors, such as r^n (mod n^2) for Paillier
+ * or h^r (mod n) for DGK. These do not depend on the plaintext, so they can be computed
+ * offline by background threads, and encryption only needs one modular multiplication.
+ * <p>
+ * The workers fill the pool up to the high watermark, then sleep until it drains
+ * to the low watermark. If the pool is empty, {@link #next()} computes a factor inline,
+ * so encryption never blocks on the pool. Hits and misses are counted.
+ */
+public final class BlindingPool implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger(BlindingPool.class);
+
+	/** Computes a fresh blinding factor. */
+	private final Supplier<BigInteger> generator;
+
+	/** The ready blinding factors. */
+	private final BlockingQueue<BigInteger> pool;
+
+	/** Workers resume filling once the pool has this many factors or fewer. */
+	private final int low_watermark;
+
+	/** Workers stop filling once the pool has this many factors. */
+	private final int high_watermark;
+
+	/** The background threads filling the pool. */
+	private final Thread[] workers;
+
+	/** Guards {@link #filling}. */
+	private final Object lock = new Object();
+
+	/** True while the workers should fill the pool. */
+	private boolean filling = true;
+
+	/** False once the pool is closed. */
+	private volatile boolean running = true;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a pool and starts its background workers.
+	 *
+	 * @param generator - computes one blinding factor, must be thread-safe
+	 * @param low_watermark - refill once the pool drains to this size
+	 * @param high_watermark - capacity of the pool
+	 * @param threads - number of background workers
+	 * @throws IllegalArgumentException - If the watermarks or number of threads are invalid
+	 */
+	public BlindingPool(Supplier<BigInteger> generator, int low_watermark, int high_watermark, int threads) {
+		if (low_watermark < 0 || high_watermark <= low_watermark) {
+			throw new IllegalArgumentException("Require 0 <= low watermark < high watermark, got "
+					+ low_watermark + " and " + high_watermark);
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Require at least one worker thread: " + threads);
+		}
+		this.generator = generator;
+		this.low_watermark = low_watermark;
+		this.high_watermark = high_watermark;
+		this.pool = new ArrayBlockingQueue<>(high_watermark);
+		this.workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(this::fill, "blinding-pool-" + i);
+			workers[i].setDaemon(true);
+			workers[i].setPriority(Thread.MIN_PRIORITY);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * Takes a blinding factor from the pool, or computes one inline if the pool is empty.
+	 *
+	 * @return a blinding factor
+	 */
+	public BigInteger next() {
+		BigInteger factor = running ? pool.poll() : null;
+		if (factor == null) {
+			misses.incrementAndGet();
+			wake();
+			return generator.get();
+		}
+		hits.incrementAndGet();
+		if (pool.size() <= low_watermark) {
+			wake();
+		}
+		return factor;
+	}
+
+	/**
+	 * Tells the workers to start filling the pool again.
+	 */
+	private void wake() {
+		synchronized (lock) {
+			if (!filling) {
+				filling = true;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Worker loop: fill the pool to the high watermark, then wait to be woken up.
+	 */
+	private void fill() {
+		try {
+			while (running) {
+				synchronized (lock) {
+					while (running && !filling) {
+						lock.wait();
+					}
+				}
+				if (!running) {
+					break;
+				}
+				BigInteger factor = generator.get();
+				if (!pool.offer(factor) || pool.size() >= high_watermark) {
+					synchronized (lock) {
+						filling = false;
+					}
+				}
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (RuntimeException e) {
+			logger.error("Blinding pool worker stopped: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * @return The number of blinding factors ready in the pool.
+	 */
+	public int size() {
+		return pool.size();
+	}
+
+	/**
+	 * @return The number of requests served from the pool.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of requests that had to compute a blinding factor inline.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The low watermark of the pool.
+	 */
+	public int getLowWatermark() {
+		return low_watermark;
+	}
+
+	/**
+	 * @return The high watermark (capacity) of the pool.
+	 */
+	public int getHighWatermark() {
+		return high_watermark;
+	}
+
+	/**
+	 * Stops the background workers and discards the remaining factors.
+	 */
+	public void close() {
+		running = false;
+		synchronized (lock) {
+			lock.notifyAll();
+		}
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+		pool.clear();
+	}
+}
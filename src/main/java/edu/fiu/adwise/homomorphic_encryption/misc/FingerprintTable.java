@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Decryption lookup table mapping large group elements, such as g^{vp * m} (mod p) for DGK,
+ * back to small non-negative integers m.
+ * <p>
+ * Instead of keeping every group element as a {@link BigInteger} key of a {@code HashMap<BigInteger, Long>},
+ * the table only keeps a 64-bit fingerprint of each element, the low 64 bits of its value.
+ * The fingerprints and values are stored in a primitive open-addressing hash table with linear probing,
+ * in an off-heap {@link ByteBuffer}. The load factor is at most 1/2, so the table costs 24 to 48 bytes per entry,
+ * and lookups create no garbage.
+ * <p>
+ * If two elements of the table share a fingerprint, both are moved to a small map keyed by the full value,
+ * and the slot is marked so lookups of that fingerprint compare the full value.
+ * An element that is not in the table is found only if its fingerprint matches one of the u elements
+ * of the table, which has probability about u / 2^64.
+ * <p>
+ * Adding entries is not thread-safe. Once the table is built, lookups can run concurrently.
+ * <p>
+ * A built table can be written to a file with {@link #write(String, byte[])} and memory-mapped back with
+ * {@link #read(String, byte[])}, which skips the exponentiations needed to build it.
+ * The file starts with a digest of the key the table belongs to, so a table of another key is rejected.
+ * Mapped tables are read-only, and the pages are shared by every process that maps the same file.
+ */
+public final class FingerprintTable {
+	/** Bytes per slot: an 8-byte fingerprint followed by a 4-byte value. */
+	private static final int SLOT = 12;
+
+	/** Stored value of an empty slot, values are stored plus one. */
+	private static final int EMPTY = 0;
+
+	/** Stored value of a slot whose fingerprint is shared by several elements. */
+	private static final int COLLISION = -1;
+
+	/** First bytes of a table file, "FPT" and the version of the layout. */
+	private static final int MAGIC = 0x46505401;
+
+	/** Bytes of the key digest, a SHA-256 hash. */
+	private static final int DIGEST = 32;
+
+	/** Bytes of the file header: the magic, the key digest, the size, the capacity and the number of collisions. */
+	private static final int HEADER = 4 + DIGEST + 12;
+
+	/** The slots of the open-addressing table, the capacity is a power of two. */
+	private final ByteBuffer slots;
+
+	/** capacity - 1. */
+	private final int mask;
+
+	/** Recomputes the element of a value, to fill the full-compare map when fingerprints collide. */
+	private final IntFunction<BigInteger> element_of;
+
+	/** The elements whose fingerprints collide, with their full value. */
+	private final Map<BigInteger, Integer> collisions = new HashMap<>();
+
+	private int size = 0;
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param entries - the number of entries the table will hold
+	 * @param element_of - recomputes the element of a value, it is only called if fingerprints collide
+	 * @throws IllegalArgumentException - If the table would be too large for a buffer
+	 */
+	public FingerprintTable(long entries, IntFunction<BigInteger> element_of) {
+		// Keep the load factor at or below 1/2
+		long capacity = Long.highestOneBit(Math.max(2, 2 * entries - 1)) << 1;
+		if (entries < 0 || capacity * SLOT > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many entries for a fingerprint table: " + entries);
+		}
+		this.slots = ByteBuffer.allocateDirect((int) (capacity * SLOT));
+		this.mask = (int) capacity - 1;
+		this.element_of = element_of;
+	}
+
+	/**
+	 * Wraps the slots of a table read from a file.
+	 */
+	private FingerprintTable(ByteBuffer slots, int size) {
+		this.slots = slots;
+		this.mask = slots.capacity() / SLOT - 1;
+		this.element_of = null;
+		this.size = size;
+	}
+
+	/**
+	 * Hashes the parameters that determine the contents of a table, to tell which key a table file belongs to.
+	 *
+	 * @param parameters - the key parameters, e.g. the modulus, the generator and the number of entries
+	 * @return The SHA-256 digest of the parameters.
+	 */
+	public static byte [] digest(BigInteger... parameters) {
+		try {
+			MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			for (BigInteger parameter : parameters) {
+				byte [] bytes = parameter.toByteArray();
+				sha.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+				sha.update(bytes);
+			}
+			return sha.digest();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	/**
+	 * Writes the table to a file, which is replaced atomically so processes mapping the old file are not affected.
+	 * The file holds the same information as the decryption key, so protect it like the key.
+	 *
+	 * @param file - the path of the table file
+	 * @param key_digest - the {@link #digest(BigInteger...)} of the key the table belongs to
+	 * @throws IOException - If an I/O error occurs
+	 */
+	public void write(String file, byte [] key_digest) throws IOException {
+		if (key_digest.length != DIGEST) {
+			throw new IllegalArgumentException("Key digest must be " + DIGEST + " bytes");
+		}
+		ByteBuffer header = ByteBuffer.allocate(HEADER);
+		header.putInt(MAGIC).put(key_digest).putInt(size).putInt(mask + 1).putInt(collisions.size());
+		header.flip();
+
+		Path path = Paths.get(file).toAbsolutePath();
+		Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			write_fully(channel, header);
+			write_fully(channel, slots.duplicate().clear());
+			for (Map.Entry<BigInteger, Integer> collision : collisions.entrySet()) {
+				byte [] element = collision.getKey().toByteArray();
+				ByteBuffer entry = ByteBuffer.allocate(8 + element.length);
+				entry.putInt(collision.getValue()).putInt(element.length).put(element);
+				write_fully(channel, entry.flip());
+			}
+			channel.force(true);
+		}
+		catch (IOException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Memory-maps a table written by {@link #write(String, byte[])}.
+	 * The slots are scanned once to check that they match the header, so a damaged file cannot make
+	 * lookups loop without finding an empty slot. Any truncated or inconsistent file is rejected.
+	 *
+	 * @param file - the path of the table file
+	 * @param key_digest - the {@link #digest(BigInteger...)} of the key the table must belong to
+	 * @return The read-only table.
+	 * @throws IOException - If an I/O error occurs or the file is not a valid table
+	 * @throws IllegalArgumentException - If the table belongs to another key
+	 */
+	public static FingerprintTable read(String file, byte [] key_digest) throws IOException {
+		MappedByteBuffer mapped;
+		try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+			if (channel.size() < HEADER || channel.size() > Integer.MAX_VALUE) {
+				throw new StreamCorruptedException("Invalid table file size: " + channel.size());
+			}
+			mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if (mapped.getInt() != MAGIC) {
+			throw new StreamCorruptedException("Not a fingerprint table file: " + file);
+		}
+		byte [] digest = new byte[DIGEST];
+		mapped.get(digest);
+		if (!MessageDigest.isEqual(digest, key_digest)) {
+			throw new IllegalArgumentException("The table in " + file + " was built for a different key");
+		}
+		int size = mapped.getInt();
+		int capacity = mapped.getInt();
+		int collision_count = mapped.getInt();
+		if (capacity < 2 || Integer.bitCount(capacity) != 1 || size < 0 || size > capacity / 2
+				|| collision_count < 0 || collision_count > size
+				|| (long) capacity * SLOT > mapped.remaining()) {
+			throw new StreamCorruptedException("Invalid table header in " + file);
+		}
+		ByteBuffer slots = mapped.slice(HEADER, capacity * SLOT);
+		check_slots(slots, size, collision_count, file);
+		FingerprintTable table = new FingerprintTable(slots, size);
+
+		mapped.position(HEADER + capacity * SLOT);
+		for (int i = 0; i < collision_count; i++) {
+			if (mapped.remaining() < 8) {
+				throw new StreamCorruptedException("Truncated collision entry in " + file);
+			}
+			int value = mapped.getInt();
+			int length = mapped.getInt();
+			if (value < 0 || value == Integer.MAX_VALUE || length <= 0 || length > mapped.remaining()) {
+				throw new StreamCorruptedException("Invalid collision entry in " + file);
+			}
+			byte [] element = new byte[length];
+			mapped.get(element);
+			table.collisions.put(new BigInteger(element), value);
+		}
+		if (table.collisions.size() != collision_count || mapped.hasRemaining()) {
+			throw new StreamCorruptedException("Invalid collision entries in " + file);
+		}
+		return table;
+	}
+
+	/**
+	 * Checks that the slots hold the entries counted in the header: every entry without a shared fingerprint
+	 * has its own slot, and the entries of the full-compare map share at most half as many marked slots.
+	 * The header also keeps the load factor at or below 1/2, so there is always an empty slot.
+	 */
+	private static void check_slots(ByteBuffer slots, int size, int collision_count, String file)
+			throws StreamCorruptedException {
+		int single = 0;
+		int shared = 0;
+		for (int offset = 8; offset < slots.capacity(); offset += SLOT) {
+			int stored = slots.getInt(offset);
+			if (stored == COLLISION) {
+				++shared;
+			}
+			else if (stored != EMPTY) {
+				if (stored < 0) {
+					throw new StreamCorruptedException("Invalid slot in " + file);
+				}
+				++single;
+			}
+		}
+		if ((long) single + collision_count != size || 2L * shared > collision_count
+				|| (shared == 0) != (collision_count == 0)) {
+			throw new StreamCorruptedException("The slots do not match the header in " + file);
+		}
+	}
+
+	private static void write_fully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * @param element - a group element
+	 * @return The fingerprint of the element, the low 64 bits of its value.
+	 */
+	public static long fingerprint(BigInteger element) {
+		return element.longValue();
+	}
+
+	/**
+	 * Adds an element and its value. Every element must be added at most once.
+	 *
+	 * @param element - a group element
+	 * @param value - the value of the element, in [0, Integer.MAX_VALUE - 1)
+	 * @throws IllegalArgumentException - If the value is out of range or the table is full
+	 * @throws IllegalStateException - If the table was read from a file
+	 */
+	public void put(BigInteger element, int value) {
+		if (element_of == null) {
+			throw new IllegalStateException("A table read from a file is read-only");
+		}
+		if (value < 0 || value == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Value out of range: " + value);
+		}
+		if (size > mask / 2) {
+			throw new IllegalArgumentException("Fingerprint table is full: " + size + " entries");
+		}
+		long fingerprint = fingerprint(element);
+		int slot = find(fingerprint);
+		int stored = slots.getInt(slot * SLOT + 8);
+		if (stored == EMPTY) {
+			slots.putLong(slot * SLOT, fingerprint);
+			slots.putInt(slot * SLOT + 8, value + 1);
+		}
+		else {
+			// Another element has the same fingerprint, compare the full values from now on
+			if (stored != COLLISION) {
+				collisions.put(element_of.apply(stored - 1), stored - 1);
+				slots.putInt(slot * SLOT + 8, COLLISION);
+			}
+			collisions.put(element, value);
+		}
+		++size;
+	}
+
+	/**
+	 * Looks up the value of a group element.
+	 *
+	 * @param element - a group element
+	 * @return The value of the element, or -1 if the element is not in the table.
+	 */
+	public int get(BigInteger element) {
+		int slot = find(fingerprint(element));
+		int stored = slots.getInt(slot * SLOT + 8);
+		if (stored == COLLISION) {
+			return collisions.getOrDefault(element, -1);
+		}
+		return stored - 1;
+	}
+
+	/**
+	 * @return The number of entries in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return The number of elements whose fingerprint is shared with another element.
+	 */
+	public int getCollisions() {
+		return collisions.size();
+	}
+
+	/**
+	 * Estimates the memory used by the table, the off-heap slots plus the full-compare map.
+	 *
+	 * @return The estimated size of the table in bytes.
+	 */
+	public long getMemoryFootprint() {
+		return slots.capacity() + collisions.size() * 128L;
+	}
+
+	/**
+	 * @return The slot holding the fingerprint, or the empty slot where it would be stored.
+	 */
+	private int find(long fingerprint) {
+		// The fingerprint is already uniform, mix it anyway so patterned inputs do not cluster
+		int slot = (int) ((fingerprint * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+		while (true) {
+			int stored = slots.getInt(slot * SLOT + 8);
+			if (stored == EMPTY || slots.getLong(slot * SLOT) == fingerprint) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+}
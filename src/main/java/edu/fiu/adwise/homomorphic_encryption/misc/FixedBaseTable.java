@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+
+/**
+ * Precomputed table for fixed-base modular exponentiation, base^e (mod m).
+ * <p>
+ * The exponent is split into windows of w bits, and row j of the table stores
+ * base^{v * 2^{j * w}} (mod m) for every w-bit value v. Computing base^e then takes
+ * one modular multiplication per non-zero window and no squaring at all.
+ * Reductions use Barrett's method, so no long division is done per multiplication.
+ * The rows are independent, so the table is built in parallel on the {@link BatchExecutor} pool.
+ * <p>
+ * Exponents larger than the number of bits the table covers fall back to
+ * {@link BigInteger#modPow(BigInteger, BigInteger)}.
+ */
+public final class FixedBaseTable {
+	/** The fixed base. */
+	private final BigInteger base;
+
+	/** The modulus m. */
+	private final BigInteger modulus;
+
+	/** The number of exponent bits consumed per row. */
+	private final int window_size;
+
+	/** table[j][v] = base^{v * 2^{j * w}} (mod m). */
+	private final BigInteger[][] table;
+
+	/** Reduces the products modulo m. */
+	private final BarrettReducer reducer;
+
+	/**
+	 * Builds a fixed-base table.
+	 *
+	 * @param base - the fixed base
+	 * @param modulus - the modulus, must be positive
+	 * @param max_bits - the largest exponent bit length the table has to cover
+	 * @param window_size - number of exponent bits per row, between 1 and 16
+	 * @throws IllegalArgumentException - If the window size or exponent length is out of range
+	 */
+	public FixedBaseTable(BigInteger base, BigInteger modulus, int max_bits, int window_size) {
+		if (window_size < 1 || window_size > 16) {
+			throw new IllegalArgumentException("Window size must be between 1 and 16 bits: " + window_size);
+		}
+		if (max_bits < 1) {
+			throw new IllegalArgumentException("Exponent must have at least 1 bit: " + max_bits);
+		}
+		this.base = base;
+		this.modulus = modulus;
+		this.window_size = window_size;
+		this.reducer = new BarrettReducer(modulus);
+
+		int rows = (max_bits + window_size - 1) / window_size;
+		int columns = 1 << window_size;
+		this.table = new BigInteger[rows][columns];
+
+		// row_bases[j] = base^{2^{j * w}} (mod m), by w squarings per row
+		BigInteger[] row_bases = new BigInteger[rows];
+		row_bases[0] = base.mod(modulus);
+		for (int j = 1; j < rows; j++) {
+			BigInteger row_base = row_bases[j - 1];
+			for (int b = 0; b < window_size; b++) {
+				row_base = multiply(row_base, row_base);
+			}
+			row_bases[j] = row_base;
+		}
+
+		// The rows are independent, so they are filled in parallel
+		try {
+			BatchExecutor.run(rows, j -> {
+				table[j][0] = BigInteger.ONE;
+				table[j][1] = row_bases[j];
+				for (int v = 2; v < columns; v++) {
+					table[j][v] = multiply(table[j][v - 1], row_bases[j]);
+				}
+			});
+		}
+		catch (HomomorphicException e) {
+			// Filling a row does not throw
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Computes base^exponent (mod m).
+	 *
+	 * @param exponent - non-negative exponent
+	 * @return base^exponent (mod m)
+	 */
+	public BigInteger pow(BigInteger exponent) {
+		ModExpCounter.count();
+		if (exponent.signum() < 0 || exponent.bitLength() > getMaxBits()) {
+			return base.modPow(exponent, modulus);
+		}
+		BigInteger result = null;
+		int rows = (exponent.bitLength() + window_size - 1) / window_size;
+		for (int j = 0; j < rows; j++) {
+			int digit = 0;
+			for (int b = window_size - 1; b >= 0; b--) {
+				digit = (digit << 1) | (exponent.testBit(j * window_size + b) ? 1 : 0);
+			}
+			if (digit != 0) {
+				result = (result == null) ? table[j][digit] : multiply(result, table[j][digit]);
+			}
+		}
+		return result == null ? BigInteger.ONE.mod(modulus) : result;
+	}
+
+	/**
+	 * Computes a * b (mod m) for a, b in [0, m) with a Barrett reduction.
+	 *
+	 * @param a - first factor, reduced modulo m
+	 * @param b - second factor, reduced modulo m
+	 * @return a * b (mod m)
+	 */
+	public BigInteger multiply(BigInteger a, BigInteger b) {
+		return reducer.multiply(a, b);
+	}
+
+	/**
+	 * @return The window size (in bits) of the table.
+	 */
+	public int getWindowSize() {
+		return window_size;
+	}
+
+	/**
+	 * @return The largest exponent bit length the table covers.
+	 */
+	public int getMaxBits() {
+		return table.length * window_size;
+	}
+
+	/**
+	 * @return The number of precomputed powers stored in the table.
+	 */
+	public long getEntries() {
+		return (long) table.length * (table[0].length - 1);
+	}
+
+	/**
+	 * Estimates the memory used by the table.
+	 * Each entry is counted as a {@link BigInteger} header plus the magnitude of a k-bit value,
+	 * and each row as an array of references.
+	 *
+	 * @return The estimated size of the table in bytes.
+	 */
+	public long getMemoryFootprint() {
+		// BigInteger object (~40 bytes) + int[] header (16 bytes) + magnitude
+		long entry = 56 + ((reducer.getBitLength() + 31) / 32) * 4L;
+		return getEntries() * entry + (long) table.length * (16 + 4L * table[0].length);
+	}
+}
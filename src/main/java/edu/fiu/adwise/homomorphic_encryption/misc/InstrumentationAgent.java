@@ -13,6 +13,9 @@ import java.lang.instrument.Instrumentation;
  * <p>To use this agent, it must be specified as a Java agent in the JVM arguments. The premain method is invoked
  * before the application's main method, initializing the instrumentation instance.</p>
  *
+ * <p>The protocols do not need it to count their bytes, they count the bytes on the connection,
+ * see {@link edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.protocol_metrics}.</p>
+ *
  * <p>For more details, refer to:
  * <a href="https://www.baeldung.com/java-size-of-object">Baeldung: Measuring Object Size in Java</a></p>
  */
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.security.KeyPair;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A bounded pool of pre-generated key pairs, so a long-running service can give each session
+ * a fresh key without waiting for key generation, e.g.
+ * <pre>{@code
+ * DGKKeyPairGenerator generator = new DGKKeyPairGenerator(16, 160, 2048);
+ * KeyPairPool keys = new KeyPairPool(generator::generateKeyPair, 4, 1);
+ * KeyPair session_key = keys.next();
+ * }</pre>
+ * The workers keep the pool full, and start on the next key as soon as one is taken.
+ * If the pool is empty, {@link #next()} waits for the next key the workers finish,
+ * or generates one on the calling thread if the pool is closed or its workers stopped. Hits and misses are counted.
+ */
+public final class KeyPairPool implements AutoCloseable {
+	private static final Logger logger = LogManager.getLogger(KeyPairPool.class);
+
+	/** Generates a fresh key pair. */
+	private final Supplier<KeyPair> generator;
+
+	/** The ready key pairs. */
+	private final BlockingQueue<KeyPair> pool;
+
+	/** The background threads filling the pool. */
+	private final Thread[] workers;
+
+	/** False once the pool is closed. */
+	private volatile boolean running = true;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a pool and starts its background workers.
+	 *
+	 * @param generator - generates one key pair, must be thread-safe if there are several workers
+	 * @param capacity - the number of key pairs kept ready
+	 * @param threads - number of background workers
+	 * @throws IllegalArgumentException - If the capacity or number of threads is not positive
+	 */
+	public KeyPairPool(Supplier<KeyPair> generator, int capacity, int threads) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Require a capacity of at least one key pair: " + capacity);
+		}
+		if (threads < 1) {
+			throw new IllegalArgumentException("Require at least one worker thread: " + threads);
+		}
+		this.generator = generator;
+		this.pool = new ArrayBlockingQueue<>(capacity);
+		this.workers = new Thread[threads];
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(this::fill, "key-pair-pool-" + i);
+			workers[i].setDaemon(true);
+			workers[i].setPriority(Thread.MIN_PRIORITY);
+			workers[i].start();
+		}
+	}
+
+	/**
+	 * Takes a key pair from the pool, waiting for the workers if the pool is empty.
+	 * Every key pair is given out once.
+	 *
+	 * @return a fresh key pair
+	 * @throws InterruptedException - If interrupted while waiting for a key pair
+	 */
+	public KeyPair next() throws InterruptedException {
+		KeyPair pair = pool.poll();
+		if (pair != null) {
+			hits.incrementAndGet();
+			return pair;
+		}
+		misses.incrementAndGet();
+		while (running && alive()) {
+			pair = pool.poll(100, TimeUnit.MILLISECONDS);
+			if (pair != null) {
+				return pair;
+			}
+		}
+		return generator.get();
+	}
+
+	/**
+	 * Worker loop: generate key pairs until the pool is closed, waiting while the pool is full.
+	 */
+	private void fill() {
+		try {
+			while (running) {
+				pool.put(generator.get());
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (RuntimeException e) {
+			if (running) {
+				logger.error("Key pair pool worker stopped: {}", e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @return true if a worker is still filling the pool.
+	 */
+	private boolean alive() {
+		for (Thread worker : workers) {
+			if (worker.isAlive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The number of key pairs ready in the pool.
+	 */
+	public int size() {
+		return pool.size();
+	}
+
+	/**
+	 * @return The number of key pairs taken from the pool without waiting.
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of key pairs that had to be waited for.
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Stops the background workers and discards the remaining key pairs.
+	 */
+	public void close() {
+		running = false;
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+		pool.clear();
+	}
+}
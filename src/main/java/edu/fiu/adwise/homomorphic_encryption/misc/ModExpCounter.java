@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the modular exponentiations done by the cryptosystems, e.g. an encryption, a decryption
+ * or a multiplication by a plaintext. An exponentiation with a {@link FixedBaseTable} counts as one,
+ * and so does each exponent of a {@link MultiExponentiation#pow_product(java.math.BigInteger[], java.math.BigInteger[], java.math.BigInteger)}.
+ * <p>
+ * Besides the total, a thread can open a scope: every exponentiation it does until the scope is closed
+ * is added to the counter of the scope, including the ones the {@link BatchExecutor} runs on its behalf.
+ * This is how the protocols attribute their exponentiations to each step.
+ */
+public final class ModExpCounter {
+	private static final LongAdder total = new LongAdder();
+
+	private static final ThreadLocal<LongAdder> scope = new ThreadLocal<>();
+
+	private ModExpCounter() {}
+
+	/**
+	 * Counts one modular exponentiation.
+	 */
+	public static void count() {
+		count(1);
+	}
+
+	/**
+	 * Counts modular exponentiations.
+	 *
+	 * @param n - the number of exponentiations
+	 */
+	public static void count(long n) {
+		total.add(n);
+		LongAdder counter = scope.get();
+		if (counter != null) {
+			counter.add(n);
+		}
+	}
+
+	/**
+	 * @return The number of modular exponentiations done by all threads since the JVM started.
+	 */
+	public static long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * @return The counter of the scope of the calling thread, or null if it has none.
+	 */
+	public static LongAdder getScope() {
+		return scope.get();
+	}
+
+	/**
+	 * Sets the scope of the calling thread. Restore the previous scope once done, e.g. in a finally block.
+	 *
+	 * @param counter - the counter of the scope, or null to leave the scope
+	 * @return The previous scope of the calling thread, or null if it had none.
+	 */
+	public static LongAdder setScope(LongAdder counter) {
+		LongAdder previous = scope.get();
+		if (counter == null) {
+			scope.remove();
+		}
+		else {
+			scope.set(counter);
+		}
+		return previous;
+	}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Products and multi-exponentiations of many values under one modulus.
+ * For additively homomorphic ciphertexts, a product is an encrypted sum,
+ * and a product of powers c_1^{k_1} * ... * c_n^{k_n} is an encrypted sum-product.
+ * <p>
+ * Products are computed with a balanced product tree, whose subtrees run in parallel on the
+ * {@link BatchExecutor} pool. The multi-exponentiation shares the squarings across all bases:
+ * each w-bit window of the exponents is accumulated in buckets (the Pippenger variant of
+ * Straus' method), so a window costs about n + 2^{w+1} multiplications instead of n exponentiations.
+ * Short inputs, where {@link BigInteger#modPow(BigInteger, BigInteger)} is cheaper, are
+ * exponentiated one by one.
+ */
+public final class MultiExponentiation {
+	/**
+	 * Estimated cost of one multiplication with a Barrett reduction,
+	 * relative to one Montgomery multiplication inside {@link BigInteger#modPow(BigInteger, BigInteger)}.
+	 */
+	private static final int BARRETT_COST = 3;
+
+	private MultiExponentiation() {}
+
+	/**
+	 * Computes the product of values[from..to) (mod m) with a balanced product tree.
+	 * An empty range returns 1, the identity.
+	 *
+	 * @param values - factors, each reduced modulo m
+	 * @param from - first index (inclusive)
+	 * @param to - last index (exclusive)
+	 * @param modulus - the modulus m
+	 * @return values[from] * ... * values[to - 1] (mod m)
+	 */
+	public static BigInteger product(BigInteger [] values, int from, int to, BigInteger modulus) {
+		if (to - from <= 0) {
+			return BigInteger.ONE;
+		}
+		BarrettReducer reducer = new BarrettReducer(modulus);
+		int chunk = BatchExecutor.getThreshold();
+		if (to - from <= chunk) {
+			return fold(values, from, to, reducer);
+		}
+		return BatchExecutor.getPool().invoke(new ProductTree(values, from, to, reducer, chunk));
+	}
+
+	/**
+	 * Computes bases[0]^{exponents[0]} * ... * bases[n-1]^{exponents[n-1]} (mod m).
+	 * A negative exponent raises the inverse of its base, as {@link BigInteger#modPow(BigInteger, BigInteger)} does.
+	 *
+	 * @param bases - bases, each reduced modulo m
+	 * @param exponents - exponents, same length as bases
+	 * @param modulus - the modulus m
+	 * @return the product of the powers (mod m)
+	 * @throws HomomorphicException - If the arrays have different lengths
+	 */
+	public static BigInteger pow_product(BigInteger [] bases, BigInteger [] exponents, BigInteger modulus)
+			throws HomomorphicException {
+		BatchExecutor.check_length(bases.length, exponents.length);
+		int n = bases.length;
+		int max_bits = 0;
+		boolean copied = false;
+		for (int i = 0; i < n; i++) {
+			if (exponents[i].signum() < 0) {
+				// Work on copies, so the arrays of the caller are not modified
+				if (!copied) {
+					bases = bases.clone();
+					exponents = exponents.clone();
+					copied = true;
+				}
+				bases[i] = bases[i].modInverse(modulus);
+				exponents[i] = exponents[i].negate();
+			}
+			max_bits = Math.max(max_bits, exponents[i].bitLength());
+		}
+		if (n == 0 || max_bits == 0) {
+			return BigInteger.ONE;
+		}
+		ModExpCounter.count(n);
+
+		// Pick the window that minimizes the number of multiplications in the bucket method
+		int window = 1;
+		long bucket_cost = Long.MAX_VALUE;
+		for (int w = 1; w <= 16; w++) {
+			long cost = (long) ((max_bits + w - 1) / w) * (n + (2L << w));
+			if (cost < bucket_cost) {
+				bucket_cost = cost;
+				window = w;
+			}
+		}
+
+		// About 1.2 multiplications per exponent bit for each modPow
+		long separate_cost = (long) n * max_bits * 6 / 5;
+		if (bucket_cost * BARRETT_COST >= separate_cost) {
+			BigInteger [] powers = new BigInteger[n];
+			BigInteger [] b = bases;
+			BigInteger [] e = exponents;
+			BatchExecutor.run(n, i -> powers[i] = b[i].modPow(e[i], modulus));
+			return product(powers, 0, n, modulus);
+		}
+		return bucket(bases, exponents, modulus, max_bits, window);
+	}
+
+	/**
+	 * Bucket multi-exponentiation, processing the exponents from the most significant window down.
+	 */
+	private static BigInteger bucket(BigInteger [] bases, BigInteger [] exponents, BigInteger modulus,
+									 int max_bits, int window) {
+		BarrettReducer reducer = new BarrettReducer(modulus);
+		BigInteger shift = BigInteger.ONE.shiftLeft(window);
+		int windows = (max_bits + window - 1) / window;
+		BigInteger result = BigInteger.ONE;
+		BigInteger [] buckets = new BigInteger[1 << window];
+
+		for (int j = windows - 1; j >= 0; j--) {
+			// result = result^{2^w}
+			if (!result.equals(BigInteger.ONE)) {
+				result = result.modPow(shift, modulus);
+			}
+
+			// Put each base in the bucket of its digit in this window
+			Arrays.fill(buckets, null);
+			for (int i = 0; i < bases.length; i++) {
+				int digit = digit(exponents[i], j * window, window);
+				if (digit != 0) {
+					buckets[digit] = (buckets[digit] == null) ? bases[i] : reducer.multiply(buckets[digit], bases[i]);
+				}
+			}
+
+			// prod_d buckets[d]^d, using running products from the top bucket down
+			BigInteger running = null;
+			BigInteger accumulated = null;
+			for (int d = buckets.length - 1; d >= 1; d--) {
+				if (buckets[d] != null) {
+					running = (running == null) ? buckets[d] : reducer.multiply(running, buckets[d]);
+				}
+				if (running != null) {
+					accumulated = (accumulated == null) ? running : reducer.multiply(accumulated, running);
+				}
+			}
+			if (accumulated != null) {
+				result = reducer.multiply(result, accumulated);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the w-bit digit of the exponent starting at bit position offset
+	 */
+	private static int digit(BigInteger exponent, int offset, int window) {
+		int digit = 0;
+		for (int b = window - 1; b >= 0; b--) {
+			digit = (digit << 1) | (exponent.testBit(offset + b) ? 1 : 0);
+		}
+		return digit;
+	}
+
+	/**
+	 * Serial product of values[from..to).
+	 */
+	private static BigInteger fold(BigInteger [] values, int from, int to, BarrettReducer reducer) {
+		BigInteger product = values[from];
+		for (int i = from + 1; i < to; i++) {
+			product = reducer.multiply(product, values[i]);
+		}
+		return product;
+	}
+
+	/**
+	 * Splits the range in halves and multiplies the two sub-products.
+	 */
+	private static final class ProductTree extends RecursiveTask<BigInteger> {
+		private final BigInteger [] values;
+		private final int from;
+		private final int to;
+		private final BarrettReducer reducer;
+		private final int chunk;
+
+		ProductTree(BigInteger [] values, int from, int to, BarrettReducer reducer, int chunk) {
+			this.values = values;
+			this.from = from;
+			this.to = to;
+			this.reducer = reducer;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected BigInteger compute() {
+			if (to - from <= chunk) {
+				return fold(values, from, to, reducer);
+			}
+			int middle = (from + to) >>> 1;
+			ProductTree left = new ProductTree(values, from, middle, reducer, chunk);
+			left.fork();
+			BigInteger right = new ProductTree(values, middle, to, reducer, chunk).compute();
+			return reducer.multiply(left.join(), right);
+		}
+	}
+}
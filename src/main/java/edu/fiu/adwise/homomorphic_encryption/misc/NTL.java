@@ -74,33 +74,145 @@ public final class NTL implements CipherConstants
      * @param n The denominator as a {@link BigInteger}.
      * @return The Jacobi symbol as a {@link BigInteger}.
      * @throws IllegalArgumentException If {@code a <= -1} or {@code n} is even.
+     * @see #jacobi_symbol(BigInteger, BigInteger)
      */
 	public static BigInteger jacobi(BigInteger a, BigInteger n) {
-		if (a.compareTo(NEG_ONE) <= 0 || n.mod(TWO).equals(BigInteger.ZERO)) {
+		// -1, 0 and 1 are cached by BigInteger.valueOf
+		return BigInteger.valueOf(jacobi_symbol(a, n));
+	}
+
+	/**
+	 * Computes the Jacobi symbol (a/n) with the binary algorithm. If n is prime, this is the Legendre symbol,
+	 * so (c/p) = -1 exactly when c is a quadratic non-residue modulo p.
+	 * <p>
+	 * a (mod n) and n are copied once into two word arrays, and every step works on them in place:
+	 * while a is non-zero, its factors of two are shifted out, flipping the sign if n = 3 or 5 (mod 8),
+	 * then if a &lt; n both are swapped, flipping the sign if a = n = 3 (mod 4), and n is subtracted from a.
+	 * Every test only reads the lowest word, so no step allocates.
+	 *
+	 * @param a The numerator, must not be negative.
+	 * @param n The denominator, must be odd and positive.
+	 * @return The Jacobi symbol, -1, 0 or 1.
+	 * @throws IllegalArgumentException If {@code a <= -1} or {@code n} is not odd and positive.
+	 */
+	public static int jacobi_symbol(BigInteger a, BigInteger n) {
+		if (a.signum() < 0 || n.signum() <= 0 || !n.testBit(0)) {
 			throw new IllegalArgumentException("Invalid value. k = " + a + ", n = " + n);
 		}
-		a = a.mod(n);
-		BigInteger jacobi = BigInteger.ONE;
-		while (a.compareTo(BigInteger.ZERO) > 0) {
-			while (a.mod(TWO).equals(BigInteger.ZERO)) {
-				a = a.divide(TWO);
-				BigInteger r = n.mod(EIGHT);
-				if (r.equals(THREE) || r.equals(FIVE)) {
-					jacobi = jacobi.multiply(NEG_ONE);
+		if (a.compareTo(n) >= 0) {
+			a = a.mod(n);
+		}
+		int size = (n.bitLength() + 63) >>> 6;
+		long [] x = words(a, size);
+		long [] y = words(n, size);
+		int jacobi = 1;
+		while (true) {
+			// Both a and n are below 2^{64 * size}
+			while (size > 1 && x[size - 1] == 0 && y[size - 1] == 0) {
+				size--;
+			}
+			int zeros = trailing_zeros(x, size);
+			if (zeros < 0) {
+				// a = 0, so the symbol is 0 unless gcd(a, n) = n = 1
+				return is_one(y, size) ? jacobi : 0;
+			}
+			if (zeros > 0) {
+				shift_right(x, size, zeros);
+				long r = y[0] & 7;
+				if ((zeros & 1) == 1 && (r == 3 || r == 5)) {
+					jacobi = -jacobi;
 				}
 			}
-			BigInteger temp = n;
-			n = a;
-			a = temp;
-			if (a.mod(FOUR).equals(THREE) && n.mod(FOUR).equals(THREE)) {
-				jacobi = jacobi.multiply(NEG_ONE);
+			// Both are odd now
+			if (compare(x, y, size) < 0) {
+				long [] temp = x;
+				x = y;
+				y = temp;
+				if ((x[0] & 3) == 3 && (y[0] & 3) == 3) {
+					jacobi = -jacobi;
+				}
+			}
+			// (a/n) = ((a - n)/n), and a - n is even
+			subtract(x, y, size);
+		}
+	}
+
+	/**
+	 * @return The non-negative value as little-endian 64-bit words.
+	 */
+	private static long [] words(BigInteger value, int size) {
+		long [] words = new long[size];
+		byte [] magnitude = value.toByteArray();
+		int limit = size * 8;
+		for (int k = magnitude.length - 1, position = 0; k >= 0 && position < limit; k--, position++) {
+			words[position >>> 3] |= (magnitude[k] & 0xFFL) << ((position & 7) << 3);
+		}
+		return words;
+	}
+
+	/**
+	 * @return The number of trailing zero bits, or -1 if the value is zero.
+	 */
+	private static int trailing_zeros(long [] x, int size) {
+		for (int i = 0; i < size; i++) {
+			if (x[i] != 0) {
+				return (i << 6) + Long.numberOfTrailingZeros(x[i]);
 			}
-			a = a.mod(n);
 		}
-		if (n.equals(BigInteger.ONE)) {
-			return jacobi;
+		return -1;
+	}
+
+	/**
+	 * Shifts x right by the given number of bits, in place.
+	 */
+	private static void shift_right(long [] x, int size, int bits) {
+		int word_shift = bits >>> 6;
+		int bit_shift = bits & 63;
+		for (int i = 0; i < size; i++) {
+			int source = i + word_shift;
+			long low = source < size ? x[source] : 0;
+			long high = source + 1 < size ? x[source + 1] : 0;
+			x[i] = bit_shift == 0 ? low : (low >>> bit_shift) | (high << (64 - bit_shift));
+		}
+	}
+
+	/**
+	 * @return A negative number, zero or a positive number if x is smaller, equal or larger than y, as unsigned values.
+	 */
+	private static int compare(long [] x, long [] y, int size) {
+		for (int i = size - 1; i >= 0; i--) {
+			if (x[i] != y[i]) {
+				return Long.compareUnsigned(x[i], y[i]);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Subtracts y from x in place, x must not be smaller than y.
+	 */
+	private static void subtract(long [] x, long [] y, int size) {
+		long borrow = 0;
+		for (int i = 0; i < size; i++) {
+			long difference = x[i] - y[i] - borrow;
+			borrow = ((~x[i] & y[i]) | (~(x[i] ^ y[i]) & difference)) >>> 63;
+			x[i] = difference;
+		}
+	}
+
+	/**
+	 * @return True if the value is one.
+	 */
+	private static boolean is_one(long [] x, int size) {
+		if (x[0] != 1) {
+			return false;
+		}
+		for (int i = 1; i < size; i++) {
+			if (x[i] != 0) {
+				return false;
+			}
 		}
-		return BigInteger.ZERO;
+		return true;
 	}
 
 	/**
@@ -113,8 +225,8 @@ public final class NTL implements CipherConstants
 	public static BigInteger quadratic_non_residue(BigInteger p, BigInteger q) {
 		BigInteger a = NTL.RandomBnd(p);
 		while (true) {
-			if(NTL.jacobi(a, p).equals(NEG_ONE)) {
-				if(NTL.jacobi(a, q).equals(NEG_ONE)) {
+			if(NTL.jacobi_symbol(a, p) == -1) {
+				if(NTL.jacobi_symbol(a, q) == -1) {
 					break;
 				}
 			}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs randomized searches, such as the search for a prime, on several workers at once.
+ * <p>
+ * A search has one or more slots, e.g. p and q. Every worker repeats attempts on a slot that is not filled yet,
+ * the first success fills the slot, and the workers on a filled slot move to the next one.
+ * The losers are cancelled: an attempt should check the supplied flag and give up once it is set.
+ * <p>
+ * The calling thread is one of the workers, the others run on the {@link BatchExecutor} pool.
+ * So the search always makes progress, even if the pool is busy.
+ */
+public final class ParallelSearch {
+
+	private ParallelSearch() {}
+
+	/**
+	 * One attempt of a search.
+	 *
+	 * @param <T> - the type of the result
+	 */
+	@FunctionalInterface
+	public interface Attempt<T> {
+		/**
+		 * @param slot - the slot to fill, in [0, slots)
+		 * @param cancelled - returns true once the slot is filled, or the search failed
+		 * @return The result for the slot, or null if this attempt failed.
+		 */
+		T apply(int slot, BooleanSupplier cancelled);
+	}
+
+	/**
+	 * @return The default number of workers, the parallelism of the {@link BatchExecutor} pool plus the calling thread.
+	 */
+	public static int getDefaultWorkers() {
+		return BatchExecutor.getPool().getParallelism() + 1;
+	}
+
+	/**
+	 * Fills every slot with the first successful attempt on it.
+	 *
+	 * @param <T> - the type of the results
+	 * @param slots - the number of results to find
+	 * @param workers - the number of workers, including the calling thread
+	 * @param attempt - one attempt of the search, must be thread-safe
+	 * @return The result of every slot, in order.
+	 * @throws IllegalArgumentException - If the number of slots or workers is not positive
+	 * @throws RuntimeException - If an attempt failed with an exception, the search is cancelled and it is rethrown
+	 */
+	public static <T> List<T> find(int slots, int workers, Attempt<T> attempt) {
+		if (slots < 1 || workers < 1) {
+			throw new IllegalArgumentException("Require at least one slot and one worker: " + slots + ", " + workers);
+		}
+		Search<T> search = new Search<>(slots, attempt);
+		for (int i = 1; i < workers; i++) {
+			int first = i % slots;
+			BatchExecutor.getPool().execute(() -> search.work(first));
+		}
+		search.work(0);
+		synchronized (search) {
+			while (search.remaining.get() > 0 && search.failure.get() == null) {
+				try {
+					search.wait();
+				}
+				catch (InterruptedException e) {
+					search.failure.compareAndSet(null, new IllegalStateException("Interrupted while searching", e));
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		RuntimeException failure = search.failure.get();
+		if (failure != null) {
+			throw failure;
+		}
+		List<T> results = new ArrayList<>(slots);
+		for (int i = 0; i < slots; i++) {
+			results.add(search.results.get(i));
+		}
+		return results;
+	}
+
+	/**
+	 * The shared state of one search.
+	 */
+	private static final class Search<T> {
+		private final AtomicReferenceArray<T> results;
+		private final AtomicInteger remaining;
+		private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		private final Attempt<T> attempt;
+
+		private Search(int slots, Attempt<T> attempt) {
+			this.results = new AtomicReferenceArray<>(slots);
+			this.remaining = new AtomicInteger(slots);
+			this.attempt = attempt;
+		}
+
+		private boolean done() {
+			return remaining.get() == 0 || failure.get() != null;
+		}
+
+		/**
+		 * Works on the slots, starting with the given one, until every slot is filled.
+		 */
+		private void work(int first) {
+			int slots = results.length();
+			int slot = first;
+			try {
+				while (!done()) {
+					if (results.get(slot) != null) {
+						slot = (slot + 1) % slots;
+						continue;
+					}
+					int current = slot;
+					T result = attempt.apply(current, () -> results.get(current) != null || failure.get() != null);
+					if (result != null && results.compareAndSet(current, null, result)) {
+						if (remaining.decrementAndGet() == 0) {
+							wake();
+						}
+					}
+				}
+			}
+			catch (RuntimeException e) {
+				failure.compareAndSet(null, e);
+				wake();
+			}
+		}
+
+		private synchronized void wake() {
+			notifyAll();
+		}
+	}
+}
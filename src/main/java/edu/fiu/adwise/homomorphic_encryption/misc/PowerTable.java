@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Table of the powers base^i (mod modulus) for i in [0, size), built in the background.
+ * <p>
+ * Each power is computed from the previous one with one modular multiplication, base^{i+1} = base^i * base,
+ * instead of one exponentiation per entry. The range is split into chunks of {@link #CHUNK} powers,
+ * and only the first power of a chunk is computed by exponentiation, so the chunks are independent
+ * and are built in parallel on the pool of {@link BatchExecutor}.
+ * <p>
+ * The table can be used while it is built. {@link #get(int)} computes a power whose chunk is not ready
+ * by exponentiation, and {@link #await()} builds the chunks nobody has started on the calling thread,
+ * then waits for the chunks in progress.
+ */
+public final class PowerTable {
+	/** The number of powers per chunk. */
+	public static final int CHUNK = 1 << 12;
+
+	/**
+	 * Receives every chunk of powers once it is computed, e.g. to build an inverse lookup table.
+	 * Chunks are delivered from several threads and in no particular order.
+	 */
+	@FunctionalInterface
+	public interface ChunkListener {
+		/**
+		 * @param start - the exponent of the first power of the chunk
+		 * @param powers - base^{start + j} (mod modulus) for every index j of the chunk
+		 */
+		void accept(int start, BigInteger [] powers);
+	}
+
+	private final BigInteger base;
+	private final BigInteger modulus;
+	private final int size;
+
+	/** The powers, or null if the table only passes them to the listener. */
+	private final BigInteger [] powers;
+
+	private final ChunkListener listener;
+
+	/** 1 for every chunk whose powers are stored. */
+	private final AtomicIntegerArray ready;
+
+	/** The next chunk that no thread has started. */
+	private final AtomicInteger next_chunk = new AtomicInteger();
+
+	/** Counts down the chunks that are not finished. */
+	private final CountDownLatch remaining;
+
+	/** The first error thrown while building a chunk. */
+	private volatile RuntimeException failure = null;
+
+	private PowerTable(BigInteger base, BigInteger modulus, int size, boolean keep, ChunkListener listener) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Size of a power table must be non-negative: " + size);
+		}
+		this.base = base;
+		this.modulus = modulus;
+		this.size = size;
+		this.powers = keep ? new BigInteger[size] : null;
+		this.listener = listener;
+		int chunks = (int) (((long) size + CHUNK - 1) / CHUNK);
+		this.ready = new AtomicIntegerArray(chunks);
+		this.remaining = new CountDownLatch(chunks);
+	}
+
+	/**
+	 * Starts building the powers base^i (mod modulus) for i in [0, size) in the background.
+	 *
+	 * @param base - the base of the powers
+	 * @param modulus - the modulus
+	 * @param size - the number of powers
+	 * @param keep - if the powers are stored in the table, for {@link #get(int)}
+	 * @param listener - receives every chunk of powers, or null
+	 * @return The table, which is built in the background.
+	 * @throws IllegalArgumentException - If the size is negative
+	 */
+	public static PowerTable start(BigInteger base, BigInteger modulus, int size, boolean keep, ChunkListener listener) {
+		PowerTable table = new PowerTable(base, modulus, size, keep, listener);
+		ForkJoinPool pool = BatchExecutor.getPool();
+		int builders = Math.min(table.ready.length(), pool.getParallelism());
+		for (int i = 0; i < builders; i++) {
+			pool.execute(table::build_chunks);
+		}
+		return table;
+	}
+
+	/**
+	 * @param i - an exponent in [0, size)
+	 * @return base^i (mod modulus), from the table if its chunk is ready.
+	 */
+	public BigInteger get(int i) {
+		if (powers != null && i >= 0 && i < size && ready.get(i / CHUNK) == 1) {
+			return powers[i];
+		}
+		return base.modPow(BigInteger.valueOf(i), modulus);
+	}
+
+	/**
+	 * @return The number of powers in the table.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if every chunk is finished.
+	 */
+	public boolean isDone() {
+		return remaining.getCount() == 0;
+	}
+
+	/**
+	 * Builds the chunks nobody has started on the calling thread, then waits until every chunk is finished.
+	 * Since the caller takes part in the build, it is safe to call from a thread of the pool.
+	 *
+	 * @throws IllegalStateException - If a chunk failed
+	 */
+	public void await() {
+		build_chunks();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				remaining.await();
+				break;
+			}
+			catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (failure != null) {
+			throw new IllegalStateException("Failed to build the power table", failure);
+		}
+	}
+
+	private void build_chunks() {
+		int chunk;
+		while ((chunk = next_chunk.getAndIncrement()) < ready.length()) {
+			build_chunk(chunk);
+		}
+	}
+
+	private void build_chunk(int chunk) {
+		try {
+			int start = chunk * CHUNK;
+			BigInteger [] chunk_powers = new BigInteger[Math.min(CHUNK, size - start)];
+			BigInteger power = base.modPow(BigInteger.valueOf(start), modulus);
+			for (int j = 0; j < chunk_powers.length; j++) {
+				chunk_powers[j] = power;
+				power = power.multiply(base).mod(modulus);
+			}
+			if (powers != null) {
+				System.arraycopy(chunk_powers, 0, powers, start, chunk_powers.length);
+				ready.set(chunk, 1);
+			}
+			if (listener != null) {
+				listener.accept(start, chunk_powers);
+			}
+		}
+		catch (RuntimeException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+		finally {
+			remaining.countDown();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.misc;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+/**
+ * Searches for a prime in an arithmetic progression start + i * step, for i in [0, window).
+ * <p>
+ * Before any Miller-Rabin test, the window is sieved by every prime below {@link #SIEVE_LIMIT}:
+ * for each small prime s, the first index where s divides the candidate is found from
+ * start (mod s) and step (mod s), and every s-th index after it is crossed out.
+ * This costs one small remainder of start and step per small prime for the whole window,
+ * and leaves about 1 in 15 candidates for the expensive test.
+ */
+public final class PrimeSieve implements CipherConstants {
+	/** Every prime below this bound is sieved out. */
+	public static final int SIEVE_LIMIT = 1 << 14;
+
+	/** The default number of candidates sieved at once. */
+	public static final int DEFAULT_WINDOW = 1 << 12;
+
+	private static final int[] SMALL_PRIMES = small_primes(SIEVE_LIMIT);
+
+	private PrimeSieve() {}
+
+	/**
+	 * Finds the first probable prime start + i * step, for i in [0, window), that is accepted by the filter.
+	 * The candidates must be larger than {@link #SIEVE_LIMIT}.
+	 *
+	 * @param start - the first candidate
+	 * @param step - the distance between two candidates, must be positive
+	 * @param window - the number of candidates
+	 * @param accept - filters the candidate indexes before the primality test, or null to accept all of them
+	 * @param cancelled - checked before each primality test, the search gives up once it returns true
+	 * @return The probable prime, or null if the window has none or the search was cancelled.
+	 */
+	public static BigInteger search(BigInteger start, BigInteger step, int window,
+			IntPredicate accept, BooleanSupplier cancelled) {
+		boolean[] composite = new boolean[window];
+		for (int s : SMALL_PRIMES) {
+			BigInteger small = BigInteger.valueOf(s);
+			int start_mod = start.mod(small).intValue();
+			int step_mod = step.mod(small).intValue();
+			if (step_mod == 0) {
+				// s divides every candidate, or none of them
+				if (start_mod == 0) {
+					return null;
+				}
+				continue;
+			}
+			// start + i * step = 0 (mod s) <=> i = -start / step (mod s)
+			long i = (long) (s - start_mod) % s * inverse(step_mod, s) % s;
+			for (; i < window; i += s) {
+				composite[(int) i] = true;
+			}
+		}
+
+		for (int i = 0; i < window; i++) {
+			if (composite[i] || (accept != null && !accept.test(i))) {
+				continue;
+			}
+			if (cancelled.getAsBoolean()) {
+				return null;
+			}
+			BigInteger candidate = start.add(step.multiply(BigInteger.valueOf(i)));
+			if (candidate.isProbablePrime(CERTAINTY)) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Generates a random probable prime of exactly the given bit length, with its two top bits set,
+	 * so the product of two such primes has exactly twice the bit length.
+	 * Each try sieves a window of odd candidates after a random start.
+	 *
+	 * @param bits - the bit length of the prime, larger than the bit length of {@link #SIEVE_LIMIT}
+	 * @param random - the source of the random start
+	 * @param cancelled - checked before each primality test
+	 * @return The probable prime, or null if the search was cancelled.
+	 */
+	public static BigInteger random_prime(int bits, Random random, BooleanSupplier cancelled) {
+		while (!cancelled.getAsBoolean()) {
+			BigInteger start = new BigInteger(bits, random).setBit(bits - 1).setBit(bits - 2).setBit(0);
+			BigInteger prime = search(start, TWO, DEFAULT_WINDOW, null, cancelled);
+			if (prime != null && prime.bitLength() == bits) {
+				return prime;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return a^{-1} (mod s) for a prime s that does not divide a.
+	 */
+	private static long inverse(long a, long s) {
+		// Fermat: a^{s - 2} (mod s)
+		long result = 1;
+		long base = a % s;
+		for (long e = s - 2; e > 0; e >>= 1) {
+			if ((e & 1) == 1) {
+				result = result * base % s;
+			}
+			base = base * base % s;
+		}
+		return result;
+	}
+
+	/**
+	 * @return every prime below the limit, by the sieve of Eratosthenes.
+	 */
+	private static int[] small_primes(int limit) {
+		boolean[] composite = new boolean[limit];
+		int count = 0;
+		for (int i = 2; i < limit; i++) {
+			if (!composite[i]) {
+				count++;
+				for (long j = (long) i * i; j < limit; j += i) {
+					composite[(int) j] = true;
+				}
+			}
+		}
+		int[] primes = new int[count];
+		count = 0;
+		for (int i = 2; i < limit; i++) {
+			if (!composite[i]) {
+				primes[count++] = i;
+			}
+		}
+		return primes;
+	}
+}
@@ -9,8 +9,11 @@ import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import edu.fiu.adwise.homomorphic_encryption.misc.MultiExponentiation;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 /**
@@ -37,6 +40,7 @@ public final class PaillierCipher implements CipherConstants {
 	/**
 	 * Encrypts a plaintext using the provided Paillier public key.
 	 * The ciphertext is computed as {@code g^m * r^n mod n^2}.
+	 * The factor {@code r^n} comes from {@link PaillierPublicKey#startBlindingPool} if a pool is running.
 	 *
 	 * @param plaintext The plaintext to encrypt as a {@link BigInteger}.
 	 * @param public_key The {@link PaillierPublicKey} used for encryption.
@@ -54,9 +58,9 @@ public final class PaillierCipher implements CipherConstants {
 					+ " (plaintext >= N) value of Plain Text is: " + plaintext);
 		}
 
-		BigInteger randomness = NTL.RandomBnd(public_key.n);
-		BigInteger tmp1 = public_key.g.modPow(plaintext, public_key.modulus);
-		BigInteger tmp2 = randomness.modPow(public_key.n, public_key.modulus);
+		BigInteger tmp1 = g_pow(plaintext, public_key);
+		// r^n (mod n^2), taken from the blinding pool of the public key if one is running
+		BigInteger tmp2 = public_key.blinding_factor();
 		return NTL.POSMOD(tmp1.multiply(tmp2), public_key.modulus);
 	}
 
@@ -76,6 +80,8 @@ public final class PaillierCipher implements CipherConstants {
 	/**
 	 * Decrypts a ciphertext using the provided Paillier private key.
 	 * The plaintext is computed as {@code L(c^lambda mod n^2) * rho mod n}.
+	 * If the private key holds the primes p and q, two half-size exponentiations
+	 * modulo p^2 and q^2 are used instead and recombined with the Chinese Remainder Theorem.
 	 *
 	 * @param ciphertext The ciphertext to decrypt as a {@link BigInteger}.
 	 * @param private_key The {@link PaillierPrivateKey} used for decryption.
@@ -92,9 +98,36 @@ public final class PaillierCipher implements CipherConstants {
 			throw new HomomorphicException("decryption Invalid Parameter : the cipher text is not in Zn,"
 					+ " value of cipher text is: (c > n): " + ciphertext);
 		}
+		if (private_key.hasCRT()) {
+			return decrypt_crt(ciphertext, private_key);
+		}
+		ModExpCounter.count();
 		return L(ciphertext.modPow(private_key.lambda, private_key.modulus), private_key.n).multiply(private_key.rho).mod(private_key.n);
 	}
 
+	/**
+	 * Decrypts a ciphertext using the Chinese Remainder Theorem.
+	 * Computes {@code m_p = L_p(c^(p-1) mod p^2) * h_p mod p} and {@code m_q} likewise,
+	 * then recombines them into {@code m mod n}.
+	 *
+	 * @param ciphertext The ciphertext to decrypt as a {@link BigInteger}.
+	 * @param private_key The {@link PaillierPrivateKey} holding p, q and the precomputed constants.
+	 * @return The decrypted plaintext as a {@link BigInteger}.
+	 */
+	private static BigInteger decrypt_crt(BigInteger ciphertext, PaillierPrivateKey private_key) {
+		BigInteger p = private_key.p;
+		BigInteger q = private_key.q;
+		ModExpCounter.count(2);
+		BigInteger c_p = ciphertext.mod(private_key.p_squared).modPow(p.subtract(BigInteger.ONE), private_key.p_squared);
+		BigInteger c_q = ciphertext.mod(private_key.q_squared).modPow(q.subtract(BigInteger.ONE), private_key.q_squared);
+		BigInteger m_p = L(c_p, p).multiply(private_key.hp).mod(p);
+		BigInteger m_q = L(c_q, q).multiply(private_key.hq).mod(q);
+
+		// m = m_q + q * ((m_p - m_q) * q^{-1} mod p)
+		BigInteger h = m_p.subtract(m_q).multiply(private_key.q_inverse).mod(p);
+		return m_q.add(h.multiply(q));
+	}
+
 	/**
 	 * Performs homomorphic addition of two Paillier encrypted values.
 	 * The result is still encrypted and computed as the product of the two ciphertexts modulo n^2.
@@ -139,7 +172,7 @@ public final class PaillierCipher implements CipherConstants {
 		else if (plaintext.compareTo(NEG_ONE) < 0 || plaintext.compareTo(public_key.n) > 0) {
 			throw new HomomorphicException("Paillier add_plaintext Invalid Parameter plaintext: " + plaintext);
 		}
-		return ciphertext.multiply(public_key.g.modPow(plaintext, public_key.modulus)).mod(public_key.modulus);
+		return ciphertext.multiply(g_pow(plaintext, public_key)).mod(public_key.modulus);
 	}
 
 	/**
@@ -209,6 +242,7 @@ public final class PaillierCipher implements CipherConstants {
 		if(plaintext.signum() == -1 || plaintext.compareTo(public_key.n) > 0) {
 			throw new HomomorphicException("PaillierCipher Invalid Parameter plaintext: " + plaintext);
 		}
+		ModExpCounter.count();
 		return ciphertext.modPow(plaintext, public_key.modulus);
 	}
 
@@ -242,6 +276,23 @@ public final class PaillierCipher implements CipherConstants {
 		return multiply(ciphertext, divisor.modInverse(public_key.n), public_key);
 	}
 
+	/**
+	 * Computes g^m (mod n^2).
+	 * If the public key uses g = n + 1, this is computed as {@code 1 + (m mod n) * n},
+	 * which takes one multiplication instead of a modular exponentiation.
+	 *
+	 * @param m - The exponent, may be negative.
+	 * @param public_key - The {@link PaillierPublicKey} holding g and n.
+	 * @return g^m (mod n^2)
+	 */
+	static BigInteger g_pow(BigInteger m, PaillierPublicKey public_key) {
+		if (public_key.fast_generator) {
+			return BigInteger.ONE.add(NTL.POSMOD(m, public_key.n).multiply(public_key.n));
+		}
+		ModExpCounter.count();
+		return public_key.g.modPow(m, public_key.modulus);
+	}
+
 	/**
 	 * Computes the L function used in the Paillier cryptosystem.
 	 * The function is defined as L(u) = (u - 1) / n.
@@ -255,7 +306,10 @@ public final class PaillierCipher implements CipherConstants {
 	}
 
 	/**
-	 * Compute the sum of the encrypted Paillier values
+	 * Compute the sum of the encrypted Paillier values.
+	 * The ciphertexts are multiplied with a balanced product tree starting from the identity 1,
+	 * so the result is NOT re-randomized, see {@link #rerandomize(BigInteger, PaillierPublicKey)}.
+	 * An empty range returns a fresh encryption of 0 instead of the identity.
 	 * @param values - Array of Encrypted Paillier values 
 	 * @param public_key - PaillierPublicKey used to encrypt all the values
 	 * @return sum - the encrypted sum of all values in the array
@@ -263,15 +317,14 @@ public final class PaillierCipher implements CipherConstants {
      */
 	public static BigInteger sum(BigInteger [] values, PaillierPublicKey public_key)
 			throws HomomorphicException {
-		BigInteger sum = PaillierCipher.encrypt(BigInteger.ZERO, public_key);
-		for (BigInteger value : values) {
-			sum = PaillierCipher.add(sum, value, public_key);
-		}
-		return sum;
+		return sum(values, public_key, values.length);
 	}
 	
 	/**
-	 * Compute the sum of the encrypted Paillier values
+	 * Compute the sum of the encrypted Paillier values.
+	 * The ciphertexts are multiplied with a balanced product tree starting from the identity 1,
+	 * so the result is NOT re-randomized, see {@link #rerandomize(BigInteger, PaillierPublicKey)}.
+	 * An empty range returns a fresh encryption of 0 instead of the identity.
 	 * @param values - Array of Encrypted Paillier values
 	 * @param public_key - PaillierPublicKey used to encrypt the values
 	 * @param limit - Sum values up to this index value in the array
@@ -280,19 +333,17 @@ public final class PaillierCipher implements CipherConstants {
      */
 	public static BigInteger sum(BigInteger [] values, PaillierPublicKey public_key, int limit)
 			throws HomomorphicException {
-		if (limit > values.length) {
-			return sum(values, public_key);
-		}
-		BigInteger sum;
-		sum = PaillierCipher.encrypt(BigInteger.ZERO, public_key);
-		
+		limit = Math.min(limit, values.length);
 		if (limit <= 0) {
-			return sum;
+			// The empty product is the identity 1, which anyone can read as an encryption of 0
+			return PaillierCipher.encrypt(0, public_key);
 		}
 		for (int i = 0; i < limit; i++) {
-			sum = PaillierCipher.add(sum, values[i], public_key);
+			if (values[i].signum() == -1 || values[i].compareTo(public_key.modulus) > 0) {
+				throw new HomomorphicException("PaillierSum Invalid Parameter ciphertext: " + values[i]);
+			}
 		}
-		return sum;
+		return MultiExponentiation.product(values, 0, limit, public_key.modulus);
 	}
 
 	/**
@@ -304,11 +355,7 @@ public final class PaillierCipher implements CipherConstants {
      */
 	public static BigInteger sum(List<BigInteger> values, PaillierPublicKey public_key) 
 			throws HomomorphicException {
-		BigInteger sum = PaillierCipher.encrypt(BigInteger.ZERO, public_key);
-		for (BigInteger value : values) {
-			sum = PaillierCipher.add(sum, value, public_key);
-		}
-		return sum;
+		return sum(values.toArray(new BigInteger[0]), public_key);
 	}
 
 	/**
@@ -321,17 +368,7 @@ public final class PaillierCipher implements CipherConstants {
      */
 	public static BigInteger sum(List<BigInteger> values, PaillierPublicKey public_key, int limit) 
 			throws HomomorphicException {
-		if (limit > values.size()) {
-			return sum(values, public_key);
-		}
-		BigInteger sum = PaillierCipher.encrypt(BigInteger.ZERO, public_key);
-		if (limit <= 0) {
-			return sum;
-		}
-		for (int i = 0; i < limit; i++) {
-			sum = PaillierCipher.add(sum, values.get(i), public_key);
-		}
-		return sum;
+		return sum(values.toArray(new BigInteger[0]), public_key, limit);
 	}
 
 	/**
@@ -349,20 +386,14 @@ public final class PaillierCipher implements CipherConstants {
 		if(ciphertext.size() != plaintext.size()) {
 			throw new HomomorphicException("Lists are NOT the same size!");
 		}
-
-		BigInteger sum = PaillierCipher.encrypt(0, public_key);
-		BigInteger temp;
-		for (int i = 0; i < ciphertext.size(); i++) {
-			temp = PaillierCipher.multiply(ciphertext.get(i), plaintext.get(i), public_key);
-			sum = PaillierCipher.add(temp, sum, public_key);
-		}
-		return sum;
+		return sum_product(ciphertext.toArray(new BigInteger[0]), plaintext.toArray(new Long[0]), public_key);
 	}
 	
 	/**
-	 * Compute the sum-product. It computes the scalar multiplication between
-	 * the array of Encrypted and plaintext values.
-	 * Then it computes the encrypted sum.
+	 * Compute the sum-product c_1^{k_1} * ... * c_n^{k_n} (mod n^2) with one multi-exponentiation,
+	 * see {@link MultiExponentiation#pow_product(BigInteger[], BigInteger[], BigInteger)}.
+	 * If the input is empty or every plaintext is 0, it returns a fresh encryption of 0, like sum.
+	 * Otherwise the result is NOT re-randomized, see {@link #rerandomize(BigInteger, PaillierPublicKey)}.
 	 * @param ciphertext - Array of Encrypted Paillier values
 	 * @param plaintext - Array of plaintext values
 	 * @param public_key - Paillier Public Key used to encrypt values in ciphertext list
@@ -372,16 +403,119 @@ public final class PaillierCipher implements CipherConstants {
 	public static BigInteger sum_product (BigInteger[] ciphertext, Long[] plaintext, PaillierPublicKey public_key)
 			throws HomomorphicException
 	{
-		if(ciphertext.length != plaintext.length) {
-			throw new HomomorphicException("Arrays are NOT the same size!");
-		}
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
 
-		BigInteger sum = PaillierCipher.encrypt(0, public_key);
-		BigInteger temp;
+		BigInteger [] scalars = new BigInteger[plaintext.length];
+		boolean empty = true;
 		for (int i = 0; i < ciphertext.length; i++) {
-			temp = PaillierCipher.multiply(ciphertext[i], plaintext[i], public_key);
-			sum = PaillierCipher.add(temp, sum, public_key);
+			if (ciphertext[i].signum() == -1 || ciphertext[i].compareTo(public_key.modulus) > 0) {
+				throw new HomomorphicException("PaillierCipher Multiply Invalid Parameter ciphertext: " + ciphertext[i]);
+			}
+			scalars[i] = BigInteger.valueOf(plaintext[i]);
+			empty &= scalars[i].signum() == 0;
+			if(scalars[i].signum() == -1 || scalars[i].compareTo(public_key.n) > 0) {
+				throw new HomomorphicException("PaillierCipher Invalid Parameter plaintext: " + scalars[i]);
+			}
+		}
+		if (empty) {
+			// The product would be 1, an encryption of 0 that anyone can recognize
+			return PaillierCipher.encrypt(0, public_key);
+		}
+		return MultiExponentiation.pow_product(ciphertext, scalars, public_key.modulus);
+	}
+
+	/**
+	 * Re-randomizes a ciphertext by multiplying it with a fresh r^n (mod n^2).
+	 * The plaintext is unchanged. Use it before sending the result of
+	 * {@link #sum(BigInteger[], PaillierPublicKey)} or a sum-product to another party.
+	 * @param ciphertext - Paillier ciphertext
+	 * @param public_key - PaillierPublicKey used to encrypt the ciphertext
+	 * @return a new encryption of the same plaintext
+	 * @throws HomomorphicException - If the ciphertext is negative or exceeds n^2
+	 */
+	public static BigInteger rerandomize(BigInteger ciphertext, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		if (ciphertext.signum() == -1 || ciphertext.compareTo(public_key.modulus) > 0) {
+			throw new HomomorphicException("PaillierCipher Rerandomize Invalid Parameter ciphertext: " + ciphertext);
 		}
+		return ciphertext.multiply(public_key.blinding_factor()).mod(public_key.modulus);
+	}
+
+	//-----------------------Batched Paillier Operations----------------------------------------------
+
+	/**
+	 * Encrypts every plaintext of the array, in parallel on the {@link BatchExecutor} pool.
+	 * @param plaintext - Array of plaintext values
+	 * @param public_key - PaillierPublicKey used to encrypt the values
+	 * @return Array of ciphertexts, where element i encrypts plaintext[i]
+	 * @throws HomomorphicException - If any plaintext is out of range
+	 */
+	public static BigInteger [] encrypt(long [] plaintext, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		BigInteger [] ciphertext = new BigInteger[plaintext.length];
+		BatchExecutor.run(plaintext.length, i -> ciphertext[i] = PaillierCipher.encrypt(plaintext[i], public_key));
+		return ciphertext;
+	}
+
+	/**
+	 * Decrypts every ciphertext of the array, in parallel on the {@link BatchExecutor} pool.
+	 * @param ciphertext - Array of Paillier ciphertexts
+	 * @param private_key - PaillierPrivateKey used to decrypt the values
+	 * @return Array of plaintexts, where element i decrypts ciphertext[i]
+	 * @throws HomomorphicException - If any ciphertext is out of range
+	 */
+	public static BigInteger [] decrypt(BigInteger [] ciphertext, PaillierPrivateKey private_key)
+			throws HomomorphicException {
+		BigInteger [] plaintext = new BigInteger[ciphertext.length];
+		BatchExecutor.run(ciphertext.length, i -> plaintext[i] = PaillierCipher.decrypt(ciphertext[i], private_key));
+		return plaintext;
+	}
+
+	/**
+	 * Element-wise homomorphic addition of two arrays of ciphertexts.
+	 * @param ciphertext1 - Array of Paillier ciphertexts
+	 * @param ciphertext2 - Array of Paillier ciphertexts, same length as ciphertext1
+	 * @param public_key - PaillierPublicKey used to encrypt both arrays
+	 * @return Array where element i encrypts the sum of the plaintexts at index i
+	 * @throws HomomorphicException - If the arrays differ in length or a ciphertext is out of range
+	 */
+	public static BigInteger [] add(BigInteger [] ciphertext1, BigInteger [] ciphertext2, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext1.length, ciphertext2.length);
+		BigInteger [] sum = new BigInteger[ciphertext1.length];
+		BatchExecutor.run(sum.length, i -> sum[i] = PaillierCipher.add(ciphertext1[i], ciphertext2[i], public_key));
+		return sum;
+	}
+
+	/**
+	 * Element-wise homomorphic addition of an array of ciphertexts and an array of plaintexts.
+	 * @param ciphertext - Array of Paillier ciphertexts
+	 * @param plaintext - Array of plaintext values, same length as ciphertext
+	 * @param public_key - PaillierPublicKey used to encrypt the ciphertexts
+	 * @return Array where element i encrypts ciphertext[i] + plaintext[i]
+	 * @throws HomomorphicException - If the arrays differ in length or a value is out of range
+	 */
+	public static BigInteger [] add_plaintext(BigInteger [] ciphertext, BigInteger [] plaintext, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
+		BigInteger [] sum = new BigInteger[ciphertext.length];
+		BatchExecutor.run(sum.length, i -> sum[i] = PaillierCipher.add_plaintext(ciphertext[i], plaintext[i], public_key));
 		return sum;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Element-wise scalar multiplication of an array of ciphertexts and an array of plaintexts.
+	 * @param ciphertext - Array of Paillier ciphertexts
+	 * @param plaintext - Array of plaintext scalars, same length as ciphertext
+	 * @param public_key - PaillierPublicKey used to encrypt the ciphertexts
+	 * @return Array where element i encrypts ciphertext[i] * plaintext[i]
+	 * @throws HomomorphicException - If the arrays differ in length or a value is out of range
+	 */
+	public static BigInteger [] multiply(BigInteger [] ciphertext, BigInteger [] plaintext, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(ciphertext.length, plaintext.length);
+		BigInteger [] product = new BigInteger[ciphertext.length];
+		BatchExecutor.run(product.length, i -> product[i] = PaillierCipher.multiply(ciphertext[i], plaintext[i], public_key));
+		return product;
+	}
+}
@@ -11,10 +11,13 @@ import java.math.BigInteger;
 import java.security.KeyPair;
 import java.security.KeyPairGeneratorSpi;
 import java.security.SecureRandom;
+import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
+import edu.fiu.adwise.homomorphic_encryption.misc.ParallelSearch;
+import edu.fiu.adwise.homomorphic_encryption.misc.PrimeSieve;
 
 /**
  * This class is responsible for generating Paillier key pairs (public and private keys)
@@ -25,6 +28,8 @@ public class PaillierKeyPairGenerator extends KeyPairGeneratorSpi implements Cip
 	private static final Logger logger = LogManager.getLogger(PaillierKeyPairGenerator.class);
 	private int key_size = KEY_SIZE;
 	private SecureRandom rnd = null;
+	private boolean fast_generator = false;
+	private int workers = ParallelSearch.getDefaultWorkers();
 
 	/**
 	 * Main method to generate and save Paillier public and private keys to files.
@@ -79,8 +84,49 @@ public class PaillierKeyPairGenerator extends KeyPairGeneratorSpi implements Cip
 		this.key_size = key_size;
 	}
 
+	/**
+	 * Initializes the Paillier key pair generator, optionally selecting the generator g = n + 1.
+	 * With g = n + 1, g^m (mod n^2) = 1 + m * n (mod n^2), so encryption and plaintext addition
+	 * skip one modular exponentiation.
+	 *
+	 * @param key_size       The size of the key in bits. Must be an even number and at least {@code KEY_SIZE}.
+	 * @param random         The {@link SecureRandom} instance to use for key generation. Can be {@code null}.
+	 * @param fast_generator If true, use g = n + 1 instead of searching for g.
+	 * @throws IllegalArgumentException If the key size is not even or is less than {@code KEY_SIZE}.
+	 */
+	public void initialize(int key_size, SecureRandom random, boolean fast_generator) {
+		initialize(key_size, random);
+		this.fast_generator = fast_generator;
+	}
+
+	/**
+	 * Sets the number of workers searching for p and q, see {@link ParallelSearch}.
+	 *
+	 * @param workers The number of workers, including the calling thread, 1 to generate on the calling thread only.
+	 * @throws IllegalArgumentException If the number of workers is not positive.
+	 */
+	public void setWorkers(int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("Require at least one worker: " + workers);
+		}
+		this.workers = workers;
+	}
+
+	/**
+	 * @return The number of workers searching for p and q.
+	 */
+	public int getWorkers() {
+		return this.workers;
+	}
+
 	/**
 	 * Generates a Paillier key pair (public and private keys).
+	 * <p>
+	 * p and q are searched for at the same time by the workers, each sieving a window of
+	 * odd candidates by small primes before any primality test, see {@link PrimeSieve}.
+	 * Both have their two top bits set, so n has exactly {@code key_size} bits.
+	 * Exactly one of them is 3 (mod 4), so n = 3 (mod 4) and -1 has the Jacobi symbol -1 (mod n),
+	 * which batch signature verification relies on, see {@link PaillierSignature}.
 	 *
 	 * @return A {@link KeyPair} containing the Paillier public and private keys.
 	 */
@@ -88,13 +134,25 @@ public class PaillierKeyPairGenerator extends KeyPairGeneratorSpi implements Cip
 		if (this.rnd == null) {
 			rnd = new SecureRandom();
 		}
+		long start_time = System.nanoTime();
 
 		logger.info("Paillier Keys have " + key_size + " bits");
-		
-		// Chooses a random prime of length k2. The probability that
-		// p is not prime is at most 2^(-k2)
-		BigInteger p = new BigInteger(key_size/2, CERTAINTY, rnd);
-		BigInteger q = new BigInteger(key_size/2, CERTAINTY, rnd);
+
+		// Chooses two random primes of length k/2. The probability that
+		// p is not prime is at most 2^(-CERTAINTY)
+		BigInteger p;
+		BigInteger q;
+		do {
+			List<BigInteger> primes = ParallelSearch.find(2, this.workers,
+					(slot, cancelled) -> PrimeSieve.random_prime(key_size/2, rnd, cancelled));
+			p = primes.get(0);
+			q = primes.get(1);
+		} while (p.equals(q));
+		while (p.equals(q) || !p.multiply(q).testBit(1)) {
+			// p = q (mod 4), so draw another q, which differs from p (mod 4) with probability 1/2
+			q = ParallelSearch.find(1, this.workers,
+					(slot, cancelled) -> PrimeSieve.random_prime(key_size/2, rnd, cancelled)).get(0);
+		}
 
 		BigInteger n = p.multiply(q); // n = pq
 		BigInteger modulus = n.multiply(n); // modulus = n^2
@@ -103,44 +161,54 @@ public class PaillierKeyPairGenerator extends KeyPairGeneratorSpi implements Cip
 		BigInteger lambda = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
 		BigInteger mu = lambda.modInverse(n);
 	
-		// For signature
-		// Build base g \in Z_{n^2} with order n
-		BigInteger g = TWO;
-		g = find_g(g, lambda, modulus, n);
-		
-		// Beware of flaw with Paillier if g^{lambda} = 1 (mod n^2)
-		while(g.modPow(lambda, modulus).equals(BigInteger.ONE)) {
-			g = find_g(g.add(BigInteger.ONE), lambda, modulus, n);
+		BigInteger g;
+		if (fast_generator) {
+			// g = n + 1 has order n in Z_{n^2}, and L(g^{lambda}) = lambda is invertible mod n
+			g = n.add(BigInteger.ONE);
+		}
+		else {
+			// For signature
+			// Build base g \in Z_{n^2} with order n
+			g = find_g(TWO, lambda, modulus, n);
 		}
 
 		BigInteger gcd = p.subtract(BigInteger.ONE).gcd(q.subtract(BigInteger.ONE));
 		BigInteger alpha = find_alpha(lambda.divide(gcd));
 
 		PaillierPublicKey pk = new PaillierPublicKey(this.key_size, n, modulus, g);
-		PaillierPrivateKey sk = new PaillierPrivateKey(this.key_size, n, modulus, lambda, mu, g, alpha);
+		PaillierPrivateKey sk = new PaillierPrivateKey(this.key_size, n, modulus, lambda, mu, g, alpha, p, q);
 		
-		logger.info("Completed building Paillier Key Pair!");
+		logger.info("Completed building Paillier Key Pair in " + (System.nanoTime() - start_time)/BILLION + " seconds!");
 		return new KeyPair(pk, sk);
 	}
 
 	/**
 	 * Finds the smallest divisor of the given Least Common Multiple (LCM) value.
+	 * p - 1 and q - 1 are even for odd primes p and q, so this is 2 without any division.
+	 * Otherwise, the smallest divisor is a prime, so only 2 and the odd candidates are tried.
 	 *
 	 * @param LCM The least common multiple of (p - 1) and (q - 1).
 	 * @return The smallest divisor of the LCM.
 	 */
 	private static BigInteger find_alpha(BigInteger LCM) {
-		BigInteger alpha = TWO;
-		while(true) {
-			if(LCM.mod(alpha).compareTo(BigInteger.ZERO) == 0) {
+		if (!LCM.testBit(0)) {
+			return TWO;
+		}
+		BigInteger alpha = BigInteger.valueOf(3);
+		while(alpha.multiply(alpha).compareTo(LCM) <= 0) {
+			if(LCM.mod(alpha).signum() == 0) {
 				return alpha;
 			}
-			alpha = alpha.add(BigInteger.ONE);
+			alpha = alpha.add(TWO);
 		}
+		// No divisor up to its square root, so the LCM is prime
+		return LCM;
 	}
 
 	/**
 	 * Finds a generator g for the Paillier cryptosystem.
+	 * The check L(g^{lambda} (mod n^2)) coprime to n also rejects the flaw g^{lambda} = 1 (mod n^2),
+	 * since L(1) = 0, so each candidate costs one modular exponentiation.
 	 *
 	 * @param g       The initial candidate for the generator.
 	 * @param lambda  The Carmichael's function value.
@@ -43,6 +43,27 @@ public final class PaillierPrivateKey implements Serializable, PaillierKey, Priv
 	/** The smallest divisor of lcm(\( p-1 \), \( q-1 \)). */
 	private final BigInteger alpha;
 
+	/** The prime \( p \), or null if the key was built without its factors. */
+	final BigInteger p;
+
+	/** The prime \( q \), or null if the key was built without its factors. */
+	final BigInteger q;
+
+	/** The value \( p^2 \), used for CRT decryption. */
+	final BigInteger p_squared;
+
+	/** The value \( q^2 \), used for CRT decryption. */
+	final BigInteger q_squared;
+
+	/** The precomputed value \( h_p = L_p(g^{p-1} \bmod p^2)^{-1} \bmod p \). */
+	final BigInteger hp;
+
+	/** The precomputed value \( h_q = L_q(g^{q-1} \bmod q^2)^{-1} \bmod q \). */
+	final BigInteger hq;
+
+	/** The modular inverse of \( q \) modulo \( p \), used to recombine the CRT halves. */
+	final BigInteger q_inverse;
+
 	/**
 	 * Constructs a Paillier private key with the specified parameters.
 	 *
@@ -56,6 +77,26 @@ public final class PaillierPrivateKey implements Serializable, PaillierKey, Priv
 	 */
 	public PaillierPrivateKey(int key_size, BigInteger n, BigInteger mod, 
 			BigInteger lambda, BigInteger mu, BigInteger g, BigInteger alpha)
+	{
+		this(key_size, n, mod, lambda, mu, g, alpha, null, null);
+	}
+
+	/**
+	 * Constructs a Paillier private key that also keeps the primes p and q,
+	 * so decryption can use the Chinese Remainder Theorem (CRT).
+	 *
+	 * @param key_size The size of the key in bits.
+	 * @param n        The value of n (product of two primes p and q).
+	 * @param mod      The modulus (n^2).
+	 * @param lambda   The Carmichael's function value.
+	 * @param mu       The modular inverse of lambda mod n.
+	 * @param g        The generator g.
+	 * @param alpha    The smallest divisor of lcm(p-1, q-1).
+	 * @param p        The first prime factor of n, or null to disable CRT decryption.
+	 * @param q        The second prime factor of n, or null to disable CRT decryption.
+	 */
+	public PaillierPrivateKey(int key_size, BigInteger n, BigInteger mod,
+			BigInteger lambda, BigInteger mu, BigInteger g, BigInteger alpha, BigInteger p, BigInteger q)
 	{
 		this.key_size = key_size;
 		this.n = n;
@@ -65,6 +106,48 @@ public final class PaillierPrivateKey implements Serializable, PaillierKey, Priv
 		this.g = g;
 		this.alpha = alpha;
 		this.rho = PaillierCipher.L(this.g.modPow(this.lambda, this.modulus), this.n).modInverse(this.modulus);
+
+		if (p != null && q != null) {
+			this.p = p;
+			this.q = q;
+			this.p_squared = p.multiply(p);
+			this.q_squared = q.multiply(q);
+			this.hp = h(this.g, p, this.p_squared);
+			this.hq = h(this.g, q, this.q_squared);
+			this.q_inverse = q.modInverse(p);
+		}
+		else {
+			this.p = null;
+			this.q = null;
+			this.p_squared = null;
+			this.q_squared = null;
+			this.hp = null;
+			this.hq = null;
+			this.q_inverse = null;
+		}
+	}
+
+	/**
+	 * Computes the CRT decryption constant h = L_p(g^{p-1} mod p^2)^{-1} mod p.
+	 *
+	 * @param g         The generator g.
+	 * @param prime     The prime factor p (or q).
+	 * @param prime_sq  The square of the prime factor.
+	 * @return The precomputed constant for the given prime.
+	 */
+	private static BigInteger h(BigInteger g, BigInteger prime, BigInteger prime_sq) {
+		BigInteger u = g.mod(prime_sq).modPow(prime.subtract(BigInteger.ONE), prime_sq);
+		return PaillierCipher.L(u, prime).modInverse(prime);
+	}
+
+	/**
+	 * Checks whether this key holds the prime factors required for CRT decryption.
+	 * Keys serialized by older versions do not store them and use the standard decryption instead.
+	 *
+	 * @return true if CRT decryption can be used, false otherwise.
+	 */
+	public boolean hasCRT() {
+		return this.p != null && this.q_inverse != null;
 	}
 
 	/**
@@ -4,7 +4,10 @@
  */
 package edu.fiu.adwise.homomorphic_encryption.paillier;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BlindingPool;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 import java.io.*;
 import java.math.BigInteger;
@@ -31,9 +34,15 @@ public final class PaillierPublicKey implements Serializable, PaillierKey, Publi
 	/** The generator g used in the Paillier cryptosystem. */
 	final BigInteger g;
 
+	/** True if g = n + 1, so g^m (mod n^2) = 1 + m * n (mod n^2) needs no exponentiation. */
+	final boolean fast_generator;
+
 	/** Cached value representing the encryption of zero. */
 	BigInteger ZERO = null;
 
+	/** Optional pool of precomputed r^n (mod n^2) values, it is not serialized with the key. */
+	private transient volatile BlindingPool blinding_pool = null;
+
 	/**
 	 * Constructs a Paillier public key with the specified parameters.
 	 *
@@ -47,7 +56,7 @@ public final class PaillierPublicKey implements Serializable, PaillierKey, Publi
 		this.n = n;
 		this.modulus = modulus;
 		this.g = g;
-
+		this.fast_generator = g.equals(n.add(BigInteger.ONE));
 	}
 
 	/**
@@ -63,6 +72,72 @@ public final class PaillierPublicKey implements Serializable, PaillierKey, Publi
 		return this.ZERO;
 	}
 
+	/**
+	 * Checks if this key uses the generator g = n + 1.
+	 * Keys serialized before this mode was recorded report false and use the generic g^m path.
+	 *
+	 * @return true if g = n + 1, false otherwise.
+	 */
+	public boolean isFastGenerator() {
+		return this.fast_generator;
+	}
+
+	/**
+	 * Computes a fresh blinding factor r^n (mod n^2) for a random r in Z_n.
+	 * If a blinding pool is running, the factor is taken from the pool instead.
+	 *
+	 * @return A blinding factor for encryption.
+	 */
+	BigInteger blinding_factor() {
+		BlindingPool pool = this.blinding_pool;
+		if (pool != null) {
+			return pool.next();
+		}
+		return compute_blinding_factor();
+	}
+
+	/**
+	 * @return r^n (mod n^2) for a fresh random r in Z_n.
+	 */
+	private BigInteger compute_blinding_factor() {
+		ModExpCounter.count();
+		return NTL.RandomBnd(this.n).modPow(this.n, this.modulus);
+	}
+
+	/**
+	 * Starts a background pool of precomputed blinding factors r^n (mod n^2).
+	 * Encryption then only needs one modular multiplication while the pool has factors.
+	 * A running pool is stopped and replaced.
+	 *
+	 * @param low_watermark  Refill the pool once it drains to this size.
+	 * @param high_watermark The capacity of the pool.
+	 * @param threads        The number of background threads filling the pool.
+	 * @return The started {@link BlindingPool}, e.g. to read its hit/miss counters.
+	 */
+	public synchronized BlindingPool startBlindingPool(int low_watermark, int high_watermark, int threads) {
+		stopBlindingPool();
+		this.blinding_pool = new BlindingPool(this::compute_blinding_factor, low_watermark, high_watermark, threads);
+		return this.blinding_pool;
+	}
+
+	/**
+	 * Stops the background pool of blinding factors, if any.
+	 * Encryption goes back to computing r^n (mod n^2) inline.
+	 */
+	public synchronized void stopBlindingPool() {
+		if (this.blinding_pool != null) {
+			this.blinding_pool.close();
+			this.blinding_pool = null;
+		}
+	}
+
+	/**
+	 * @return The running {@link BlindingPool}, or null if none was started.
+	 */
+	public BlindingPool getBlindingPool() {
+		return this.blinding_pool;
+	}
+
 	/**
 	 * Returns a string representation of the public key.
 	 *
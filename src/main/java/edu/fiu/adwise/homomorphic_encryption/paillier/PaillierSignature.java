@@ -6,12 +6,22 @@ package edu.fiu.adwise.homomorphic_encryption.paillier;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchVerifier;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.MultiExponentiation;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+
 /**
  * This class provides methods for signing and verifying messages using the Paillier cryptosystem.
  * The Paillier cryptosystem is a probabilistic asymmetric algorithm for public key cryptography.
  * It supports homomorphic encryption and is based on composite degree residuosity classes.
+ * <p>
+ * Batches of messages can be signed in parallel, and batches of signatures can be verified
+ * together, see {@link BatchVerifier}.
  */
 public class PaillierSignature {
 
@@ -72,4 +82,94 @@ public class PaillierSignature {
 		BigInteger second_part = sigma_two.modPow(public_key.n, public_key.modulus);
 		return message.compareTo(first_part.multiply(second_part).mod(public_key.modulus)) == 0;
 	}
+
+	//-----------------------Batched Paillier Signatures----------------------------------------------
+
+	/**
+	 * Signs every message of the array, in parallel on the {@link BatchExecutor} pool.
+	 *
+	 * @param messages    The messages to be signed.
+	 * @param private_key The {@link PaillierPrivateKey} used to sign the messages.
+	 * @return The signatures, where element i signs messages[i], as returned by {@link #sign(BigInteger, PaillierPrivateKey)}.
+	 * @throws HomomorphicException If the signing of any message failed.
+	 */
+	public static List<List<BigInteger>> sign(BigInteger [] messages, PaillierPrivateKey private_key)
+			throws HomomorphicException {
+		@SuppressWarnings("unchecked")
+		List<BigInteger> [] signatures = new List[messages.length];
+		BatchExecutor.run(messages.length, i -> signatures[i] = sign(messages[i], private_key));
+		return Arrays.asList(signatures);
+	}
+
+	/**
+	 * Verifies a batch of signatures with the small exponents test, and finds the invalid ones by bisection.
+	 * For random exponents d_i, a valid batch satisfies
+	 * prod m_i^{d_i} = g^{sum d_i * sigma_one_i} * (prod sigma_two_i^{d_i})^n (mod n^2),
+	 * which costs two short multi-exponentiations and two exponentiations instead of two exponentiations per signature.
+	 * <p>
+	 * A signature whose sigma_two is negated is off by a factor -1, and two of them would cancel in the combined check.
+	 * So the Jacobi symbols (mod n) of both sides are compared for each signature first, which catches -1 if n = 3 (mod 4),
+	 * as for every key made by {@link PaillierKeyPairGenerator}.
+	 * <p>
+	 * If n = 1 (mod 4), then (-1/n) = 1, so the combined check compares the squares of both sides instead,
+	 * which removes every error of order 2 rather than letting pairs of them cancel. This check is weaker:
+	 * an accepted signature is valid for m up to a factor of order 2, e.g. a signature of n^2 - m with a negated
+	 * sigma_two is accepted for m. Signatures that fail the combined check are still decided exactly.
+	 * <p>
+	 * Other errors of small order, e.g. the other square roots of 1, can only be built with the factors of n,
+	 * so only the signer could make two of them cancel, with a probability of up to 1/2.
+	 * Use {@link #verify(BigInteger, List, PaillierPublicKey)} if the signer must be held to every signature.
+	 *
+	 * @param messages   The original plaintext messages.
+	 * @param signatures The signatures, where element i signs messages[i], each with sigma_one and sigma_two.
+	 * @param public_key The {@link PaillierPublicKey} used to verify the signatures.
+	 * @return For each signature, {@code true} if it is valid, as {@link #verify(BigInteger, List, PaillierPublicKey)} decides.
+	 * @throws HomomorphicException If the number of messages and signatures differ.
+	 */
+	public static boolean [] verify(BigInteger [] messages, List<List<BigInteger>> signatures, PaillierPublicKey public_key)
+			throws HomomorphicException {
+		BatchExecutor.check_length(messages.length, signatures.size());
+		BigInteger modulus = public_key.modulus;
+		// (-1/n) = -1 only if n = 3 (mod 4)
+		boolean square = !public_key.n.testBit(1);
+		int g_symbol = NTL.jacobi_symbol(public_key.g.mod(public_key.n), public_key.n);
+		return BatchVerifier.verify(messages.length,
+				i -> signatures.get(i).size() == 2 && messages[i].signum() >= 0 && messages[i].compareTo(modulus) < 0
+						&& same_symbol(messages[i], signatures.get(i), g_symbol, public_key),
+				(indexes, exponents) -> {
+					BigInteger [] message = new BigInteger[indexes.length];
+					BigInteger [] sigma_two = new BigInteger[indexes.length];
+					BigInteger sigma_one = BigInteger.ZERO;
+					for (int j = 0; j < indexes.length; j++) {
+						List<BigInteger> signature = signatures.get(indexes[j]);
+						message[j] = messages[indexes[j]];
+						sigma_one = sigma_one.add(exponents[j].multiply(signature.get(0)));
+						sigma_two[j] = signature.get(1).mod(modulus);
+					}
+					BigInteger left = MultiExponentiation.pow_product(message, exponents, modulus);
+					BigInteger right = MultiExponentiation.pow_product(sigma_two, exponents, modulus).modPow(public_key.n, modulus);
+					right = right.multiply(PaillierCipher.g_pow(sigma_one, public_key)).mod(modulus);
+					if (square) {
+						left = left.multiply(left).mod(modulus);
+						right = right.multiply(right).mod(modulus);
+					}
+					return left.equals(right);
+				},
+				i -> verify(messages[i], signatures.get(i), public_key));
+	}
+
+	/**
+	 * Compares the Jacobi symbols (mod n) of m and g^{sigma_one} * sigma_two^n, which are equal for a valid signature.
+	 * n is odd, so sigma_two^n has the symbol of sigma_two.
+	 *
+	 * @param g_symbol The Jacobi symbol of g (mod n).
+	 * @return {@code true} if the symbols are equal.
+	 */
+	private static boolean same_symbol(BigInteger message, List<BigInteger> signature, int g_symbol,
+			PaillierPublicKey public_key) {
+		BigInteger n = public_key.n;
+		int right = BatchVerifier.power_symbol(g_symbol, signature.get(0))
+				* NTL.jacobi_symbol(signature.get(1).mod(n), n);
+		return NTL.jacobi_symbol(message.mod(n), n) == right;
+	}
 }
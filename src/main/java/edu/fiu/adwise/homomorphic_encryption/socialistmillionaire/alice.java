@@ -5,11 +5,12 @@
 package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.net.Socket;
-import java.util.ArrayList;
-import javax.net.ssl.SSLSocket;
+import java.util.Arrays;
 
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamal_Ciphertext;
 import edu.fiu.adwise.homomorphic_encryption.gm.GMPublicKey;
@@ -20,6 +21,7 @@ import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
 
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPublicKey;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierCipher;
@@ -69,14 +71,56 @@ public class alice extends socialist_millionaires implements alice_interface {
 
 	/**
 	 * Sets up the socket for communication with Bob using a standard {@code Socket}.
+	 * The binary wire protocol is used if both Alice and Bob ask for it, otherwise Java serialization is used.
 	 *
 	 * @param socket the socket to communicate with Bob.
 	 * @throws IOException if an I/O error occurs when setting up the socket.
 	 */
 	public void set_socket(Socket socket) throws IOException {
-		toBob = new ObjectOutputStream(socket.getOutputStream());
-		fromBob = new ValidatingObjectInputStream(socket.getInputStream());
-		this.fromBob.accept(
+		set_transport(new socket_transport(socket));
+	}
+
+	/**
+	 * Sets up the connection to Bob, e.g. a socket or a {@link loopback_transport} to Bob in the same JVM.
+	 * The binary wire protocol is used if both Alice and Bob ask for it, otherwise Java serialization is used.
+	 *
+	 * @param connection the connection to Bob.
+	 * @throws IOException if an I/O error occurs when setting up the connection.
+	 */
+	public void set_transport(transport connection) throws IOException {
+		connection = metrics.count(connection);
+		if (negotiate_wire(connection)) {
+			channel = new binary_channel(connection, this::accept_classes, this);
+		}
+		else {
+			toBob = new ObjectOutputStream(connection.getOutputStream());
+			fromBob = new ValidatingObjectInputStream(connection.getInputStream());
+			accept_classes(fromBob);
+		}
+
+		// Set TLS flag if the connection is a TLS socket
+		if (connection.isTLS()) {
+			this.tls_socket_in_use = true;
+		}
+	}
+
+	/**
+	 * Uses a lane of a {@link multiplexer} to communicate with Bob, with the binary wire protocol.
+	 *
+	 * @param input the stream of frames from Bob.
+	 * @param output the stream of frames to Bob.
+	 */
+	void set_lane(InputStream input, OutputStream output) {
+		this.channel = new binary_channel(input, output, this::accept_classes, this);
+	}
+
+	/**
+	 * Sets the classes Alice accepts from Bob when reading serialized objects.
+	 *
+	 * @param input the stream reading objects from Bob.
+	 */
+	private void accept_classes(ValidatingObjectInputStream input) {
+		input.accept(
 				PaillierPublicKey.class,
 				DGKPublicKey.class,
 				ElGamalPublicKey.class,
@@ -88,13 +132,10 @@ public class alice extends socialist_millionaires implements alice_interface {
 				java.lang.Long.class,
 				java.lang.String.class
 		);
-		this.fromBob.accept("[B");
-		this.fromBob.accept("[L*");
-
-		// Set TLS flag if the socket is an instance of SSLSocket
-		if (socket instanceof SSLSocket) {
-			this.tls_socket_in_use = true;
-		}
+		input.accept("[B");
+		input.accept("[L*");
+		// Batches of encrypted bit vectors, see Protocol2Batch
+		input.accept("[[Ljava.math.BigInteger;");
 	}
 
 	/**
@@ -109,6 +150,12 @@ public class alice extends socialist_millionaires implements alice_interface {
 	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
 	 */
 	public boolean encrypted_equals(BigInteger a, BigInteger b) throws HomomorphicException, IOException, ClassNotFoundException {
+		try (protocol_metrics.timer ignored = time("encrypted_equals")) {
+			return run_encrypted_equals(a, b);
+		}
+	}
+
+	private boolean run_encrypted_equals(BigInteger a, BigInteger b) throws HomomorphicException, IOException, ClassNotFoundException {
 		// Party A generates a sufficiently large (l + 1 + k bits) random
 		// value r, computes [x] <- [a − b + r ], and sends [x] to B.
 		BigInteger r;
@@ -154,19 +201,20 @@ public class alice extends socialist_millionaires implements alice_interface {
 		BigInteger [] C_b = new BigInteger[xor.length];
 
 		// Step 6: Sum XOR and multiply by random 2*t bit number
-		C_a[0] = DGKOperations.sum(xor, dgk_public);
+		BigInteger [] xor_prefix = DGKOperations.prefix_sum(xor, dgk_public);
+		C_a[0] = xor_prefix[xor.length];
 		BigInteger rho = NTL.generateXBitRandom(2 * dgk_public.getT());
 		C_a[0] = DGKOperations.multiply(C_a[0], rho, dgk_public);
 
-		// Step 7: Create lots of dummy encrypted numbers
+		// Step 7: Create lots of dummy encrypted numbers, a dummy zero would tell Bob the values are equal
 		for (int i = 1; i < xor.length; i++) {
-			C_a[i] = DGKOperations.encrypt(NTL.RandomBnd(dgk_public.getU()), dgk_public);
+			C_a[i] = DGKOperations.encrypt(NTL.RandomBnd(dgk_public.getU().subtract(BigInteger.ONE)).add(BigInteger.ONE), dgk_public);
 		}
 
 		// Delta_B
 		for (int i = 0; i < xor.length; i++) {
 			// Sum XOR part and multiply by 2
-			C_b[i] = DGKOperations.multiply(DGKOperations.sum(xor, dgk_public, i), 2, dgk_public);
+			C_b[i] = DGKOperations.multiply(xor_prefix[i], 2, dgk_public);
 			// subtract 1
 			C_b[i] = DGKOperations.subtract(C_b[i], dgk_public.ONE(), dgk_public);
 			// Add XOR bit value at i
@@ -174,11 +222,11 @@ public class alice extends socialist_millionaires implements alice_interface {
 		}
 
 		if (delta_a == 0) {
-			shuffle_bits(C_a);
+			shuffle_bits(rerandomize_bits(C_a));
 			writeObject(C_a);
 		}
 		else {
-			shuffle_bits(C_b);
+			shuffle_bits(rerandomize_bits(C_b));
 			writeObject(C_b);
 		}
 
@@ -223,6 +271,7 @@ public class alice extends socialist_millionaires implements alice_interface {
 									  BigInteger [] XOR, int delta_a) throws HomomorphicException {
 
 		BigInteger [] C = new BigInteger[XOR.length + 1];
+		BigInteger [] xor_prefix = DGKOperations.prefix_sum(XOR, dgk_public);
 		int xor_bit_length = XOR.length;
 		int start_bit_position_x = Math.max(0, xor_bit_length - x.bitLength());
 		int start_bit_position_y = Math.max(0, xor_bit_length - Encrypted_Y.length);
@@ -241,15 +290,14 @@ public class alice extends socialist_millionaires implements alice_interface {
 				y_bit = dgk_public.ZERO(); // If Encrypted_Y is shorter, treat the missing bits as zeros
 			}
 
-			C[i] = DGKOperations.multiply(DGKOperations.sum(XOR, dgk_public, i), 3, dgk_public);
+			C[i] = DGKOperations.multiply(xor_prefix[i], 3, dgk_public);
 			C[i] = DGKOperations.add_plaintext(C[i], 1 - 2L * delta_a, dgk_public);
 			C[i] = DGKOperations.subtract(C[i], y_bit, dgk_public);
 			C[i] = DGKOperations.add_plaintext(C[i], x_bit, dgk_public);
 		}
 
 		//This is c_{-1}
-		C[XOR.length] = DGKOperations.sum(XOR, dgk_public);
-		C[XOR.length] = DGKOperations.add_plaintext(C[XOR.length], delta_a, dgk_public);
+		C[XOR.length] = DGKOperations.add_plaintext(xor_prefix[XOR.length], delta_a, dgk_public);
 		return C;
 	}
 
@@ -266,6 +314,13 @@ public class alice extends socialist_millionaires implements alice_interface {
 	 */
 	public boolean Protocol1(BigInteger x)
 			throws IOException, IllegalArgumentException, HomomorphicException, ClassNotFoundException {
+		try (protocol_metrics.timer ignored = time("Protocol1")) {
+			return run_Protocol1(x);
+		}
+	}
+
+	private boolean run_Protocol1(BigInteger x)
+			throws IOException, IllegalArgumentException, HomomorphicException, ClassNotFoundException {
 		// Constraint...
 		if(x.bitLength() > dgk_public.getL()) {
 			throw new IllegalArgumentException("Constraint violated: 0 <= x, y < 2^l, x is: " + x.bitLength() + " bits");
@@ -285,11 +340,11 @@ public class alice extends socialist_millionaires implements alice_interface {
 		// Step 4: Compute C_i
 		C = compute_c(x, Encrypted_Y, XOR, delta_a);
 
-		// Step 5: Blinds C_i, Shuffle it and send to Bob
+		// Step 5: Blinds C_i with an exponent in [1, u - 1] (u would cancel C_i), Shuffle it and send to Bob
 		for (int i = 0; i < C.length; i++) {
-			C[i] = DGKOperations.multiply(C[i], rnd.nextInt(dgk_public.getU().intValue()) + 1, dgk_public);
+			C[i] = DGKOperations.multiply(C[i], rnd.nextInt(dgk_public.getU().intValue() - 1) + 1, dgk_public);
 		}
-		C = shuffle_bits(C);
+		C = shuffle_bits(rerandomize_bits(C));
 		writeObject(C);
 
 		// Run Extra steps to help Alice decrypt Delta
@@ -310,6 +365,14 @@ public class alice extends socialist_millionaires implements alice_interface {
 	 */
 	public boolean Protocol2(BigInteger x, BigInteger y) 
 			throws IOException, ClassNotFoundException, HomomorphicException
+	{
+		try (protocol_metrics.timer ignored = time("Protocol2")) {
+			return run_Protocol2(x, y);
+		}
+	}
+
+	private boolean run_Protocol2(BigInteger x, BigInteger y) 
+			throws IOException, ClassNotFoundException, HomomorphicException
 	{
 		Object bob;
 		int deltaB;
@@ -385,7 +448,8 @@ public class alice extends socialist_millionaires implements alice_interface {
 		}
 
 		// Step 7: get [[x <= y]]
-		result = PaillierCipher.subtract(zdiv2L, PaillierCipher.encrypt(r.divide(powL), paillier_public), paillier_public);
+		// r/2^l is Alice's own value, so subtract it as a plaintext; alpha_lt_beta re-randomizes the result
+		result = PaillierCipher.subtract_plaintext(zdiv2L, r.divide(powL), paillier_public);
 		result = PaillierCipher.subtract(result, alpha_lt_beta, paillier_public);
 
 		/*
@@ -398,6 +462,115 @@ public class alice extends socialist_millionaires implements alice_interface {
 		return decrypt_protocol_two(result);
 	}
 
+	/**
+	 * Executes Protocol 2 on a batch of independent comparisons, checking if x[i] >= y[i] for every i.
+	 * The messages of every comparison are packed together, so the whole batch takes the same
+	 * four round trips as a single run of {@link #Protocol2(BigInteger, BigInteger)}:
+	 * <ol>
+	 *     <li>Alice sends every [[z]], Bob answers with every encrypted bit vector of beta and every [[z/2^l]]</li>
+	 *     <li>Alice sends every C array of Protocol 1, Bob answers with every [delta_b]</li>
+	 *     <li>Alice sends every [delta], Bob answers with every delta</li>
+	 *     <li>Alice sends every [[x >= y]], Bob answers with every comparison result</li>
+	 * </ol>
+	 * The work on each comparison is done in parallel on the {@link BatchExecutor} pool.
+	 * Bob must answer with {@link bob#Protocol2Batch()}.
+	 * This is the original DGK comparison protocol for every version of Alice.
+	 *
+	 * @param x the Paillier encrypted values of X.
+	 * @param y the Paillier encrypted values of Y, same length as x.
+	 * @return element i is {@code true} if {@code x[i] >= y[i]}, {@code false} otherwise.
+	 * @throws IOException if an I/O error occurs during communication.
+	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
+	 * @throws HomomorphicException if an error occurs during homomorphic operations or the arrays differ in length.
+	 * @throws IllegalArgumentException if the protocol is used with DGK or invalid parameters.
+	 */
+	public boolean [] Protocol2Batch(BigInteger [] x, BigInteger [] y)
+			throws IOException, ClassNotFoundException, HomomorphicException
+	{
+		try (protocol_metrics.timer ignored = time("Protocol2Batch")) {
+			return run_Protocol2Batch(x, y);
+		}
+	}
+
+	private boolean [] run_Protocol2Batch(BigInteger [] x, BigInteger [] y)
+			throws IOException, ClassNotFoundException, HomomorphicException
+	{
+		if (isDGK) {
+			throw new IllegalArgumentException("Protocol 2 is NOT allowed with DGK! Used Protocol 4!");
+		}
+		if (dgk_public.getL() + SIGMA + 2 >= paillier_public.key_size) {
+			throw new IllegalArgumentException("Invalid due to constraint: l + sigma + 2 < log_2(N)!");
+		}
+		BatchExecutor.check_length(x.length, y.length);
+		int n = x.length;
+		BigInteger [] r = new BigInteger[n];
+		BigInteger [] alpha = new BigInteger[n];
+		int [] delta_a = new int[n];
+		BigInteger [] z = new BigInteger[n];
+
+		// Step 1: r has l + 1 + sigma bits, Step 3: alpha = r (mod 2^l)
+		for (int i = 0; i < n; i++) {
+			r[i] = NTL.generateXBitRandom(dgk_public.getL() + 1 + SIGMA);
+			alpha[i] = NTL.POSMOD(r[i], powL);
+			delta_a[i] = rnd.nextInt(2);
+		}
+
+		// Step 2: Alice computes every [[z]] = [[x - y + 2^l + r]] and sends them to Bob
+		BatchExecutor.run(n, i -> {
+			z[i] = PaillierCipher.add_plaintext(x[i], r[i].add(powL).mod(paillier_public.getN()), paillier_public);
+			z[i] = PaillierCipher.subtract(z[i], y[i], paillier_public);
+		});
+		writeObject(z);
+
+		// Step 4: Protocol 1 on every alpha, Bob sends the bits of every beta and every [[z/2^l]] together
+		BigInteger [][] Encrypted_Y = read_batch(readObject(), BigInteger[][].class, n, "Protocol 2 Batch, Step 4: encrypted bits");
+		BigInteger [] zdiv2L = read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch, Step 5: z/2^l");
+
+		// Compute, blind, re-randomize and shuffle every C array
+		BigInteger [][] C = new BigInteger[n][];
+		BatchExecutor.run(n, i -> {
+			BigInteger [] XOR = encrypted_xor(alpha[i], Encrypted_Y[i]);
+			BigInteger [] C_i = compute_c(alpha[i], Encrypted_Y[i], XOR, delta_a[i]);
+			for (int j = 0; j < C_i.length; j++) {
+				C_i[j] = DGKOperations.multiply(C_i[j], rnd.nextInt(dgk_public.getU().intValue() - 1) + 1, dgk_public);
+				C_i[j] = DGKOperations.rerandomize(C_i[j], dgk_public);
+			}
+			C[i] = shuffle_bits(C_i);
+		});
+		writeObject(C);
+
+		// Steps 7 and 8 of Protocol 1, see decrypt_protocol_one
+		BigInteger [] delta = read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch: [delta_b]");
+		BatchExecutor.run(n, i -> {
+			if (delta_a[i] == 1) {
+				delta[i] = DGKOperations.subtract(dgk_public.ONE(), delta[i], dgk_public);
+			}
+		});
+		writeObject(delta);
+		BigInteger [] x_leq_y = read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch: delta");
+
+		// Step 6: [[beta < alpha]] = [[1 - (alpha <= beta)]]
+		// Step 7: [[x >= y]] = [[z/2^l]] - r/2^l - [[beta < alpha]]
+		BigInteger [] result = new BigInteger[n];
+		BatchExecutor.run(n, i -> {
+			BigInteger alpha_lt_beta = PaillierCipher.encrypt(BigInteger.ONE.subtract(x_leq_y[i]), paillier_public);
+			result[i] = PaillierCipher.subtract_plaintext(zdiv2L[i], r[i].divide(powL), paillier_public);
+			result[i] = PaillierCipher.subtract(result[i], alpha_lt_beta, paillier_public);
+		});
+
+		// Unofficial Step 8: Bob decrypts every result, see decrypt_protocol_two
+		writeObject(result);
+		BigInteger [] comparison = read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch, Step 8: comparison");
+		boolean [] x_geq_y = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			if (!comparison[i].equals(BigInteger.ZERO) && !comparison[i].equals(BigInteger.ONE)) {
+				throw new IllegalArgumentException("Invalid Comparison output! --> " + comparison[i]);
+			}
+			x_geq_y[i] = comparison[i].equals(BigInteger.ONE);
+		}
+		return x_geq_y;
+	}
+
 	/**
 	 * Please review Protocol 2 in the "Encrypted Integer Division" paper by Thjis Veugen
 	 *
@@ -408,6 +581,13 @@ public class alice extends socialist_millionaires implements alice_interface {
 	 */
 	public BigInteger division(BigInteger x, long d)
 			throws IOException, ClassNotFoundException,  HomomorphicException {
+		try (protocol_metrics.timer ignored = time("division")) {
+			return run_division(x, d);
+		}
+	}
+
+	private BigInteger run_division(BigInteger x, long d)
+			throws IOException, ClassNotFoundException,  HomomorphicException {
 		Object in;
 		BigInteger answer;
 		BigInteger c;
@@ -483,6 +663,13 @@ public class alice extends socialist_millionaires implements alice_interface {
 	 */
 	public BigInteger multiplication(BigInteger x, BigInteger y) 
 			throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
+		try (protocol_metrics.timer ignored = time("multiplication")) {
+			return run_multiplication(x, y);
+		}
+	}
+
+	private BigInteger run_multiplication(BigInteger x, BigInteger y) 
+			throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
 		Object in;
 		BigInteger x_prime;
 		BigInteger y_prime;
@@ -589,13 +776,16 @@ public class alice extends socialist_millionaires implements alice_interface {
 
 
 	/**
-	 * Retrieves the k largest or smallest values from the input array using a bubble sort algorithm.
-	 * The method can sort the entire array or only extract the k largest/smallest values.
+	 * Retrieves the k largest or smallest values from the input array using a tournament tree.
+	 * This takes n - 1 + (k - 1) * ceil(log2 n) secure comparisons, see {@link tournament_tree}.
+	 * With Paillier and the binary wire protocol, each layer of the tree is one batch, so it takes at most k * ceil(log2 n) sets of round trips.
+	 * In DGK mode or with Java serialization, every comparison is still its own run of Protocol 2.
+	 * Bob serves the comparisons with {@link bob#sort()}.
 	 *
 	 * @param input the array of BigInteger values to process.
 	 * @param k the number of values to retrieve.
 	 * @param smallest_first if true, retrieves the k smallest values; otherwise, retrieves the k largest values.
-	 * @return an array containing the k largest or smallest values.
+	 * @return an array containing the k smallest values in ascending order, or the k largest values in ascending order.
 	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
 	 * @throws IOException if an I/O error occurs during communication.
 	 * @throws IllegalArgumentException if k is invalid or out of bounds.
@@ -607,53 +797,37 @@ public class alice extends socialist_millionaires implements alice_interface {
 		if(k > input.length || k <= 0) {
 			throw new IllegalArgumentException("Invalid k value! " + k);
 		}
-		BigInteger [] arr = deep_copy(input);
 		BigInteger [] sorted_k = new BigInteger[k];
-		
-		boolean activation;
-		for (int i = 0; i < k; i++) {
-			for (int j = 0; j < arr.length - 1 - i; j++) {
-				writeBoolean(true);
-				// Might need a K-Max test as well!
-				activation = this.Protocol2(arr[j], arr[j + 1]);
-				if (smallest_first) {
-					activation = !activation;
-				}
-				
-				// Originally arr[j] > arr[j + 1]
-				if (activation) {
-					// swap temp and arr[i]
-					BigInteger temp = arr[j];
-					arr[j] = arr[j + 1];
-					arr[j + 1] = temp;
-				}
-			}
-		}
-		
-		// Get last K-elements of arr!! 
+
+		tournament_tree<BigInteger> tournament = new tournament_tree<>(Arrays.asList(input),
+				(first, second) -> compare_top_k(first, second, smallest_first));
+		List<BigInteger> best = tournament.top(k);
+		logger.info("Top {} of {} values took {} comparisons", k, input.length, tournament.getComparisons());
+
+		// best is ordered best first, the largest values are returned in ascending order
 		for (int i = 0; i < k; i++) {
 			if (smallest_first) {
-				sorted_k[i] = arr[arr.length - 1 - i];
+				sorted_k[i] = best.get(i);
 			}
 			else {
-				sorted_k[k - 1 - i] = arr[arr.length - 1 - i];
+				sorted_k[k - 1 - i] = best.get(i);
 			}
 		}
-		
+
 		// Close Bob
 		writeBoolean(false);
+		flush();
 		return sorted_k;
 	}
 
 	/**
-	 * Retrieves the k largest or smallest values from the input list using a bubble sort algorithm.
-	 * The method can sort the entire list or only extract the k largest/smallest values.
+	 * Retrieves the k largest or smallest values from the input list using a tournament tree.
 	 * This operation involves secure comparisons using homomorphic encryption.
 	 *
 	 * @param input the list of BigInteger values to process.
 	 * @param k the number of values to retrieve.
 	 * @param smallest_first if true, retrieves the k smallest values; otherwise, retrieves the k largest values.
-	 * @return an array containing the k largest or smallest values.
+	 * @return an array containing the k smallest values in ascending order, or the k largest values in ascending order.
 	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
 	 * @throws IOException if an I/O error occurs during communication.
 	 * @throws IllegalArgumentException if k is invalid or out of bounds.
@@ -665,43 +839,48 @@ public class alice extends socialist_millionaires implements alice_interface {
 		if(k > input.size() || k <= 0) {
 			throw new IllegalArgumentException("Invalid k value!");
 		}
-		// deep copy
-		List<BigInteger> arr = new ArrayList<>(input);
-		BigInteger [] sorted_k = new BigInteger[k];
-		
-		boolean activation;
-		for (int i = 0; i < k; i++) {
-			for (int j = 0; j < arr.size() - i - 1; j++) {
-				writeBoolean(true);
-				activation = this.Protocol2(arr.get(j), arr.get(j + 1));
+		return getKValues(input.toArray(new BigInteger[0]), k, smallest_first);
+	}
 
-				if(smallest_first) {
-					activation = !activation;
-				}
-				
-				// Originally arr[j] > arr[j + 1]
-				if (activation) {
-					// swap temp and arr[i]
-					BigInteger temp = arr.get(j);
-					arr.set(j, arr.get(j + 1));
-					arr.set(j + 1, temp);
+	/**
+	 * Plays a batch of tournament matches for {@link #getKValues(BigInteger[], int, boolean)}.
+	 * With Paillier, the batch is one run of {@link #Protocol2Batch(BigInteger[], BigInteger[])};
+	 * with DGK, each match is one run of Protocol 2. Either way, it is announced to Bob's sort() loop.
+	 * The batch needs a second flag after each announcement, which a Bob from before batching does not read,
+	 * so it is only used with the binary wire protocol. Otherwise, each match is one run of Protocol 2.
+	 *
+	 * @param first the first value of each match.
+	 * @param second the second value of each match.
+	 * @param smallest_first if true, the smaller value wins; otherwise, the larger value wins.
+	 * @return element i is {@code true} if first[i] wins.
+	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
+	 * @throws IOException if an I/O error occurs during communication.
+	 * @throws HomomorphicException if an error occurs during homomorphic operations.
+	 */
+	protected boolean [] compare_top_k(List<BigInteger> first, List<BigInteger> second, boolean smallest_first)
+			throws ClassNotFoundException, IOException, HomomorphicException {
+		boolean [] wins;
+		if (isDGK || !isBinaryWire()) {
+			wins = new boolean[first.size()];
+			for (int i = 0; i < wins.length; i++) {
+				writeBoolean(true);
+				if (isBinaryWire()) {
+					writeBoolean(false);
 				}
+				// Protocol 2 returns first >= second
+				wins[i] = this.Protocol2(first.get(i), second.get(i)) != smallest_first;
 			}
 		}
-		
-		// Get last K-elements of arr!! 
-		for (int i = 0; i < k; i++) {
-			if (smallest_first) {
-				sorted_k[i] = arr.get(arr.size() - 1 - i);
-			}
-			else {
-				sorted_k[k - 1 - i] = arr.get(arr.size() - 1 - i);
+		else {
+			// Play the whole batch in one set of round trips
+			writeBoolean(true);
+			writeBoolean(true);
+			wins = Protocol2Batch(first.toArray(new BigInteger[0]), second.toArray(new BigInteger[0]));
+			for (int i = 0; i < wins.length; i++) {
+				wins[i] = wins[i] != smallest_first;
 			}
 		}
-		
-		// Close Bob
-		writeBoolean(false);
-		return sorted_k;
+		return wins;
 	}
 	
 	// ---------------------- Everything here is essentially utility functions all Alice will need ----------------
@@ -870,7 +1049,7 @@ public class alice extends socialist_millionaires implements alice_interface {
 		}
 		writeObject(result);
 
-		int comparison = fromBob.readInt();// x <= y
+		int comparison = readInt();// x <= y
 		// IF SOMETHING HAPPENS...GET THE POST MORTEM HERE
 		if (comparison != 0 && comparison != 1) {
 			throw new IllegalArgumentException("Invalid Comparison output! --> " + comparison);
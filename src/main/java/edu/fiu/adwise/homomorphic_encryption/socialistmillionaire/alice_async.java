@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Socket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs many protocols at the same time on one connection to a {@link bob_async}.
+ * <p>
+ * The connection is split into lanes by a {@link multiplexer}, and each lane has its own Alice.
+ * An operation waits for a free lane, sends its code, runs the usual protocol on that lane,
+ * and completes the returned {@link CompletableFuture}. While one operation waits for Bob,
+ * the others compute, so the computation of each party overlaps the network latency of the other operations.
+ * <p>
+ * A failed operation leaves Bob in the middle of a protocol, so it closes the session
+ * and the pending operations fail as well.
+ */
+public class alice_async implements Closeable {
+    private static final Logger logger = LogManager.getLogger(alice_async.class);
+
+    private final multiplexer lanes;
+
+    /** The metrics shared by every lane, the bytes are counted on the connection. */
+    private final protocol_metrics metrics = new protocol_metrics();
+
+    /** The lanes that are not running an operation. */
+    private final BlockingQueue<alice> idle = new LinkedBlockingQueue<>();
+
+    /** Runs one operation per lane at a time. */
+    private final ExecutorService executor;
+
+    private volatile boolean closed = false;
+
+    /**
+     * An operation run on one lane.
+     *
+     * @param <T> the type of the result.
+     */
+    @FunctionalInterface
+    private interface lane_operation<T> {
+        T apply(alice lane) throws IOException, ClassNotFoundException, HomomorphicException;
+    }
+
+    /**
+     * Opens the lanes and receives the public keys from Bob.
+     *
+     * @param socket the socket connected to a {@link bob_async}.
+     * @param count the number of lanes, the largest number of operations running at the same time.
+     * @param factory creates the Alice of each lane, e.g. {@code alice_veugen::new}.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the public keys cannot be read.
+     * @throws IllegalArgumentException if the number of lanes is out of range.
+     */
+    public alice_async(Socket socket, int count, Supplier<? extends alice> factory)
+            throws IOException, ClassNotFoundException {
+        this(new socket_transport(socket), count, factory);
+    }
+
+    /**
+     * Opens the lanes and receives the public keys from Bob.
+     *
+     * @param connection the connection to a {@link bob_async}, e.g. a {@link loopback_transport}.
+     * @param count the number of lanes, the largest number of operations running at the same time.
+     * @param factory creates the Alice of each lane, e.g. {@code alice_veugen::new}.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the public keys cannot be read.
+     * @throws IllegalArgumentException if the number of lanes is out of range.
+     */
+    public alice_async(transport connection, int count, Supplier<? extends alice> factory)
+            throws IOException, ClassNotFoundException {
+        if (count < 1 || count > multiplexer.MAX_LANES) {
+            throw new IllegalArgumentException("Number of lanes must be between 1 and " + multiplexer.MAX_LANES + ": " + count);
+        }
+        connection = metrics.count(connection);
+        DataOutputStream handshake = new DataOutputStream(connection.getOutputStream());
+        handshake.writeInt(count);
+        handshake.flush();
+        this.lanes = new multiplexer(connection, count);
+
+        alice first = null;
+        for (int i = 0; i < count; i++) {
+            alice lane = factory.get();
+            lane.setMetrics(metrics);
+            lane.set_lane(lanes.input(i), lanes.output(i));
+            if (first == null) {
+                lane.receivePublicKeys();
+                first = lane;
+            }
+            else {
+                copy_keys(first, lane);
+            }
+            idle.add(lane);
+        }
+        this.executor = Executors.newFixedThreadPool(count, task -> {
+            Thread thread = new Thread(task, "alice-lane");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gives every lane the public keys Bob sent on the first lane.
+     */
+    private static void copy_keys(alice from, alice to) {
+        if (from.getDGKPublicKey() != null) {
+            to.setDGKPublicKey(from.getDGKPublicKey());
+        }
+        to.setPaillierPublicKey(from.getPaillierPublicKey());
+        to.setElGamalPublicKey(from.getElGamalPublicKey());
+    }
+
+    /**
+     * Compares two encrypted values, see {@link alice#Protocol2(BigInteger, BigInteger)}.
+     *
+     * @param x the first encrypted value.
+     * @param y the second encrypted value.
+     * @return completes with true if x &gt;= y.
+     */
+    public CompletableFuture<Boolean> Protocol2(BigInteger x, BigInteger y) {
+        return submit(bob_async.PROTOCOL_2, lane -> lane.Protocol2(x, y));
+    }
+
+    /**
+     * Multiplies two encrypted values, see {@link alice#multiplication(BigInteger, BigInteger)}.
+     *
+     * @param x the first encrypted value.
+     * @param y the second encrypted value.
+     * @return completes with the encrypted product.
+     */
+    public CompletableFuture<BigInteger> multiplication(BigInteger x, BigInteger y) {
+        return submit(bob_async.MULTIPLICATION, lane -> lane.multiplication(x, y));
+    }
+
+    /**
+     * Divides an encrypted value by a plaintext divisor, see {@link alice#division(BigInteger, long)}.
+     *
+     * @param x the encrypted value.
+     * @param d the plaintext divisor.
+     * @return completes with the encrypted quotient.
+     */
+    public CompletableFuture<BigInteger> division(BigInteger x, long d) {
+        return submit(bob_async.DIVISION, lane -> {
+            lane.writeObject(BigInteger.valueOf(d));
+            return lane.division(x, d);
+        });
+    }
+
+    /**
+     * Tests two encrypted values for equality, see {@link alice#encrypted_equals(BigInteger, BigInteger)}.
+     *
+     * @param a the first encrypted value.
+     * @param b the second encrypted value.
+     * @return completes with true if the values are equal.
+     */
+    public CompletableFuture<Boolean> encrypted_equals(BigInteger a, BigInteger b) {
+        return submit(bob_async.ENCRYPTED_EQUALS, lane -> lane.encrypted_equals(a, b));
+    }
+
+    /**
+     * @return the number of lanes.
+     */
+    public int getLanes() {
+        return lanes.size();
+    }
+
+    /**
+     * @return the metrics of every lane, including the bytes of the multiplexer frames.
+     */
+    public protocol_metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Waits for the running operations, then closes every lane and the connection.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                logger.debug("Waiting for the running operations...");
+            }
+            alice lane;
+            while ((lane = idle.poll()) != null) {
+                lane.writeInt(bob_async.CLOSE);
+                lane.flush();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            lanes.close();
+        }
+    }
+
+    /**
+     * Runs the operation on the next free lane.
+     */
+    private <T> CompletableFuture<T> submit(int operation, lane_operation<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    alice lane = idle.take();
+                    lane.writeInt(operation);
+                    T value = task.apply(lane);
+                    lane.flush();
+                    idle.add(lane);
+                    result.complete(value);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+                catch (Exception e) {
+                    result.completeExceptionally(e);
+                    fail(e);
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IOException("The asynchronous session is closed", e));
+        }
+        return result;
+    }
+
+    /**
+     * Closes the session after a failed operation.
+     */
+    private void fail(Exception e) {
+        logger.error("Closing asynchronous session: {}", e.getMessage());
+        closed = true;
+        executor.shutdown();
+        try {
+            lanes.close();
+        }
+        catch (IOException ignored) {
+
+        }
+    }
+}
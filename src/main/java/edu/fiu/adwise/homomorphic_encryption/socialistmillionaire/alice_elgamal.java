@@ -90,6 +90,13 @@ public class alice_elgamal extends alice_veugen {
      */
     public ElGamal_Ciphertext multiplication(ElGamal_Ciphertext x, ElGamal_Ciphertext y)
             throws IOException, ClassNotFoundException, IllegalArgumentException {
+        try (protocol_metrics.timer ignored = time("multiplication")) {
+            return run_multiplication(x, y);
+        }
+    }
+
+    private ElGamal_Ciphertext run_multiplication(ElGamal_Ciphertext x, ElGamal_Ciphertext y)
+            throws IOException, ClassNotFoundException, IllegalArgumentException {
         if(!el_gamal_public.additive) {
             return ElGamalCipher.multiply(x, y, el_gamal_public);
         }
@@ -139,6 +146,13 @@ public class alice_elgamal extends alice_veugen {
      */
     public ElGamal_Ciphertext division(ElGamal_Ciphertext x, long d)
             throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("division")) {
+            return run_division(x, d);
+        }
+    }
+
+    private ElGamal_Ciphertext run_division(ElGamal_Ciphertext x, long d)
+            throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
         if(!el_gamal_public.additive) {
             ElGamalCipher.divide(x, ElGamalCipher.encrypt(BigInteger.valueOf(d), el_gamal_public), el_gamal_public);
             return x;
@@ -198,6 +212,13 @@ public class alice_elgamal extends alice_veugen {
      */
     public boolean Protocol4(ElGamal_Ciphertext x, ElGamal_Ciphertext y)
             throws IOException, ClassNotFoundException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol4")) {
+            return run_Protocol4(x, y);
+        }
+    }
+
+    private boolean run_Protocol4(ElGamal_Ciphertext x, ElGamal_Ciphertext y)
+            throws IOException, ClassNotFoundException, HomomorphicException {
         int deltaB;
         int x_leq_y;
         int deltaA = rnd.nextInt(2);
@@ -317,7 +338,7 @@ public class alice_elgamal extends alice_veugen {
         int comparison;
         writeObject(result);
 
-        comparison = fromBob.readInt();
+        comparison = readInt();
         // IF SOMETHING HAPPENS...GET THE POST MORTEM HERE
         if (comparison != 0 && comparison != 1) {
             throw new IllegalArgumentException("Invalid Comparison result --> " + comparison);
@@ -326,11 +347,13 @@ public class alice_elgamal extends alice_veugen {
     }
 
     /**
-     * Retrieves the k smallest encrypted values from a list.
+     * Retrieves the k smallest encrypted values from a list using a tournament tree.
+     * This takes n - 1 + (k - 1) * ceil(log2 n) runs of Protocol 4, see {@link tournament_tree}.
+     * Protocol 4 has no batched form yet, so every run is its own set of round trips.
      *
      * @param input the list of encrypted values.
      * @param k the number of smallest values to retrieve.
-     * @return a list of the k smallest encrypted values.
+     * @return a list of the k smallest encrypted values, in ascending order.
      * @throws ClassNotFoundException if a class cannot be found during deserialization.
      * @throws IOException if an I/O error occurs during communication.
      * @throws IllegalArgumentException if the value of {@code k} is invalid.
@@ -341,33 +364,21 @@ public class alice_elgamal extends alice_veugen {
         if(k > input.size() || k <= 0) {
             throw new IllegalArgumentException("Invalid k value! " + k);
         }
-        // deep copy
-        List<ElGamal_Ciphertext> arr = new ArrayList<>(input);
-
-        ElGamal_Ciphertext temp;
-        List<ElGamal_Ciphertext> min = new ArrayList<>();
 
-        for (int i = 0; i < k; i++) {
-            for (int j = 0; j < arr.size() - i - 1; j++) {
+        tournament_tree<ElGamal_Ciphertext> tournament = new tournament_tree<>(new ArrayList<>(input), (first, second) -> {
+            boolean [] wins = new boolean[first.size()];
+            for (int i = 0; i < wins.length; i++) {
                 writeBoolean(true);
-
-                // Originally arr[j] > arr[j + 1]
-                if (!this.Protocol4(arr.get(j), arr.get(j + 1))) {
-                    // swap temp and arr[i]
-                    temp = arr.get(j);
-                    arr.set(j, arr.get(j + 1));
-                    arr.set(j + 1, temp);
-                }
+                // The smaller value wins, Protocol 4 returns first >= second
+                wins[i] = !this.Protocol4(first.get(i), second.get(i));
             }
-        }
-
-        // Get last K-elements of arr!!
-        for (int i = 0; i < k; i++) {
-            min.add(arr.get(arr.size() - 1 - i));
-        }
+            return wins;
+        });
+        List<ElGamal_Ciphertext> min = tournament.top(k);
 
         // Close Bob
         writeBoolean(false);
+        flush();
         return min;
     }
 }
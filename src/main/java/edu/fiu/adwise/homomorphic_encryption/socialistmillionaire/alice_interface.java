@@ -55,6 +55,19 @@ public interface alice_interface {
     boolean Protocol2(BigInteger x, BigInteger y)
             throws IOException, ClassNotFoundException, HomomorphicException;
 
+    /**
+     * Runs a batch of independent Protocol 2 comparisons over a single set of round trips.
+     *
+     * @param x the first encrypted integer of each comparison.
+     * @param y the second encrypted integer of each comparison, same length as x.
+     * @return element i is true if x[i] is greater than or equal to y[i], false otherwise.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+     * @throws HomomorphicException if a homomorphic encryption error occurs.
+     */
+    boolean [] Protocol2Batch(BigInteger [] x, BigInteger [] y)
+            throws IOException, ClassNotFoundException, HomomorphicException;
+
     /**
      * Performs division on an encrypted integer.
      *
@@ -127,4 +140,12 @@ public interface alice_interface {
      * @throws IOException if an I/O error occurs.
      */
     void set_socket(Socket socket) throws IOException;
+
+    /**
+     * Sets the connection for communication, e.g. a {@link loopback_transport} to Bob in the same JVM.
+     *
+     * @param connection the connection to use for communication.
+     * @throws IOException if an I/O error occurs.
+     */
+    void set_transport(transport connection) throws IOException;
 }
@@ -46,6 +46,12 @@ public class alice_joye extends alice {
      * @throws ClassNotFoundException if a class cannot be found during deserialization.
      */
     public boolean Protocol2(BigInteger x, BigInteger y) throws IOException, HomomorphicException, ClassNotFoundException {
+        try (protocol_metrics.timer ignored = time("Protocol2")) {
+            return run_Protocol2(x, y);
+        }
+    }
+
+    private boolean run_Protocol2(BigInteger x, BigInteger y) throws IOException, HomomorphicException, ClassNotFoundException {
         BigInteger big_m;
         BigInteger u_l;
         BigInteger little_m_l;
@@ -121,6 +127,12 @@ public class alice_joye extends alice {
      * @throws ClassNotFoundException if a class cannot be found during deserialization.
      */
     public boolean Protocol1(BigInteger x) throws HomomorphicException, IOException, ClassNotFoundException {
+        try (protocol_metrics.timer ignored = time("Protocol1")) {
+            return run_Protocol1(x);
+        }
+    }
+
+    private boolean run_Protocol1(BigInteger x) throws HomomorphicException, IOException, ClassNotFoundException {
         BigInteger [] Encrypted_Y = get_encrypted_bits();
         BigInteger [] XOR = encrypted_xor(x, Encrypted_Y);
         // Remember that XOR.length is t-bits, x (xor) y is t-bits, so x and y should be t-bits too
@@ -154,10 +166,10 @@ public class alice_joye extends alice {
         int start_bit_position_y = Math.max(0, xor_bit_length - Encrypted_Y.length);
         // C has the size floor(t/2) + 1, where 1 is for c_{-1}
         BigInteger [] C = new BigInteger[set_l.size() + 1];
+        BigInteger [] xor_prefix = DGKOperations.prefix_sum(XOR, dgk_public);
 
         for (int i = 0; i < XOR.length; i++) {
             BigInteger temp;
-            BigInteger sum;
             int x_bit = NTL.bit(x, i - start_bit_position_x);
             BigInteger y_bit;
 
@@ -178,8 +190,7 @@ public class alice_joye extends alice {
                 temp = DGKOperations.add_plaintext(second_term, first_term, dgk_public);
 
                 // Now add with C_i
-                sum = DGKOperations.sum(XOR, dgk_public, i);
-                temp = DGKOperations.add(temp, sum, dgk_public);
+                temp = DGKOperations.add(temp, xor_prefix[i], dgk_public);
                 // Blind the term and save it
                 temp = DGKOperations.multiply(temp, rnd.nextInt(dgk_public.getL()) + 1, dgk_public);
                 C[set_l_index] = temp;
@@ -187,8 +198,7 @@ public class alice_joye extends alice {
             }
         }
         // Use the same trick as from Veugen, including blinding
-        C[set_l.size()] = DGKOperations.sum(XOR, dgk_public);
-        C[set_l.size()] = DGKOperations.add_plaintext(C[set_l.size()], delta_a, dgk_public);
+        C[set_l.size()] = DGKOperations.add_plaintext(xor_prefix[XOR.length], delta_a, dgk_public);
         C[set_l.size()] = DGKOperations.multiply(C[set_l.size()], rnd.nextInt(dgk_public.getL()) + 1, dgk_public);
         return C;
     }
@@ -251,7 +261,7 @@ public class alice_joye extends alice {
 
         List<Integer> set_l = form_set_l(x, delta_a, XOR);
         BigInteger [] C = compute_c(x, Encrypted_Y, XOR, delta_a, set_l);
-        C = shuffle_bits(C);
+        C = shuffle_bits(rerandomize_bits(C));
         writeObject(C);
 
         // Get Delta B from Bob
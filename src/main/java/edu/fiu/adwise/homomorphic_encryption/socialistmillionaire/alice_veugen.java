@@ -46,6 +46,12 @@ public class alice_veugen extends alice {
      * @throws HomomorphicException if an error occurs during homomorphic operations.
      */
     public boolean Protocol1(BigInteger x) throws ClassNotFoundException, IOException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol1")) {
+            return run_Protocol1(x);
+        }
+    }
+
+    private boolean run_Protocol1(BigInteger x) throws ClassNotFoundException, IOException, HomomorphicException {
         return Protocol3(x, rnd.nextInt(2));
     }
 
@@ -76,6 +82,7 @@ public class alice_veugen extends alice {
 
         // Step 3: delta A is computed on initialization, it is 0 or 1.
         C = new BigInteger [XOR.length + 1];
+        BigInteger [] xor_prefix = DGKOperations.prefix_sum(XOR, dgk_public);
         int start_bit_position_x = Math.max(0, XOR.length - x.bitLength());
         int start_bit_position_y = Math.max(0, XOR.length - Encrypted_Y.length);
 
@@ -94,7 +101,7 @@ public class alice_veugen extends alice {
 
             // i in L, since bit x_i is equal to delta_A
             if(x_bit == deltaA) {
-                C[i] = DGKOperations.sum(XOR, dgk_public, i);
+                C[i] = xor_prefix[i];
                 if (deltaA == 0) {
                     // Step 4 = [1] - [y_i bit] + [c_i]
                     // Step 4 = [c_i] - [y_i bit] + [1]
@@ -117,11 +124,10 @@ public class alice_veugen extends alice {
         }
 
         // This is c_{-1}
-        C[XOR.length] = DGKOperations.sum(XOR, dgk_public);
-        C[XOR.length] = DGKOperations.add_plaintext(C[XOR.length], deltaA, dgk_public);
+        C[XOR.length] = DGKOperations.add_plaintext(xor_prefix[XOR.length], deltaA, dgk_public);
 
         // Shuffle and send bits!
-        C = shuffle_bits(C);
+        C = shuffle_bits(rerandomize_bits(C));
         writeObject(C);
 
         // Run Extra steps to help Alice decrypt Delta
@@ -226,6 +232,7 @@ public class alice_veugen extends alice {
 
         // Step H: See Optimization 2
         C = new BigInteger[encAlphaXORBeta.length + 1];
+        BigInteger [] w_prefix = DGKOperations.prefix_sum(w, dgk_public);
 
         for (int i = 0; i < encAlphaXORBeta.length; i++) {
             int alpha_bit = NTL.bit(alpha, i - start_bit_position_x);
@@ -244,7 +251,7 @@ public class alice_veugen extends alice {
             }
             else {
                 exponent = alpha_hat_bit - alpha_bit;
-                C[i] = DGKOperations.multiply(DGKOperations.sum(w, dgk_public, i), 3, dgk_public);
+                C[i] = DGKOperations.multiply(w_prefix[i], 3, dgk_public);
                 C[i] = DGKOperations.add_plaintext(C[i], 1 - (2L * deltaA), dgk_public);
                 C[i] = DGKOperations.add(C[i], DGKOperations.multiply(d, exponent, dgk_public), dgk_public);
                 C[i] = DGKOperations.subtract(C[i], beta_bit, dgk_public);
@@ -256,11 +263,11 @@ public class alice_veugen extends alice {
         C[encAlphaXORBeta.length] = DGKOperations.sum(encAlphaXORBeta, dgk_public);
         C[encAlphaXORBeta.length] = DGKOperations.add_plaintext(C[encAlphaXORBeta.length], deltaA, dgk_public);
 
-        // Step I: SHUFFLE BITS AND BLIND WITH EXPONENT
+        // Step I: SHUFFLE BITS AND BLIND WITH EXPONENT in [1, u - 1], since u would cancel C_i
         for (int i = 0; i < C.length; i++) {
-            C[i] = DGKOperations.multiply(C[i], rnd.nextInt(dgk_public.getU().intValue()) + 1, dgk_public);
+            C[i] = DGKOperations.multiply(C[i], rnd.nextInt(dgk_public.getU().intValue() - 1) + 1, dgk_public);
         }
-        C = shuffle_bits(C);
+        C = shuffle_bits(rerandomize_bits(C));
         writeObject(C);
 
         // Run Extra steps to help Alice decrypt Delta
@@ -280,6 +287,13 @@ public class alice_veugen extends alice {
      */
     public boolean Protocol2(BigInteger x, BigInteger y)
             throws IOException, ClassNotFoundException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol2")) {
+            return run_Protocol2(x, y);
+        }
+    }
+
+    private boolean run_Protocol2(BigInteger x, BigInteger y)
+            throws IOException, ClassNotFoundException, HomomorphicException {
         int deltaB;
         int x_leq_y;
         int deltaA = rnd.nextInt(2);
@@ -393,10 +407,10 @@ public class alice_veugen extends alice {
 
             // Step 7: Compute [[x >= y]]
             if(r.compareTo(paillier_public.getN().subtract(BigInteger.ONE).divide(TWO)) < 0) {
-                result = PaillierCipher.subtract(zeta_one, PaillierCipher.encrypt(r.divide(powL), paillier_public), paillier_public);
+                result = PaillierCipher.subtract_plaintext(zeta_one, r.divide(powL), paillier_public);
             }
             else {
-                result = PaillierCipher.subtract(zeta_two, PaillierCipher.encrypt(r.divide(powL), paillier_public), paillier_public);
+                result = PaillierCipher.subtract_plaintext(zeta_two, r.divide(powL), paillier_public);
             }
             result = PaillierCipher.subtract(result, alpha_lt_beta, paillier_public);
         }
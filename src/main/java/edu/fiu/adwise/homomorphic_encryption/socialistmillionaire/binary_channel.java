@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamal_Ciphertext;
+import org.apache.commons.io.serialization.ValidatingObjectInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Length-prefixed binary framing for the messages between Alice and Bob, used instead of
+ * Java serialization when both parties agree to it in set_transport.
+ * Every frame starts with a one byte tag. Booleans and integers are written as is, and
+ * BigIntegers, arrays of BigIntegers and ElGamal ciphertexts are written as fixed-width
+ * big-endian two's complement values. The width is set by the largest value of the frame,
+ * so a batch of ciphertexts is as wide as the key modulus allows, while a batch of bits is one byte wide.
+ * Any other object, such as the public keys, is written as a frame holding its Java serialization,
+ * which is validated against the same classes as the object streams.
+ * <p>
+ * The lengths of a frame come from the other party, so they are checked before anything is allocated:
+ * a value is at most as wide as the largest key modulus, a frame holds at most
+ * {@link socialist_millionaires#getMaxBatch()} values, and serialized objects are read as their bytes arrive.
+ * <p>
+ * Writes are buffered, and the buffer is sent when the channel reads, which is when a protocol round ends.
+ * A party that writes last in a protocol must call {@link #flush()}.
+ */
+final class binary_channel {
+
+    private static final byte BOOLEAN = 0;
+    private static final byte INT = 1;
+    private static final byte BIG_INTEGER = 2;
+    private static final byte BIG_INTEGER_ARRAY = 3;
+    private static final byte BIG_INTEGER_MATRIX = 4;
+    private static final byte EL_GAMAL_CIPHERTEXT = 5;
+    private static final byte OBJECT = 6;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The largest serialized object accepted, the size limit of a Java array. */
+    private static final long MAX_FRAME = Integer.MAX_VALUE - 8;
+
+    private final DataOutputStream out;
+    private final DataInputStream in;
+
+    /** Sets the classes allowed in serialized object frames. */
+    private final Consumer<ValidatingObjectInputStream> validator;
+
+    /** The party using this channel, its keys and max batch bound the frames it accepts. */
+    private final socialist_millionaires party;
+
+    /** If there are buffered writes that the other party has not received yet. */
+    private boolean pending = false;
+
+    /**
+     * @param connection the connection to the other party.
+     * @param validator sets the classes allowed in serialized object frames.
+     * @param party the party using this channel.
+     * @throws IOException if the streams of the connection cannot be opened.
+     */
+    binary_channel(transport connection, Consumer<ValidatingObjectInputStream> validator,
+                   socialist_millionaires party) throws IOException {
+        this(connection.getInputStream(), connection.getOutputStream(), validator, party);
+    }
+
+    /**
+     * @param input the stream of frames from the other party, e.g. a lane of a {@link multiplexer}.
+     * @param output the stream of frames to the other party.
+     * @param validator sets the classes allowed in serialized object frames.
+     * @param party the party using this channel.
+     */
+    binary_channel(InputStream input, OutputStream output, Consumer<ValidatingObjectInputStream> validator,
+                   socialist_millionaires party) {
+        this.out = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+        this.in = new DataInputStream(new BufferedInputStream(input, BUFFER_SIZE));
+        this.validator = validator;
+        this.party = party;
+    }
+
+    /**
+     * Sends the buffered frames to the other party.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    void flush() throws IOException {
+        if (pending) {
+            out.flush();
+            pending = false;
+        }
+    }
+
+    /**
+     * @param value the boolean to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    void writeBoolean(boolean value) throws IOException {
+        out.writeByte(BOOLEAN);
+        out.writeBoolean(value);
+        pending = true;
+    }
+
+    /**
+     * @param value the integer to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    void writeInt(int value) throws IOException {
+        out.writeByte(INT);
+        out.writeInt(value);
+        pending = true;
+    }
+
+    /**
+     * Writes an object in the frame matching its type.
+     *
+     * @param o the object to write.
+     * @throws IOException if an I/O error occurs.
+     */
+    void writeObject(Object o) throws IOException {
+        if (o instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            write_fixed(new BigInteger[] { (BigInteger) o });
+        }
+        else if (o instanceof BigInteger[] && !has_null((BigInteger []) o)) {
+            BigInteger [] values = (BigInteger []) o;
+            out.writeByte(BIG_INTEGER_ARRAY);
+            out.writeInt(values.length);
+            write_fixed(values);
+        }
+        else if (o instanceof BigInteger[][] && !has_null((BigInteger [][]) o)) {
+            BigInteger [][] rows = (BigInteger [][]) o;
+            out.writeByte(BIG_INTEGER_MATRIX);
+            out.writeInt(rows.length);
+            for (BigInteger [] row : rows) {
+                out.writeInt(row.length);
+                write_fixed(row);
+            }
+        }
+        else if (o instanceof ElGamal_Ciphertext) {
+            ElGamal_Ciphertext ciphertext = (ElGamal_Ciphertext) o;
+            out.writeByte(EL_GAMAL_CIPHERTEXT);
+            write_fixed(new BigInteger[] { ciphertext.getA(), ciphertext.getB() });
+        }
+        else {
+            ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+            try (ObjectOutputStream object_out = new ObjectOutputStream(serialized)) {
+                object_out.writeObject(o);
+            }
+            out.writeByte(OBJECT);
+            out.writeInt(serialized.size());
+            serialized.writeTo(out);
+        }
+        pending = true;
+    }
+
+    /**
+     * @return the boolean read.
+     * @throws IOException if an I/O error occurs or the next frame is not a boolean.
+     */
+    boolean readBoolean() throws IOException {
+        read_tag(BOOLEAN);
+        return in.readBoolean();
+    }
+
+    /**
+     * @return the integer read.
+     * @throws IOException if an I/O error occurs or the next frame is not an integer.
+     */
+    int readInt() throws IOException {
+        read_tag(INT);
+        return in.readInt();
+    }
+
+    /**
+     * @return the object read.
+     * @throws IOException if an I/O error occurs or the frame is invalid.
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+     */
+    Object readObject() throws IOException, ClassNotFoundException {
+        flush();
+        byte tag = in.readByte();
+        switch (tag) {
+            case BIG_INTEGER:
+                return read_fixed(1)[0];
+            case BIG_INTEGER_ARRAY:
+                return read_fixed(read_count(party.getMaxBatch()));
+            case BIG_INTEGER_MATRIX:
+                // The values of all rows count toward the max batch
+                int remaining = party.getMaxBatch();
+                BigInteger [][] rows = new BigInteger[read_count(remaining)][];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = read_fixed(read_count(remaining));
+                    remaining -= rows[i].length;
+                }
+                return rows;
+            case EL_GAMAL_CIPHERTEXT:
+                BigInteger [] ciphertext = read_fixed(2);
+                return new ElGamal_Ciphertext(ciphertext[0], ciphertext[1]);
+            case OBJECT:
+                // readNBytes grows the array as the bytes arrive, so a forged length cannot allocate it all at once
+                int length = read_length();
+                byte [] serialized = in.readNBytes(length);
+                if (serialized.length != length) {
+                    throw new EOFException("Connection closed in an object frame of " + length + " bytes");
+                }
+                try (ValidatingObjectInputStream object_in =
+                             new ValidatingObjectInputStream(new ByteArrayInputStream(serialized))) {
+                    validator.accept(object_in);
+                    return object_in.readObject();
+                }
+            default:
+                throw new StreamCorruptedException("Expected an object, found frame " + tag);
+        }
+    }
+
+    /**
+     * Writes the width, then every value in two's complement, sign extended to the width.
+     */
+    private void write_fixed(BigInteger [] values) throws IOException {
+        int width = 1;
+        for (BigInteger value : values) {
+            width = Math.max(width, value.bitLength() / 8 + 1);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact((long) values.length * width));
+        for (BigInteger value : values) {
+            byte [] bytes = value.toByteArray();
+            byte sign = (byte) (value.signum() < 0 ? -1 : 0);
+            for (int i = bytes.length; i < width; i++) {
+                buffer.put(sign);
+            }
+            buffer.put(bytes);
+        }
+        out.writeInt(width);
+        out.write(buffer.array());
+    }
+
+    /**
+     * Reads the width, then count values of that width.
+     * The values are read one at a time, so only what the other party really sent is buffered.
+     */
+    private BigInteger [] read_fixed(int count) throws IOException {
+        int width = read_length();
+        if (width == 0 || width > party.max_wire_width()) {
+            throw new StreamCorruptedException("Invalid frame of " + count + " values of " + width + " bytes");
+        }
+        byte [] value = new byte[width];
+        BigInteger [] values = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            in.readFully(value);
+            values[i] = new BigInteger(value);
+        }
+        return values;
+    }
+
+    /**
+     * Reads the number of values of an array frame.
+     *
+     * @param max the largest number of values accepted.
+     */
+    private int read_count(int max) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new StreamCorruptedException("Invalid frame of " + count + " values, at most " + max + " are accepted");
+        }
+        return count;
+    }
+
+    private int read_length() throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME) {
+            throw new StreamCorruptedException("Invalid length: " + length);
+        }
+        return length;
+    }
+
+    private void read_tag(byte expected) throws IOException {
+        flush();
+        byte tag = in.readByte();
+        if (tag != expected) {
+            throw new StreamCorruptedException("Expected frame " + expected + ", found frame " + tag);
+        }
+    }
+
+    private static boolean has_null(BigInteger [] values) {
+        for (BigInteger value : values) {
+            if (value == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean has_null(BigInteger [][] rows) {
+        for (BigInteger [] row : rows) {
+            if (row == null || has_null(row)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
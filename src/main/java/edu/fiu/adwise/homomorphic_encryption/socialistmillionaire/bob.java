@@ -5,11 +5,12 @@
 package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.net.Socket;
 import java.security.KeyPair;
-import javax.net.ssl.SSLSocket;
 
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamal_Ciphertext;
 import org.apache.commons.io.serialization.ValidatingObjectInputStream;
@@ -18,6 +19,7 @@ import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierCipher;
@@ -115,9 +117,49 @@ public class bob extends socialist_millionaires implements bob_interface
 	 * @throws NullPointerException if the provided socket is null.
 	 */
 	public void set_socket(Socket socket) throws IOException {
-		this.toAlice = new ObjectOutputStream(socket.getOutputStream());
-		this.fromAlice = new ValidatingObjectInputStream(socket.getInputStream());
-		this.fromAlice.accept(
+		set_transport(new socket_transport(socket));
+	}
+
+	/**
+	 * Sets the connection to Alice, e.g. a socket or a {@link loopback_transport} to Alice in the same JVM.
+	 *
+	 * @param connection the connection to use for communication.
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void set_transport(transport connection) throws IOException {
+		connection = metrics.count(connection);
+		if (negotiate_wire(connection)) {
+			this.channel = new binary_channel(connection, this::accept_classes, this);
+		}
+		else {
+			this.toAlice = new ObjectOutputStream(connection.getOutputStream());
+			this.fromAlice = new ValidatingObjectInputStream(connection.getInputStream());
+			accept_classes(this.fromAlice);
+		}
+
+		// Set TLS flag if the connection is a TLS socket
+		if (connection.isTLS()) {
+			this.tls_socket_in_use = true;
+		}
+	}
+
+	/**
+	 * Uses a lane of a {@link multiplexer} to communicate with Alice, with the binary wire protocol.
+	 *
+	 * @param input the stream of frames from Alice.
+	 * @param output the stream of frames to Alice.
+	 */
+	void set_lane(InputStream input, OutputStream output) {
+		this.channel = new binary_channel(input, output, this::accept_classes, this);
+	}
+
+	/**
+	 * Sets the classes Bob accepts from Alice when reading serialized objects.
+	 *
+	 * @param input the stream reading objects from Alice.
+	 */
+	private void accept_classes(ValidatingObjectInputStream input) {
+		input.accept(
 				java.math.BigInteger.class,
 				java.lang.Number.class,
 				java.util.HashMap.class,
@@ -125,18 +167,18 @@ public class bob extends socialist_millionaires implements bob_interface
 				ElGamal_Ciphertext.class,
 				java.lang.String.class
 		);
-		this.fromAlice.accept("[B");
-		this.fromAlice.accept("[L*");
-
-		// Set TLS flag if the socket is an instance of SSLSocket
-		if (socket instanceof SSLSocket) {
-			this.tls_socket_in_use = true;
-		}
+		input.accept("[B");
+		input.accept("[L*");
+		// Batches of encrypted bit vectors, see Protocol2Batch
+		input.accept("[[Ljava.math.BigInteger;");
 	}
 
 	/**
 	 * Sorts a list of encrypted numbers using Protocol 2.
-	 * This method repeatedly invokes Protocol 2 until the sorting is complete.
+	 * This method repeatedly invokes Protocol 2, or Protocol 2 on a batch, until the sorting is complete.
+	 * Alice sends one boolean before each comparison, as in earlier versions of this library.
+	 * Only with the binary wire protocol, which both parties must support, a second boolean says if
+	 * the next comparisons come as one batch.
 	 *
 	 * @throws IOException if an I/O error occurs.
 	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
@@ -147,8 +189,14 @@ public class bob extends socialist_millionaires implements bob_interface
 		long start_time = System.nanoTime();
 		int counter = 0;
 		while(readBoolean()) {
-			++counter;
-			this.Protocol2();
+			// Alice announces if the next comparisons come as one batch
+			if (isBinaryWire() && readBoolean()) {
+				counter += this.Protocol2Batch().length;
+			}
+			else {
+				++counter;
+				this.Protocol2();
+			}
 		}
         logger.info("Protocol 2 was used {} times!", counter);
         logger.info("Protocol 2 completed in {} seconds!", (System.nanoTime() - start_time) / BILLION);
@@ -162,6 +210,12 @@ public class bob extends socialist_millionaires implements bob_interface
 	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
 	 */
 	public void encrypted_equals() throws IOException, HomomorphicException, ClassNotFoundException {
+		try (protocol_metrics.timer ignored = time("encrypted_equals")) {
+			run_encrypted_equals();
+		}
+	}
+
+	private void run_encrypted_equals() throws IOException, HomomorphicException, ClassNotFoundException {
 		// Receive x from Alice
 		Object o = readObject();
 		BigInteger y;
@@ -185,21 +239,23 @@ public class bob extends socialist_millionaires implements bob_interface
 
 	/**
 	 * Encrypts the bits of a given plaintext value.
+	 * The bits are encrypted in parallel with {@link DGKOperations#encrypt(long[], DGKPublicKey)}.
 	 *
 	 * @param y the plaintext value to encrypt.
 	 * @return an array of encrypted bits.
 	 * @throws HomomorphicException if an error occurs during homomorphic operations.
 	 */
 	public BigInteger [] encrypt_bits(BigInteger y) throws HomomorphicException {
-		BigInteger [] Encrypted_Y = new BigInteger[y.bitLength()];
-		for (int i = 0; i < y.bitLength(); i++) {
-			Encrypted_Y[i] = DGKOperations.encrypt(NTL.bit(y, i), dgk_public);
+		long [] bits = new long[y.bitLength()];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = NTL.bit(y, i);
 		}
-		return Encrypted_Y;
+		return DGKOperations.encrypt(bits, dgk_public);
 	}
 
 	/**
 	 * Computes the delta value (deltaB) for Bob based on the decrypted values in C.
+	 * The values are decrypted in parallel with {@link DGKOperations#decrypt(BigInteger[], DGKPrivateKey)}.
 	 *
 	 * @param C the array of encrypted values.
 	 * @return the computed delta value (deltaB).
@@ -207,8 +263,8 @@ public class bob extends socialist_millionaires implements bob_interface
 	 */
 	public int compute_delta_b(BigInteger [] C) throws HomomorphicException {
 		int deltaB = 0;
-		for (BigInteger C_i : C) {
-			long value = DGKOperations.decrypt(C_i, dgk_private);
+		// Decrypt every C_i (in parallel), then check them all
+		for (long value : DGKOperations.decrypt(C, dgk_private)) {
 			if (value == 0) {
 				deltaB = 1;
 			}
@@ -233,6 +289,13 @@ public class bob extends socialist_millionaires implements bob_interface
 	 */
 	public boolean Protocol1(BigInteger y)
 			throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
+		try (protocol_metrics.timer ignored = time("Protocol1")) {
+			return run_Protocol1(y);
+		}
+	}
+
+	private boolean run_Protocol1(BigInteger y)
+			throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
 		Object o;
 		BigInteger [] C;
 		BigInteger temp;
@@ -301,10 +364,11 @@ public class bob extends socialist_millionaires implements bob_interface
 		// Alice sends the encrypted answer...
 		// For now, Bob doesn't need to know the decryption, so Alice did blind it.
 		// So decrypt and return the value.
-		o = fromAlice.readObject();
+		o = readObject();
 		if (o instanceof BigInteger) {
 			delta = BigInteger.valueOf(DGKOperations.decrypt((BigInteger) o, dgk_private));
 			writeObject(delta);
+			flush();
 			return delta.equals(BigInteger.ONE);
 		}
 		else {
@@ -325,7 +389,7 @@ public class bob extends socialist_millionaires implements bob_interface
 		Object x;
 		int answer = -1;
 
-		x = fromAlice.readObject();
+		x = readObject();
 		if (x instanceof BigInteger) {
 			if(isDGK) {
 				long decrypt = DGKOperations.decrypt((BigInteger) x, dgk_private);
@@ -345,7 +409,7 @@ public class bob extends socialist_millionaires implements bob_interface
 				answer = PaillierCipher.decrypt((BigInteger) x, paillier_private).intValue();
 			}
 			writeInt(answer);
-
+			flush();
 		}
 		else {
 			throw new IllegalArgumentException("Protocol 4, Step 8 Failed " + x.getClass().getName());
@@ -370,6 +434,13 @@ public class bob extends socialist_millionaires implements bob_interface
 	 */
 	public boolean Protocol2()
 			throws ClassNotFoundException, IOException, HomomorphicException {
+		try (protocol_metrics.timer ignored = time("Protocol2")) {
+			return run_Protocol2();
+		}
+	}
+
+	private boolean run_Protocol2()
+			throws ClassNotFoundException, IOException, HomomorphicException {
 		// Step 1: Receive z from Alice
 		// Get the input and output streams
 		Object x;
@@ -382,7 +453,7 @@ public class bob extends socialist_millionaires implements bob_interface
 		}
 
 		//Step 1: get [[z]] from Alice
-		x = fromAlice.readObject();
+		x = readObject();
 		if (x instanceof BigInteger) {
 			z = (BigInteger) x;
 		}
@@ -409,6 +480,79 @@ public class bob extends socialist_millionaires implements bob_interface
 		return decrypt_protocol_two();
 	}
 
+	/**
+	 * Answers a batch of Protocol 2 comparisons sent by {@link alice#Protocol2Batch(BigInteger[], BigInteger[])}.
+	 * Bob receives every [[z]] at once, and the steps of {@link #Protocol2()} are done on every comparison
+	 * in parallel on the {@link BatchExecutor} pool, each message holding the values of the whole batch.
+	 *
+	 * @return element i is {@code true} if comparison i indicates {@code x >= y}, {@code false} otherwise.
+	 * @throws IOException if an I/O error occurs during communication.
+	 * @throws ClassNotFoundException if a class cannot be found during deserialization.
+	 * @throws HomomorphicException if an error occurs during homomorphic operations.
+	 */
+	public boolean [] Protocol2Batch()
+			throws ClassNotFoundException, IOException, HomomorphicException {
+		try (protocol_metrics.timer ignored = time("Protocol2Batch")) {
+			return run_Protocol2Batch();
+		}
+	}
+
+	private boolean [] run_Protocol2Batch()
+			throws ClassNotFoundException, IOException, HomomorphicException {
+		if(isDGK) {
+			throw new HomomorphicException("COMPARING ENCRYPTED DGK VALUES WITH PROTOCOL 2 IS NOT ALLOWED," +
+					" PLEASE USE PROTOCOL 4!");
+		}
+
+		// Step 1: get every [[z]] from Alice, [[z]] = [[x - y + 2^l + r]]
+		Object x = readObject();
+		if (!(x instanceof BigInteger[])) {
+			throw new IllegalArgumentException("Bob Step 1: Invalid Object!" + x.getClass().getName());
+		}
+		BigInteger [] z = PaillierCipher.decrypt((BigInteger []) x, paillier_private);
+		int n = z.length;
+
+		// Step 2: compute Beta = z (mod 2^l), and send its bits with [[z/2^l]] of Step 5
+		BigInteger [][] bits = new BigInteger[n][];
+		BigInteger [] zdiv2L = new BigInteger[n];
+		BatchExecutor.run(n, i -> {
+			bits[i] = encrypt_bits(NTL.POSMOD(z[i], powL));
+			zdiv2L[i] = PaillierCipher.encrypt(z[i].divide(powL), paillier_public);
+		});
+		writeObject(bits);
+		writeObject(zdiv2L);
+
+		// Step 6 of Protocol 1: check if one of the numbers in every C is decrypted to 0
+		BigInteger [][] C = read_batch(readObject(), BigInteger[][].class, n, "Protocol 2 Batch, Step 6: C");
+		long [] deltaB = new long[n];
+		BatchExecutor.run(n, i -> deltaB[i] = compute_delta_b(C[i]));
+
+		// Steps 7 and 8 of Protocol 1, see decrypt_protocol_one
+		writeObject(DGKOperations.encrypt(deltaB, dgk_public));
+		long [] delta = DGKOperations.decrypt(
+				read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch, Step 8: delta"), dgk_private);
+		BigInteger [] plain_delta = new BigInteger[n];
+		for (int i = 0; i < n; i++) {
+			plain_delta[i] = BigInteger.valueOf(delta[i]);
+		}
+		writeObject(plain_delta);
+
+		// Step 8 (UNOFFICIAL): Alice needs the answer for every [[x >= y]]
+		BigInteger [] answer = PaillierCipher.decrypt(
+				read_batch(readObject(), BigInteger[].class, n, "Protocol 2 Batch, Step 8: [[x >= y]]"), paillier_private);
+		writeObject(answer);
+		flush();
+		boolean [] x_geq_y = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			// IF SOMETHING HAPPENS...GET TO POST MORTEM HERE
+			if (!answer[i].equals(BigInteger.ZERO) && !answer[i].equals(BigInteger.ONE)) {
+				throw new IllegalArgumentException("Invalid Comparison result --> " + answer[i]);
+			}
+			x_geq_y[i] = answer[i].equals(BigInteger.ONE);
+		}
+		return x_geq_y;
+	}
+
 
 	/**
 	 *  See the paper "Correction of a Secure Comparison Protocol for Encrypted Integers in IEEE WIFS 2012
@@ -422,13 +566,21 @@ public class bob extends socialist_millionaires implements bob_interface
 	 */
 	public void multiplication() 
 			throws IOException, ClassNotFoundException, HomomorphicException
+	{
+		try (protocol_metrics.timer ignored = time("multiplication")) {
+			run_multiplication();
+		}
+	}
+
+	private void run_multiplication() 
+			throws IOException, ClassNotFoundException, HomomorphicException
 	{
 		Object in;
 		BigInteger x_prime;
 		BigInteger y_prime;
 		
 		// Step 2
-		in = fromAlice.readObject();
+		in = readObject();
 		if(in instanceof BigInteger) {
 			x_prime = (BigInteger) in;
 		}
@@ -436,7 +588,7 @@ public class bob extends socialist_millionaires implements bob_interface
 			throw new IllegalArgumentException("Didn't get [[x']] from Alice: " + in.getClass().getName());
 		}
 		
-		in = fromAlice.readObject();
+		in = readObject();
 		if(in instanceof BigInteger) {
 			y_prime = (BigInteger) in;
 		}
@@ -457,6 +609,7 @@ public class bob extends socialist_millionaires implements bob_interface
 			// To avoid myself throwing errors of encryption must be [0, N), mod it now!
 			writeObject(PaillierCipher.encrypt(x_prime.multiply(y_prime).mod(paillier_public.getN()), paillier_public));
 		}
+		flush();
 	}
 
 	/**
@@ -472,10 +625,18 @@ public class bob extends socialist_millionaires implements bob_interface
 	 */
 	public void division(long divisor) 
 			throws ClassNotFoundException, IOException, HomomorphicException
+	{
+		try (protocol_metrics.timer ignored = time("division")) {
+			run_division(divisor);
+		}
+	}
+
+	private void run_division(long divisor) 
+			throws ClassNotFoundException, IOException, HomomorphicException
 	{
 		BigInteger c;
 		BigInteger z;
-		Object alice = fromAlice.readObject();
+		Object alice = readObject();
 		if(alice instanceof BigInteger)	{
 			z = (BigInteger) alice;
 		}
@@ -505,6 +666,7 @@ public class bob extends socialist_millionaires implements bob_interface
 			c = PaillierCipher.encrypt(c, paillier_public);
 		}
 		writeObject(c);
+		flush();
 		/*
 		 *  Unlike Comparison, it is decided Bob shouldn't know the answer.
 		 *  This is because Bob KNOWS d, and can decrypt [x/d]
@@ -543,6 +705,6 @@ public class bob extends socialist_millionaires implements bob_interface
 		else {
 			writeObject(BigInteger.ZERO);
 		}
-		toAlice.flush();
+		flush();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bob's side of {@link alice_async}: serves the operations Alice sends on every lane of one connection.
+ * Each lane has its own Bob, created by a factory that shares the key pairs,
+ * and a thread that reads the code of the next operation and runs Bob's side of it.
+ */
+public class bob_async implements Runnable, Closeable {
+    private static final Logger logger = LogManager.getLogger(bob_async.class);
+
+    /** Ends the lane. */
+    static final int CLOSE = 0;
+
+    /** {@link alice#Protocol2(BigInteger, BigInteger)} */
+    static final int PROTOCOL_2 = 1;
+
+    /** {@link alice#multiplication(BigInteger, BigInteger)} */
+    static final int MULTIPLICATION = 2;
+
+    /** {@link alice#division(BigInteger, long)}, the divisor follows the code. */
+    static final int DIVISION = 3;
+
+    /** {@link alice#encrypted_equals(BigInteger, BigInteger)} */
+    static final int ENCRYPTED_EQUALS = 4;
+
+    private final transport connection;
+
+    /** The metrics shared by every lane, the bytes are counted on the connection. */
+    private final protocol_metrics metrics = new protocol_metrics();
+    private final Supplier<? extends bob> factory;
+
+    /** The number of operations served on all lanes. */
+    private final AtomicLong operations = new AtomicLong();
+
+    /** The Bob of each lane, once Alice asked for the lanes. */
+    private volatile bob [] bobs = new bob[0];
+
+    private volatile long start_time = 0;
+    private volatile long end_time = 0;
+
+    /**
+     * @param socket the socket connected to an {@link alice_async}.
+     * @param factory creates the Bob of each lane, e.g. {@code () -> new bob(paillier, dgk)}.
+     *                The Bobs can share their key pairs, including the DGK lookup table.
+     */
+    public bob_async(Socket socket, Supplier<? extends bob> factory) {
+        this(new socket_transport(socket), factory);
+    }
+
+    /**
+     * @param connection the connection to an {@link alice_async}, e.g. a {@link loopback_transport}.
+     * @param factory creates the Bob of each lane, e.g. {@code () -> new bob(paillier, dgk)}.
+     */
+    public bob_async(transport connection, Supplier<? extends bob> factory) {
+        this.connection = metrics.count(connection);
+        this.factory = factory;
+    }
+
+    /**
+     * Serves Alice until she closes the session, logging any error.
+     */
+    public void run() {
+        try {
+            serve();
+        }
+        catch (IOException | InterruptedException e) {
+            logger.error("Asynchronous session failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sets up the lanes Alice asks for, sends her the public keys and serves her operations
+     * until she closes the session.
+     *
+     * @throws IOException if an I/O error occurs.
+     * @throws InterruptedException if interrupted while waiting for the lanes.
+     */
+    public void serve() throws IOException, InterruptedException {
+        start_time = System.nanoTime();
+        int count = new DataInputStream(connection.getInputStream()).readInt();
+        try (multiplexer lanes = new multiplexer(connection, count)) {
+            bob [] bobs = new bob[count];
+            for (int i = 0; i < count; i++) {
+                bobs[i] = factory.get();
+                bobs[i].setMetrics(metrics);
+                bobs[i].set_lane(lanes.input(i), lanes.output(i));
+            }
+            this.bobs = bobs;
+            bobs[0].sendPublicKeys();
+
+            Thread [] workers = new Thread[count];
+            for (int i = 0; i < count; i++) {
+                bob lane = bobs[i];
+                workers[i] = new Thread(() -> dispatch(lane, lanes), "bob-lane-" + i);
+                workers[i].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        finally {
+            end_time = System.nanoTime();
+        }
+        logger.info("Asynchronous session served {} operations", operations.get());
+    }
+
+    /**
+     * Closes the connection, the lanes stop once their current operation fails.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        connection.close();
+    }
+
+    /**
+     * @return the number of operations served so far.
+     */
+    public long getOperations() {
+        return operations.get();
+    }
+
+    /**
+     * @return the number of bytes sent to Alice so far, on all lanes.
+     */
+    public long getBytesSent() {
+        return metrics.getBytesSent();
+    }
+
+    /**
+     * @return the metrics of every lane, including the bytes of the multiplexer frames.
+     */
+    public protocol_metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the number of lanes Alice asked for, 0 before she did.
+     */
+    public int getLanes() {
+        return bobs.length;
+    }
+
+    /**
+     * @return the address of Alice, or null if she is not connected on a socket.
+     */
+    public SocketAddress getRemoteAddress() {
+        return connection.getRemoteAddress();
+    }
+
+    /**
+     * @return the time the session has been served, in nanoseconds.
+     */
+    public long getElapsedTime() {
+        if (start_time == 0) {
+            return 0;
+        }
+        return (end_time == 0 ? System.nanoTime() : end_time) - start_time;
+    }
+
+    /**
+     * Runs Bob's side of every operation Alice sends on the lane.
+     * If an operation fails, the other lanes are closed too, since Alice cannot recover the lane.
+     */
+    private void dispatch(bob lane, multiplexer lanes) {
+        try {
+            while (serve_one(lane)) {
+                operations.incrementAndGet();
+            }
+        }
+        catch (EOFException e) {
+            logger.debug("Lane closed by Alice");
+        }
+        catch (IOException | ClassNotFoundException | HomomorphicException | RuntimeException e) {
+            // Any failure ends the lane, e.g. an ArithmeticException from a value out of range,
+            // so close the session instead of leaving Alice waiting on it
+            logger.error("Closing asynchronous session: {}", e.toString());
+            try {
+                lanes.close();
+            }
+            catch (IOException ignored) {
+
+            }
+        }
+    }
+
+    /**
+     * @return false if Alice closed the lane.
+     */
+    private static boolean serve_one(bob lane) throws IOException, ClassNotFoundException, HomomorphicException {
+        int operation = lane.readInt();
+        switch (operation) {
+            case CLOSE:
+                return false;
+            case PROTOCOL_2:
+                lane.Protocol2();
+                break;
+            case MULTIPLICATION:
+                lane.multiplication();
+                break;
+            case DIVISION:
+                Object divisor = lane.readObject();
+                if (!(divisor instanceof BigInteger)) {
+                    throw new IllegalArgumentException("Division: divisor not found!");
+                }
+                lane.division(((BigInteger) divisor).longValueExact());
+                break;
+            case ENCRYPTED_EQUALS:
+                lane.encrypted_equals();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+        lane.flush();
+        return true;
+    }
+}
@@ -85,6 +85,7 @@ public class bob_elgamal extends bob_veugen {
         else {
             writeObject(ElGamalCipher.encrypt(x_prime.subtract(y_prime), el_gamal_public));
         }
+        flush();
     }
 
     /**
@@ -97,6 +98,13 @@ public class bob_elgamal extends bob_veugen {
      */
     public void multiplication()
             throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("multiplication")) {
+            run_multiplication();
+        }
+    }
+
+    private void run_multiplication()
+            throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
         if (!el_gamal_public.additive) {
             throw new HomomorphicException("El Gamal Keys are not using additive version, so you can't " +
                     "outsource multiply");
@@ -129,6 +137,7 @@ public class bob_elgamal extends bob_veugen {
         x_prime = ElGamalCipher.decrypt(enc_x_prime, el_gamal_private);
         y_prime = ElGamalCipher.decrypt(enc_y_prime, el_gamal_private);
         writeObject(ElGamalCipher.encrypt(x_prime.multiply(y_prime), el_gamal_public));
+        flush();
     }
 
     /**
@@ -142,6 +151,13 @@ public class bob_elgamal extends bob_veugen {
      */
     public void division(long divisor)
             throws ClassNotFoundException, IOException, IllegalArgumentException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("division")) {
+            run_division(divisor);
+        }
+    }
+
+    private void run_division(long divisor)
+            throws ClassNotFoundException, IOException, IllegalArgumentException, HomomorphicException {
 
         if (!el_gamal_public.additive) {
             throw new HomomorphicException("El Gamal Keys are not using additive version, so you can't " +
@@ -166,6 +182,7 @@ public class bob_elgamal extends bob_veugen {
 
         c = z.divide(BigInteger.valueOf(divisor));
         writeObject(ElGamalCipher.encrypt(c, el_gamal_public));
+        flush();
 
         /*
          *  Unlike Comparison, it is decided Bob shouldn't know the answer.
@@ -191,7 +208,7 @@ public class bob_elgamal extends bob_veugen {
             throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
         long start_time = System.nanoTime();
         int counter = 0;
-        while(fromAlice.readBoolean()) {
+        while(readBoolean()) {
             ++counter;
             this.Protocol2();
         }
@@ -213,6 +230,13 @@ public class bob_elgamal extends bob_veugen {
      */
     public boolean Protocol2()
             throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol2")) {
+            return run_Protocol2();
+        }
+    }
+
+    private boolean run_Protocol2()
+            throws IOException, ClassNotFoundException, IllegalArgumentException, HomomorphicException {
 
         if (!this.getElGamalPublicKey().additive) {
             throw new HomomorphicException("Encrypted Integer can't work on this version of EL Gamal");
@@ -280,6 +304,7 @@ public class bob_elgamal extends bob_veugen {
         if (x instanceof ElGamal_Ciphertext) {
             answer = ElGamalCipher.decrypt((ElGamal_Ciphertext) x, el_gamal_private).intValue();
             writeInt(answer);
+            flush();
         }
         else {
             throw new IllegalArgumentException("Protocol 4, Step 8 Failed " + x.getClass().getName());
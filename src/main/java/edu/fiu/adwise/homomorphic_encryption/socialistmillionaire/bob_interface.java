@@ -47,6 +47,16 @@ public interface bob_interface {
      */
     boolean Protocol2() throws IOException, ClassNotFoundException, HomomorphicException;
 
+    /**
+     * Answers a batch of Protocol 2 comparisons sent by Alice in a single set of round trips.
+     *
+     * @return element i is true if the first encrypted integer of comparison i is greater than or equal to the second.
+     * @throws IOException if an I/O error occurs.
+     * @throws ClassNotFoundException if the class of a serialized object cannot be found.
+     * @throws HomomorphicException if a homomorphic encryption error occurs.
+     */
+    boolean [] Protocol2Batch() throws IOException, ClassNotFoundException, HomomorphicException;
+
     /**
      * Performs division on an encrypted integer with alice.
      *
@@ -90,4 +100,12 @@ public interface bob_interface {
      * @throws IOException if an I/O error occurs.
      */
     void set_socket(Socket socket) throws IOException;
+
+    /**
+     * Sets the connection for communication, e.g. a {@link loopback_transport} to Alice in the same JVM.
+     *
+     * @param connection the connection to use for communication.
+     * @throws IOException if an I/O error occurs.
+     */
+    void set_transport(transport connection) throws IOException;
 }
\ No newline at end of file
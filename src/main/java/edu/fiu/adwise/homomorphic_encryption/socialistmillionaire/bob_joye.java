@@ -64,6 +64,12 @@ public class bob_joye extends bob {
      * @throws HomomorphicException if an error occurs during homomorphic operations.
      */
     public boolean Protocol2() throws IOException, ClassNotFoundException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol2")) {
+            return run_Protocol2();
+        }
+    }
+
+    private boolean run_Protocol2() throws IOException, ClassNotFoundException, HomomorphicException {
         int t;
         int beta_l_prime;
         BigInteger powT;
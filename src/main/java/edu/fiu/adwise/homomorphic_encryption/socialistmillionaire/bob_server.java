@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Serves many {@link alice_async} clients from one JVM.
+ * <p>
+ * Every accepted connection becomes a {@link bob_async} session, run on a bounded pool,
+ * so at most max_sessions are served at the same time. Up to max_sessions later connections wait for a free slot,
+ * and connections past those are closed right away.
+ * The Bobs of every session are created by one factory, so they share the same key pairs,
+ * including the DGK and ElGamal decryption tables, instead of one copy per client.
+ * The key pairs are only read during the protocols, and the protocol state lives in the Bob of each lane.
+ */
+public class bob_server implements Runnable, Closeable {
+    private static final Logger logger = LogManager.getLogger(bob_server.class);
+
+    private final ServerSocket server;
+    private final Supplier<? extends bob> factory;
+    private final ExecutorService sessions;
+
+    /** The sessions being served, by session number. */
+    private final Map<Long, bob_async> active = new ConcurrentHashMap<>();
+
+    private final AtomicLong next_session = new AtomicLong();
+    private final AtomicLong sessions_served = new AtomicLong();
+    private final AtomicLong operations_served = new AtomicLong();
+
+    /**
+     * @param server the server socket Alice connects to.
+     * @param factory creates the Bob of each lane, e.g. {@code () -> new bob(paillier, dgk)}.
+     * @param max_sessions the largest number of sessions served at the same time.
+     * @throws IllegalArgumentException if max_sessions is not positive.
+     */
+    public bob_server(ServerSocket server, Supplier<? extends bob> factory, int max_sessions) {
+        if (max_sessions < 1) {
+            throw new IllegalArgumentException("Number of sessions must be positive: " + max_sessions);
+        }
+        this.server = server;
+        this.factory = factory;
+        this.sessions = new ThreadPoolExecutor(max_sessions, max_sessions, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(max_sessions), task -> new Thread(task, "bob-session"));
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void run() {
+        while (!server.isClosed()) {
+            Socket client;
+            try {
+                client = server.accept();
+            }
+            catch (IOException e) {
+                if (!server.isClosed()) {
+                    logger.error("Failed to accept a connection: {}", e.getMessage());
+                }
+                continue;
+            }
+            long id = next_session.incrementAndGet();
+            try {
+                sessions.execute(() -> serve(id, client));
+            }
+            catch (RejectedExecutionException e) {
+                if (!server.isClosed()) {
+                    logger.warn("Rejected session {} from {}: too many sessions", id, client.getRemoteSocketAddress());
+                }
+                close_quietly(client);
+            }
+        }
+    }
+
+    /**
+     * Serves one session and logs its statistics.
+     */
+    private void serve(long id, Socket client) {
+        bob_async session = new bob_async(client, factory);
+        active.put(id, session);
+        try {
+            session.serve();
+        }
+        catch (IOException e) {
+            logger.error("Session {} failed: {}", id, e.getMessage());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            active.remove(id);
+            close_quietly(client);
+            sessions_served.incrementAndGet();
+            operations_served.addAndGet(session.getOperations());
+            logger.info("Session {} from {}: {} lanes, {} operations, {} bytes sent in {} ms",
+                    id, session.getRemoteAddress(), session.getLanes(), session.getOperations(),
+                    session.getBytesSent(), session.getElapsedTime() / 1000000);
+        }
+    }
+
+    /**
+     * @return the sessions being served, by session number, e.g. to read their statistics.
+     */
+    public Map<Long, bob_async> getSessions() {
+        return Collections.unmodifiableMap(active);
+    }
+
+    /**
+     * @return the number of sessions that ended.
+     */
+    public long getSessionsServed() {
+        return sessions_served.get();
+    }
+
+    /**
+     * @return the number of operations served by the sessions that ended.
+     */
+    public long getOperationsServed() {
+        return operations_served.get();
+    }
+
+    /**
+     * Stops accepting connections and closes the sessions being served.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        server.close();
+        sessions.shutdown();
+        for (bob_async session : active.values()) {
+            session.close();
+        }
+    }
+
+    private static void close_quietly(Socket socket) {
+        try {
+            socket.close();
+        }
+        catch (IOException ignored) {
+
+        }
+    }
+}
@@ -103,6 +103,13 @@ public class bob_veugen extends bob {
      */
     public boolean Protocol2()
             throws IOException, ClassNotFoundException, HomomorphicException {
+        try (protocol_metrics.timer ignored = time("Protocol2")) {
+            return run_Protocol2();
+        }
+    }
+
+    private boolean run_Protocol2()
+            throws IOException, ClassNotFoundException, HomomorphicException {
         // Constraint for Paillier
         if(!isDGK && dgk_public.getL() + 2 >= paillier_public.key_size) {
             throw new IllegalArgumentException("Constraint violated: l + 2 < log_2(N)");
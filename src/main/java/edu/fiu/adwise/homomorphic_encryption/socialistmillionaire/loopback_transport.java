@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An in-memory {@link transport} between two parties in the same JVM, e.g. to measure the cost of a protocol
+ * without the TCP stack, or to simulate a slow network without touching it.
+ * <p>
+ * Each direction is a lock-free single-producer single-consumer ring of chunks: every write is copied
+ * into one chunk, and the reader waits until the chunk is delivered. A chunk is delivered after the latency,
+ * and after the chunks before it are sent at the bandwidth, so a round trip costs twice the latency,
+ * as on a real link. Like a socket, each stream must be used by one thread at a time.
+ * <pre>{@code
+ * loopback_transport [] link = loopback_transport.pair(20, TimeUnit.MILLISECONDS, 10_000_000);
+ * alice.set_transport(link[0]);
+ * bob.set_transport(link[1]);
+ * }</pre>
+ */
+public final class loopback_transport implements transport {
+    /** The number of chunks each direction holds before a writer waits for the reader. */
+    private static final int CAPACITY = 1 << 10;
+
+    private final ring incoming;
+    private final ring outgoing;
+
+    private final InputStream input;
+    private final OutputStream output;
+
+    private loopback_transport(ring incoming, ring outgoing) {
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        this.input = new InputStream() {
+            private byte [] chunk = null;
+            private int position = 0;
+
+            @Override
+            public int read() throws IOException {
+                byte [] one = new byte[1];
+                return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte [] bytes, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (chunk == null || position == chunk.length) {
+                    chunk = incoming.take();
+                    position = 0;
+                    if (chunk == null) {
+                        return -1;
+                    }
+                }
+                int read = Math.min(length, chunk.length - position);
+                System.arraycopy(chunk, position, bytes, offset, read);
+                position += read;
+                return read;
+            }
+
+            @Override
+            public int available() {
+                return chunk == null ? 0 : chunk.length - position;
+            }
+        };
+        this.output = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte [] bytes, int offset, int length) throws IOException {
+                if (length > 0) {
+                    outgoing.offer(Arrays.copyOfRange(bytes, offset, offset + length));
+                }
+            }
+        };
+    }
+
+    /**
+     * @return two connected ends without latency or bandwidth limit, one for Alice and one for Bob.
+     */
+    public static loopback_transport [] pair() {
+        return pair(0, TimeUnit.NANOSECONDS, 0);
+    }
+
+    /**
+     * Connects two ends over a simulated link.
+     *
+     * @param latency the one-way delay of every chunk.
+     * @param unit the unit of the latency.
+     * @param bytes_per_second the bandwidth of each direction, or 0 for no limit.
+     * @return two connected ends, one for Alice and one for Bob.
+     * @throws IllegalArgumentException if the latency or the bandwidth is negative.
+     */
+    public static loopback_transport [] pair(long latency, TimeUnit unit, long bytes_per_second) {
+        if (latency < 0 || bytes_per_second < 0) {
+            throw new IllegalArgumentException("Latency and bandwidth must be non-negative: "
+                    + latency + " " + unit + ", " + bytes_per_second + " bytes/s");
+        }
+        long latency_ns = unit.toNanos(latency);
+        ring alice_to_bob = new ring(latency_ns, bytes_per_second);
+        ring bob_to_alice = new ring(latency_ns, bytes_per_second);
+        return new loopback_transport[] {
+                new loopback_transport(bob_to_alice, alice_to_bob),
+                new loopback_transport(alice_to_bob, bob_to_alice)
+        };
+    }
+
+    public InputStream getInputStream() {
+        return input;
+    }
+
+    public OutputStream getOutputStream() {
+        return output;
+    }
+
+    /**
+     * Closes both directions. The other party reads the chunks already sent, then the end of the stream.
+     */
+    public void close() {
+        outgoing.close();
+        incoming.close();
+    }
+
+    /**
+     * One direction of the link. The producer publishes a chunk by moving the tail,
+     * the consumer frees a slot by moving the head, and a party only parks after it announced itself
+     * and checked the ring again, so a wake-up is never lost.
+     */
+    private static final class ring {
+        private final byte [][] chunks = new byte[CAPACITY][];
+
+        /** The time each chunk is delivered, see {@link System#nanoTime()}. */
+        private final long [] deliver_at = new long[CAPACITY];
+
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        private volatile Thread waiting_reader = null;
+        private volatile Thread waiting_writer = null;
+        private volatile boolean closed = false;
+
+        private final long latency;
+        private final long bytes_per_second;
+
+        /** When the link finishes sending the chunks written so far, only used by the producer. */
+        private long link_free_at = 0;
+
+        private ring(long latency, long bytes_per_second) {
+            this.latency = latency;
+            this.bytes_per_second = bytes_per_second;
+        }
+
+        private void offer(byte [] chunk) throws IOException {
+            long sent = System.nanoTime();
+            if (bytes_per_second > 0) {
+                link_free_at = Math.max(sent, link_free_at) + chunk.length * 1000000000L / bytes_per_second;
+                sent = link_free_at;
+            }
+
+            long t = tail.get();
+            while (t - head.get() == CAPACITY) {
+                check_open();
+                waiting_writer = Thread.currentThread();
+                if (t - head.get() == CAPACITY && !closed) {
+                    LockSupport.park(this);
+                }
+                waiting_writer = null;
+                check_interrupt();
+            }
+            check_open();
+            int slot = (int) (t & (CAPACITY - 1));
+            chunks[slot] = chunk;
+            deliver_at[slot] = sent + latency;
+            tail.set(t + 1);
+            Thread reader = waiting_reader;
+            if (reader != null) {
+                LockSupport.unpark(reader);
+            }
+        }
+
+        /**
+         * @return the next chunk once it is delivered, or null at the end of the stream.
+         */
+        private byte [] take() throws IOException {
+            long h = head.get();
+            while (true) {
+                if (h < tail.get()) {
+                    int slot = (int) (h & (CAPACITY - 1));
+                    long wait = deliver_at[slot] - System.nanoTime();
+                    if (wait <= 0) {
+                        byte [] chunk = chunks[slot];
+                        chunks[slot] = null;
+                        head.set(h + 1);
+                        Thread writer = waiting_writer;
+                        if (writer != null) {
+                            LockSupport.unpark(writer);
+                        }
+                        return chunk;
+                    }
+                    LockSupport.parkNanos(this, wait);
+                }
+                else if (closed) {
+                    return null;
+                }
+                else {
+                    waiting_reader = Thread.currentThread();
+                    if (h == tail.get() && !closed) {
+                        LockSupport.park(this);
+                    }
+                    waiting_reader = null;
+                }
+                check_interrupt();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            Thread reader = waiting_reader;
+            if (reader != null) {
+                LockSupport.unpark(reader);
+            }
+            Thread writer = waiting_writer;
+            if (writer != null) {
+                LockSupport.unpark(writer);
+            }
+        }
+
+        private void check_open() throws IOException {
+            if (closed) {
+                throw new IOException("Loopback transport is closed");
+            }
+        }
+
+        private static void check_interrupt() throws InterruptedIOException {
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting on the loopback transport");
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link protocol_metrics}, see {@link protocol_metrics#register(String)}.
+ */
+public interface metrics_mxbean {
+
+    /**
+     * @return the bytes written to the wire.
+     */
+    long getBytesSent();
+
+    /**
+     * @return the bytes read from the wire.
+     */
+    long getBytesReceived();
+
+    /**
+     * @return the messages sent, i.e. the calls to write a boolean, an int or an object.
+     */
+    long getMessagesSent();
+
+    /**
+     * @return the messages received, i.e. the calls to read a boolean, an int or an object.
+     */
+    long getMessagesReceived();
+
+    /**
+     * @return the round trips, i.e. the reads that had to wait for an answer to a write.
+     */
+    long getRoundTrips();
+
+    /**
+     * @return the metrics of every step run so far, by the name of the step.
+     */
+    Map<String, step_snapshot> getSteps();
+
+    /**
+     * Sets every counter and histogram back to zero.
+     */
+    void reset();
+}
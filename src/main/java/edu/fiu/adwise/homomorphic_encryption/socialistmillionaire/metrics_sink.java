@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+/**
+ * Receives every protocol step as it completes, e.g. to export it to a monitoring system.
+ * Sinks are called on the thread that ran the step, so they should return quickly.
+ * See {@link protocol_metrics#addSink(metrics_sink)}.
+ */
+@FunctionalInterface
+public interface metrics_sink {
+
+    /**
+     * @param step the name of the step, e.g. {@code Protocol2}.
+     * @param nanos the latency of the step, in nanoseconds.
+     * @param mod_exps the modular exponentiations this party did in the step.
+     */
+    void step_completed(String step, long nanos, long mod_exps);
+}
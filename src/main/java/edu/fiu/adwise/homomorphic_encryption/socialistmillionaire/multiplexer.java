@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits one connection into several independent lanes, so several protocols can run at the same time
+ * on one connection. Every lane is a pair of streams, used by a {@link binary_channel}.
+ * <p>
+ * Each write to a lane is sent as a frame holding the lane number, which is the correlation ID of the frame,
+ * the length and the bytes. A reader thread receives the frames and queues them on their lane,
+ * so a lane waiting for the other party never blocks the other lanes.
+ * <p>
+ * Each lane queues at most {@link #LANE_FRAMES} frames. Once a lane is full, the reader waits for the lane
+ * to read a frame, which slows the other party down through the connection. If the lane does not read
+ * within {@link #LANE_TIMEOUT} seconds, the other party sent far more than the protocol asked for,
+ * so the session is closed.
+ */
+final class multiplexer implements Closeable {
+    private static final Logger logger = LogManager.getLogger(multiplexer.class);
+
+    /** The largest number of lanes on one connection. */
+    static final int MAX_LANES = 64;
+
+    /** The largest frame sent, larger writes are split. */
+    private static final int MAX_FRAME = 1 << 16;
+
+    /** The largest number of frames queued on one lane. */
+    static final int LANE_FRAMES = 32;
+
+    /** The number of seconds the reader waits for a full lane before closing the session. */
+    static final long LANE_TIMEOUT = 60;
+
+    /** Marks the end of the stream of a lane. */
+    private static final byte [] END = new byte[0];
+
+    private final transport connection;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final lane [] lanes;
+    private final Thread reader;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Starts receiving the frames of the lanes.
+     * Both parties must create the same number of lanes.
+     *
+     * @param connection the connection to the other party.
+     * @param count the number of lanes.
+     * @throws IOException if the streams of the connection cannot be opened.
+     * @throws IllegalArgumentException if the number of lanes is out of range.
+     */
+    multiplexer(transport connection, int count) throws IOException {
+        if (count < 1 || count > MAX_LANES) {
+            throw new IllegalArgumentException("Number of lanes must be between 1 and " + MAX_LANES + ": " + count);
+        }
+        this.connection = connection;
+        this.out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream(), MAX_FRAME + 8));
+        this.in = new DataInputStream(new BufferedInputStream(connection.getInputStream(), MAX_FRAME + 8));
+        this.lanes = new lane[count];
+        for (int i = 0; i < count; i++) {
+            lanes[i] = new lane(i);
+        }
+        this.reader = new Thread(this::receive, "multiplexer");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * @param i the number of the lane.
+     * @return the stream of frames received on the lane.
+     */
+    InputStream input(int i) {
+        return lanes[i].input;
+    }
+
+    /**
+     * @param i the number of the lane.
+     * @return the stream of frames sent on the lane.
+     */
+    OutputStream output(int i) {
+        return lanes[i].output;
+    }
+
+    /**
+     * @return the number of lanes.
+     */
+    int size() {
+        return lanes.length;
+    }
+
+    /**
+     * Closes the connection, the lanes read the end of their stream.
+     *
+     * @throws IOException if an I/O error occurs.
+     */
+    public void close() throws IOException {
+        closed = true;
+        connection.close();
+    }
+
+    /**
+     * Queues every received frame on its lane, until the connection is closed.
+     */
+    private void receive() {
+        try {
+            while (true) {
+                int lane = in.readInt();
+                int length = in.readInt();
+                if (lane < 0 || lane >= lanes.length || length <= 0 || length > MAX_FRAME) {
+                    throw new StreamCorruptedException("Invalid frame of " + length + " bytes on lane " + lane);
+                }
+                byte [] frame = new byte[length];
+                in.readFully(frame);
+                if (!lanes[lane].frames.offer(frame, LANE_TIMEOUT, TimeUnit.SECONDS)) {
+                    throw new StreamCorruptedException("Lane " + lane + " overflowed, it did not read any of its "
+                            + LANE_FRAMES + " queued frames in " + LANE_TIMEOUT + " seconds");
+                }
+            }
+        }
+        catch (EOFException e) {
+            logger.debug("Connection closed by the other party");
+        }
+        catch (IOException e) {
+            if (!closed) {
+                logger.warn("Closing the lanes: {}", e.getMessage());
+                try {
+                    close();
+                }
+                catch (IOException ignored) {
+
+                }
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            for (lane lane : lanes) {
+                // A full lane reads the end once it has read its queued frames
+                lane.ended = true;
+                lane.frames.offer(END);
+            }
+        }
+    }
+
+    /**
+     * Sends one frame, writes of all lanes are serialized on the connection.
+     */
+    private void send(int lane, byte [] bytes, int offset, int length) throws IOException {
+        synchronized (out) {
+            out.writeInt(lane);
+            out.writeInt(length);
+            out.write(bytes, offset, length);
+        }
+    }
+
+    private void flush() throws IOException {
+        synchronized (out) {
+            out.flush();
+        }
+    }
+
+    /**
+     * The streams of one lane.
+     */
+    private final class lane {
+        private final BlockingQueue<byte []> frames = new LinkedBlockingQueue<>(LANE_FRAMES);
+        private final InputStream input;
+
+        /** Set once no more frames are queued, before the end is queued. */
+        private volatile boolean ended = false;
+        private final OutputStream output;
+
+        private lane(int number) {
+            this.input = new InputStream() {
+                private byte [] frame = null;
+                private int position = 0;
+
+                @Override
+                public int read() throws IOException {
+                    byte [] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte [] bytes, int offset, int length) throws IOException {
+                    if (length == 0) {
+                        return 0;
+                    }
+                    if (frame == null || position == frame.length) {
+                        if (frame == END) {
+                            return -1;
+                        }
+                        try {
+                            frame = frames.poll();
+                            if (frame == null) {
+                                frame = ended ? END : frames.take();
+                            }
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted while waiting on lane " + number);
+                        }
+                        position = 0;
+                        if (frame == END) {
+                            return -1;
+                        }
+                    }
+                    int read = Math.min(length, frame.length - position);
+                    System.arraycopy(frame, position, bytes, offset, read);
+                    position += read;
+                    return read;
+                }
+            };
+
+            this.output = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    write(new byte[] { (byte) b }, 0, 1);
+                }
+
+                @Override
+                public void write(byte [] bytes, int offset, int length) throws IOException {
+                    for (int sent = 0; sent < length; sent += MAX_FRAME) {
+                        send(number, bytes, offset + sent, Math.min(MAX_FRAME, length - sent));
+                    }
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    multiplexer.this.flush();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records what a party costs: the bytes on the wire, the messages and round trips,
+ * and the latency and modular exponentiations of each protocol step
+ * ({@code Protocol1}, {@code Protocol2}, {@code multiplication}, {@code division}, {@code encrypted_equals}, ...).
+ * <p>
+ * Every Alice and Bob has a registry, see {@link socialist_millionaires#getMetrics()}.
+ * The bytes are counted on the streams of the {@link transport}, so they include the framing
+ * or the serialization overhead of the wire protocol. The lanes of an {@link alice_async} or a {@link bob_async}
+ * share one registry, and so can parties on different connections, e.g. to watch a whole server.
+ * <p>
+ * Steps are timed by the party that runs them. A step called by another step, e.g. Protocol1 inside Protocol2,
+ * is part of the outer step. The exponentiations of a step are counted with the {@link ModExpCounter} scope of the
+ * thread running it, so steps running on other threads at the same time do not add to it.
+ * <p>
+ * The metrics can be read with {@link #getSteps()}, pushed to a {@link metrics_sink} as each step completes,
+ * or published over JMX with {@link #register(String)}.
+ */
+public final class protocol_metrics implements metrics_mxbean {
+    private static final Logger logger = LogManager.getLogger(protocol_metrics.class);
+
+    /** The JMX domain of the registries published with {@link #register(String)}. */
+    public static final String JMX_DOMAIN = "edu.fiu.adwise.homomorphic_encryption";
+
+    private final LongAdder bytes_sent = new LongAdder();
+    private final LongAdder bytes_received = new LongAdder();
+    private final LongAdder messages_sent = new LongAdder();
+    private final LongAdder messages_received = new LongAdder();
+    private final LongAdder round_trips = new LongAdder();
+
+    private final Map<String, step_metrics> steps = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<metrics_sink> sinks = new CopyOnWriteArrayList<>();
+
+    private volatile ObjectName registered = null;
+
+    /**
+     * The latency and exponentiations of one step.
+     */
+    private static final class step_metrics {
+        private final latency_histogram latency = new latency_histogram();
+        private final LongAdder mod_exps = new LongAdder();
+    }
+
+    public long getBytesSent() {
+        return bytes_sent.sum();
+    }
+
+    public long getBytesReceived() {
+        return bytes_received.sum();
+    }
+
+    public long getMessagesSent() {
+        return messages_sent.sum();
+    }
+
+    public long getMessagesReceived() {
+        return messages_received.sum();
+    }
+
+    public long getRoundTrips() {
+        return round_trips.sum();
+    }
+
+    public Map<String, step_snapshot> getSteps() {
+        Map<String, step_snapshot> snapshot = new TreeMap<>();
+        for (String step : steps.keySet()) {
+            snapshot.put(step, getStep(step));
+        }
+        return snapshot;
+    }
+
+    /**
+     * @param step the name of the step, e.g. {@code Protocol2}.
+     * @return the metrics of the step, or null if it never ran.
+     */
+    public step_snapshot getStep(String step) {
+        step_metrics metrics = steps.get(step);
+        if (metrics == null) {
+            return null;
+        }
+        latency_histogram latency = metrics.latency;
+        return new step_snapshot(step, latency.count(), latency.total(), latency.max(),
+                latency.percentile(0.5), latency.percentile(0.9), latency.percentile(0.99), metrics.mod_exps.sum());
+    }
+
+    public void reset() {
+        bytes_sent.reset();
+        bytes_received.reset();
+        messages_sent.reset();
+        messages_received.reset();
+        round_trips.reset();
+        for (step_metrics metrics : steps.values()) {
+            metrics.latency.reset();
+            metrics.mod_exps.reset();
+        }
+    }
+
+    /**
+     * @param sink receives every step once it completes.
+     */
+    public void addSink(metrics_sink sink) {
+        if (sink == null) {
+            throw new NullPointerException("Sink is null!");
+        }
+        sinks.add(sink);
+    }
+
+    /**
+     * @param sink a sink added with {@link #addSink(metrics_sink)}.
+     */
+    public void removeSink(metrics_sink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * Publishes this registry on the platform MBean server, e.g. to watch it with JConsole.
+     *
+     * @param name the name of the registry, e.g. {@code bob}.
+     * @return the object name of the MBean, {@code edu.fiu.adwise.homomorphic_encryption:type=protocol_metrics,name=...}
+     * @throws JMException if the name is taken or the MBean cannot be registered.
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName object_name = new ObjectName(JMX_DOMAIN + ":type=protocol_metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new StandardMBean(this, metrics_mxbean.class, true), object_name);
+        registered = object_name;
+        return object_name;
+    }
+
+    /**
+     * Removes this registry from the platform MBean server, if it was published.
+     *
+     * @throws JMException if the MBean cannot be unregistered.
+     */
+    public synchronized void unregister() throws JMException {
+        ObjectName object_name = registered;
+        if (object_name != null) {
+            registered = null;
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(object_name)) {
+                server.unregisterMBean(object_name);
+            }
+        }
+    }
+
+    /**
+     * Starts timing a step on the calling thread, and counts the exponentiations of the thread into it.
+     *
+     * @param step the name of the step.
+     * @return the timer to close once the step is done, on the same thread.
+     */
+    timer start(String step) {
+        return new timer(step);
+    }
+
+    void message_sent() {
+        messages_sent.increment();
+    }
+
+    void message_received() {
+        messages_received.increment();
+    }
+
+    void round_trip() {
+        round_trips.increment();
+    }
+
+    /**
+     * @param connection the connection to the other party.
+     * @return the same connection, with its bytes counted in this registry.
+     */
+    transport count(transport connection) {
+        return new transport() {
+            public InputStream getInputStream() throws IOException {
+                return count(connection.getInputStream());
+            }
+
+            public OutputStream getOutputStream() throws IOException {
+                return count(connection.getOutputStream());
+            }
+
+            public boolean isTLS() {
+                return connection.isTLS();
+            }
+
+            public SocketAddress getRemoteAddress() {
+                return connection.getRemoteAddress();
+            }
+
+            public void close() throws IOException {
+                connection.close();
+            }
+        };
+    }
+
+    private InputStream count(InputStream input) {
+        return new FilterInputStream(input) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytes_received.increment();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte [] bytes, int offset, int length) throws IOException {
+                int read = super.read(bytes, offset, length);
+                if (read > 0) {
+                    bytes_received.add(read);
+                }
+                return read;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                bytes_received.add(skipped);
+                return skipped;
+            }
+        };
+    }
+
+    private OutputStream count(OutputStream output) {
+        return new FilterOutputStream(output) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes_sent.increment();
+            }
+
+            @Override
+            public void write(byte [] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+                bytes_sent.add(length);
+            }
+        };
+    }
+
+    private void record(String step, long nanos, long mod_exps) {
+        step_metrics metrics = steps.computeIfAbsent(step, name -> new step_metrics());
+        metrics.latency.record(nanos);
+        metrics.mod_exps.add(mod_exps);
+        for (metrics_sink sink : sinks) {
+            try {
+                sink.step_completed(step, nanos, mod_exps);
+            }
+            catch (RuntimeException e) {
+                logger.warn("Metrics sink failed on step {}: {}", step, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Times one run of a step, see {@link socialist_millionaires#time(String)}.
+     */
+    public final class timer implements AutoCloseable {
+        private final String step;
+        private final LongAdder mod_exps = new LongAdder();
+        private final LongAdder previous_scope;
+        private final long start_time;
+        private boolean open = true;
+
+        private timer(String step) {
+            this.step = step;
+            this.previous_scope = ModExpCounter.setScope(mod_exps);
+            this.start_time = System.nanoTime();
+        }
+
+        boolean is_open() {
+            return open;
+        }
+
+        /**
+         * Records the step, only the first call has an effect.
+         */
+        public void close() {
+            if (!open) {
+                return;
+            }
+            open = false;
+            long nanos = System.nanoTime() - start_time;
+            ModExpCounter.setScope(previous_scope);
+            record(step, nanos, mod_exps.sum());
+        }
+    }
+}
@@ -4,17 +4,21 @@
  */
 package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKOperations;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.CipherConstants;
-import edu.fiu.adwise.homomorphic_encryption.misc.InstrumentationAgent;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPublicKey;
 import org.apache.commons.io.serialization.ValidatingObjectInputStream;
@@ -29,8 +33,14 @@ import org.apache.commons.io.serialization.ValidatingObjectInputStream;
  */
 public abstract class socialist_millionaires implements CipherConstants
 {
-	/** Tracks the total number of bytes sent during communication. */
-	protected long bytes_sent = 0;
+	/** Records the bytes, messages and protocol steps of this party, see {@link #getMetrics()}. */
+	protected protocol_metrics metrics = new protocol_metrics();
+
+	/** The step being timed, steps started while it is open are part of it. */
+	private protocol_metrics.timer current_step = null;
+
+	/** If this party wrote since it last read, so the next read waits for an answer. */
+	private boolean awaiting_answer = false;
 
 	/** Secure random number generator for cryptographic operations. */
 	protected static final SecureRandom rnd = new SecureRandom();
@@ -83,6 +93,118 @@ public abstract class socialist_millionaires implements CipherConstants
 	/** Indicates if TLS sockets are used for secure communication. */
 	protected boolean tls_socket_in_use = false;
 
+	/** If this party asks for the binary wire protocol when the socket is set, off by default. */
+	protected boolean binary_wire = false;
+
+	/** The default number of values accepted in one binary frame, see {@link #setMaxBatch(int)}. */
+	public static final int DEFAULT_MAX_BATCH = 1 << 22;
+
+	/** The width in bytes of a value in a binary frame before any key is known, enough for 16384-bit values. */
+	private static final int DEFAULT_MAX_WIDTH = (1 << 14) / 8 + 1;
+
+	/** The largest number of values accepted in one binary frame. */
+	protected int max_batch = DEFAULT_MAX_BATCH;
+
+	/** The binary framing used instead of the object streams, if both parties agreed to it. */
+	binary_channel channel = null;
+
+	/**
+	 * Sets if this party asks for the binary wire protocol, see {@link binary_channel}.
+	 * It is off by default, and then the connection starts with the Java serialization handshake only,
+	 * as in earlier versions of this library. If it is on, both parties exchange one byte before any stream
+	 * is opened, so BOTH parties must turn it on; a party that turns it on cannot talk to one that does not.
+	 * This must be set before the socket or transport.
+	 * <p>
+	 * With the binary wire protocol, {@link #writeObject(Object)}, {@link #writeBoolean(boolean)} and
+	 * {@link #writeInt(int)} are buffered until this party reads, so an exchange that ends with a write
+	 * must call {@link #flush()}.
+	 *
+	 * @param binary_wire true to ask for the binary wire protocol, false to use Java serialization.
+	 */
+	public void setBinaryWire(boolean binary_wire) {
+		this.binary_wire = binary_wire;
+	}
+
+	/**
+	 * Checks if the binary wire protocol was agreed on with the other party.
+	 *
+	 * @return true if the binary wire protocol is in use, false if Java serialization is in use.
+	 */
+	public boolean isBinaryWire() {
+		return channel != null;
+	}
+
+	/**
+	 * If this party asks for the binary wire protocol, it sends one byte saying so, then reads the byte of the other.
+	 * This is done before any stream is opened on the connection. Otherwise, nothing is exchanged,
+	 * so the connection stays compatible with parties that never negotiate.
+	 *
+	 * @param connection the connection to the other party.
+	 * @return true if both parties asked for the binary wire protocol.
+	 * @throws IOException if an I/O error occurs or the connection is closed during the negotiation.
+	 */
+	protected boolean negotiate_wire(transport connection) throws IOException {
+		channel = null;
+		if (!binary_wire) {
+			return false;
+		}
+		OutputStream out = connection.getOutputStream();
+		out.write(1);
+		out.flush();
+		int other = connection.getInputStream().read();
+		if (other == -1) {
+			throw new EOFException("Connection closed while negotiating the wire protocol");
+		}
+		return other == 1;
+	}
+
+	/**
+	 * Sets the largest number of values accepted in one binary frame, e.g. the size of the largest
+	 * batch of {@link alice#Protocol2Batch(BigInteger[], BigInteger[])}. A matrix frame counts all of its values.
+	 * Larger frames are rejected before anything is allocated for them.
+	 *
+	 * @param max_batch the largest number of values in one frame.
+	 * @throws IllegalArgumentException if max_batch is not positive.
+	 */
+	public void setMaxBatch(int max_batch) {
+		if (max_batch <= 0) {
+			throw new IllegalArgumentException("Invalid max batch: " + max_batch);
+		}
+		this.max_batch = max_batch;
+	}
+
+	/**
+	 * Retrieves the largest number of values accepted in one binary frame.
+	 *
+	 * @return the largest number of values in one frame.
+	 */
+	public int getMaxBatch() {
+		return max_batch;
+	}
+
+	/**
+	 * The width in bytes of the largest value the other party may send in a binary frame.
+	 * Every value sent is reduced modulo one of the key moduli, so it is the width of the largest modulus known.
+	 *
+	 * @return the largest width of a value in a binary frame.
+	 */
+	int max_wire_width() {
+		int bits = 0;
+		if (paillier_public != null) {
+			bits = Math.max(bits, paillier_public.getModulus().bitLength());
+		}
+		if (dgk_public != null) {
+			bits = Math.max(bits, dgk_public.getN().bitLength());
+		}
+		if (el_gamal_public != null) {
+			bits = Math.max(bits, el_gamal_public.getP().bitLength());
+		}
+		if (bits == 0) {
+			return DEFAULT_MAX_WIDTH;
+		}
+		return bits / 8 + 1;
+	}
+
 	/**
 	 * Sets the DGK encryption mode.
 	 *
@@ -158,11 +280,72 @@ public abstract class socialist_millionaires implements CipherConstants
 
 	/**
 	 * Retrieves the total number of bytes sent during communication.
+	 * These are the bytes written to the connection, so with a shared registry,
+	 * e.g. on the lanes of an {@link alice_async}, it is the total of all parties sharing it.
 	 *
 	 * @return the total bytes sent.
 	 */
 	public long get_bytes_sent() {
-		return this.bytes_sent;
+		return metrics.getBytesSent();
+	}
+
+	/**
+	 * Retrieves the metrics of this party: bytes, messages, round trips and the latency
+	 * and modular exponentiations of each protocol step.
+	 *
+	 * @return the metrics registry of this party.
+	 */
+	public protocol_metrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Sets the metrics registry of this party, e.g. to share one registry between many parties.
+	 * The bytes are counted on the connection, so this must be set before the socket or transport.
+	 *
+	 * @param metrics the metrics registry.
+	 * @throws NullPointerException if the registry is null.
+	 */
+	public void setMetrics(protocol_metrics metrics) {
+		if (metrics == null) {
+			throw new NullPointerException("Metrics registry is null!");
+		}
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Starts timing a protocol step, to be used in a try-with-resources statement.
+	 * If a step is already being timed, the new step is part of it, so this returns null,
+	 * which try-with-resources skips.
+	 *
+	 * @param step the name of the step, e.g. {@code Protocol2}.
+	 * @return the timer to close at the end of the step, or null if a step is already being timed.
+	 */
+	protected protocol_metrics.timer time(String step) {
+		if (current_step != null && current_step.is_open()) {
+			return null;
+		}
+		current_step = metrics.start(step);
+		return current_step;
+	}
+
+	/**
+	 * Counts a message sent to the other party.
+	 */
+	private void sent() {
+		metrics.message_sent();
+		awaiting_answer = true;
+	}
+
+	/**
+	 * Counts a message received from the other party, and a round trip if it answers a message sent.
+	 */
+	private void received() {
+		metrics.message_received();
+		if (awaiting_answer) {
+			awaiting_answer = false;
+			metrics.round_trip();
+		}
 	}
 
 	/**
@@ -172,7 +355,11 @@ public abstract class socialist_millionaires implements CipherConstants
 	 * @throws IOException if an I/O error occurs.
 	 */
 	public boolean readBoolean() throws IOException {
-		if(fromBob != null) {
+		received();
+		if (channel != null) {
+			return channel.readBoolean();
+		}
+		else if(fromBob != null) {
 			return fromBob.readBoolean();
 		}
 		else {
@@ -182,12 +369,17 @@ public abstract class socialist_millionaires implements CipherConstants
 
 	/**
 	 * Writes a boolean value to the output stream.
+	 * With the binary wire protocol, it is buffered until this party reads or calls {@link #flush()}.
 	 *
 	 * @param value the boolean value to write.
 	 * @throws IOException if an I/O error occurs.
 	 */
 	public void writeBoolean(boolean value) throws IOException {
-		bytes_sent += 4;
+		sent();
+		if (channel != null) {
+			channel.writeBoolean(value);
+			return;
+		}
 		if(toBob != null) {
 			toBob.writeBoolean(value);
 			toBob.flush();
@@ -205,7 +397,11 @@ public abstract class socialist_millionaires implements CipherConstants
 	 * @throws IOException if an I/O error occurs.
 	 */
 	public int readInt() throws IOException {
-		if (fromBob != null) {
+		received();
+		if (channel != null) {
+			return channel.readInt();
+		}
+		else if (fromBob != null) {
 			return fromBob.readInt();
 		}
 		else {
@@ -215,12 +411,17 @@ public abstract class socialist_millionaires implements CipherConstants
 
 	/**
 	 * Writes an integer value to the output stream.
+	 * With the binary wire protocol, it is buffered until this party reads or calls {@link #flush()}.
 	 *
 	 * @param value the integer value to write.
 	 * @throws IOException if an I/O error occurs.
 	 */
 	public void writeInt(int value) throws IOException {
-		bytes_sent += 4;
+		sent();
+		if (channel != null) {
+			channel.writeInt(value);
+			return;
+		}
 		if (toBob != null) {
 			toBob.writeInt(value);
 			toBob.flush();
@@ -239,7 +440,11 @@ public abstract class socialist_millionaires implements CipherConstants
 	 * @throws ClassNotFoundException if the class of the object cannot be found.
 	 */
 	public Object readObject() throws IOException, ClassNotFoundException {
-		if(fromBob != null) {
+		received();
+		if (channel != null) {
+			return channel.readObject();
+		}
+		else if(fromBob != null) {
 			return fromBob.readObject();
 		}
 		else {
@@ -249,18 +454,17 @@ public abstract class socialist_millionaires implements CipherConstants
 
 	/**
 	 * Writes an object to the output stream.
+	 * With the binary wire protocol, it is buffered until this party reads or calls {@link #flush()}.
 	 *
 	 * @param o the object to write.
 	 * @throws IOException if an I/O error occurs.
 	 */
 	public void writeObject(Object o) throws IOException {
-		try {
-			bytes_sent += InstrumentationAgent.getObjectSize(o);
-		}
-		catch (IllegalStateException ignored) {
-
+		sent();
+		if (channel != null) {
+			channel.writeObject(o);
+			return;
 		}
-
 		if(toBob != null) {
 			toBob.writeObject(o);
 			toBob.flush();
@@ -271,6 +475,25 @@ public abstract class socialist_millionaires implements CipherConstants
 		}
 	}
 
+	/**
+	 * Sends everything written so far to the other party.
+	 * With the binary wire protocol, writes are buffered until this party reads,
+	 * so this must be called when a protocol ends with a write.
+	 *
+	 * @throws IOException if an I/O error occurs.
+	 */
+	public void flush() throws IOException {
+		if (channel != null) {
+			channel.flush();
+		}
+		else if (toBob != null) {
+			toBob.flush();
+		}
+		else if (toAlice != null) {
+			toAlice.flush();
+		}
+	}
+
 	/**
 	 * Creates a deep copy of a BigInteger array.
 	 *
@@ -283,6 +506,27 @@ public abstract class socialist_millionaires implements CipherConstants
 		return copy;
 	}
 
+	/**
+	 * Reads a batch of values from the other party, as in {@link alice#Protocol2Batch(BigInteger[], BigInteger[])}.
+	 *
+	 * @param <T> the type of the values.
+	 * @param o the object received from the other party.
+	 * @param type the expected array type of the batch.
+	 * @param size the expected number of values in the batch.
+	 * @param step the protocol step, used in the error message.
+	 * @return the batch of values.
+	 * @throws IllegalArgumentException if the object is not a batch of the expected type and size.
+	 */
+	protected static <T> T [] read_batch(Object o, Class<T []> type, int size, String step) {
+		if (type.isInstance(o)) {
+			T [] batch = type.cast(o);
+			if (batch.length == size) {
+				return batch;
+			}
+		}
+		throw new IllegalArgumentException(step + " not found! " + o.getClass().getName());
+	}
+
 	/**
 	 * Shuffles the elements of a BigInteger array in place.
 	 * Note: This method does not create a new array.
@@ -299,4 +543,19 @@ public abstract class socialist_millionaires implements CipherConstants
 		}
 		return array;
 	}
+
+	/**
+	 * Re-randomizes every DGK ciphertext of the array in place.
+	 * The sums computed by {@link DGKOperations#sum(BigInteger[], DGKPublicKey)} and
+	 * {@link DGKOperations#prefix_sum(BigInteger[], DGKPublicKey)} start from the identity,
+	 * so this must be done before sending them to the other party.
+	 *
+	 * @param array the array of DGK ciphertexts.
+	 * @return the re-randomized array.
+	 * @throws HomomorphicException if a ciphertext is invalid.
+	 */
+	protected BigInteger[] rerandomize_bits(BigInteger[] array) throws HomomorphicException {
+		BatchExecutor.run(array.length, i -> array[i] = DGKOperations.rerandomize(array[i], dgk_public));
+		return array;
+	}
 }
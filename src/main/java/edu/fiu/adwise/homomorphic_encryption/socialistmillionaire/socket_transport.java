@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+/**
+ * A {@link transport} over a socket, plain or TLS.
+ */
+public final class socket_transport implements transport {
+    private final Socket socket;
+
+    /**
+     * @param socket the socket connected to the other party.
+     * @throws NullPointerException if the socket is null.
+     */
+    public socket_transport(Socket socket) {
+        if (socket == null) {
+            throw new NullPointerException("Socket is null!");
+        }
+        this.socket = socket;
+    }
+
+    public InputStream getInputStream() throws IOException {
+        return socket.getInputStream();
+    }
+
+    public OutputStream getOutputStream() throws IOException {
+        return socket.getOutputStream();
+    }
+
+    public boolean isTLS() {
+        return socket instanceof SSLSocket;
+    }
+
+    public SocketAddress getRemoteAddress() {
+        return socket.getRemoteSocketAddress();
+    }
+
+    /**
+     * @return the socket connected to the other party.
+     */
+    public Socket getSocket() {
+        return socket;
+    }
+
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The metrics of one protocol step, e.g. {@code Protocol2}, at the time {@link protocol_metrics#getSteps()} was called.
+ * Times are in nanoseconds. Over JMX, this is an open type, so any client can read it.
+ */
+public final class step_snapshot {
+    private final String step;
+    private final long count;
+    private final long total_time;
+    private final long max_time;
+    private final long median_time;
+    private final long p90_time;
+    private final long p99_time;
+    private final long mod_exps;
+
+    @ConstructorProperties({"step", "count", "totalTime", "maxTime", "medianTime", "p90Time", "p99Time", "modExps"})
+    public step_snapshot(String step, long count, long total_time, long max_time,
+                         long median_time, long p90_time, long p99_time, long mod_exps) {
+        this.step = step;
+        this.count = count;
+        this.total_time = total_time;
+        this.max_time = max_time;
+        this.median_time = median_time;
+        this.p90_time = p90_time;
+        this.p99_time = p99_time;
+        this.mod_exps = mod_exps;
+    }
+
+    /**
+     * @return the name of the step, e.g. {@code Protocol2}.
+     */
+    public String getStep() {
+        return step;
+    }
+
+    /**
+     * @return the number of times the step was run.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the time spent in the step, summed over all runs.
+     */
+    public long getTotalTime() {
+        return total_time;
+    }
+
+    /**
+     * @return the slowest run of the step.
+     */
+    public long getMaxTime() {
+        return max_time;
+    }
+
+    /**
+     * @return the median latency of the step.
+     */
+    public long getMedianTime() {
+        return median_time;
+    }
+
+    /**
+     * @return the 90th percentile latency of the step.
+     */
+    public long getP90Time() {
+        return p90_time;
+    }
+
+    /**
+     * @return the 99th percentile latency of the step.
+     */
+    public long getP99Time() {
+        return p99_time;
+    }
+
+    /**
+     * @return the modular exponentiations this party did in the step, summed over all runs.
+     */
+    public long getModExps() {
+        return mod_exps;
+    }
+
+    /**
+     * @return the mean latency of the step, 0 if it never ran.
+     */
+    public double getMeanTime() {
+        return count == 0 ? 0 : (double) total_time / count;
+    }
+
+    /**
+     * @return the modular exponentiations per run of the step, 0 if it never ran.
+     */
+    public double getModExpsPerRun() {
+        return count == 0 ? 0 : (double) mod_exps / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d runs, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms, %.1f modexps/run",
+                step, count, getMeanTime() / 1e6, median_time / 1e6, p99_time / 1e6, max_time / 1e6, getModExpsPerRun());
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Secure top-k selection with a tournament tree (knockout tournament).
+ * The leaves hold the candidates, and each internal node holds the winner of its two children.
+ * Building the tree takes n - 1 comparisons, and the comparisons of one layer are independent,
+ * so they are handed to the comparator together. After the winner is extracted, only the matches
+ * on its path to the root are replayed, which takes at most ceil(log2 n) comparisons.
+ * In total, the k best values cost n - 1 + (k - 1) * ceil(log2 n) comparisons,
+ * instead of about n * k for k passes of bubble sort.
+ * <p>
+ * Every comparison is a secure comparison protocol with Bob, e.g. {@link alice#Protocol2},
+ * so the comparator must announce each one to Bob's sort() loop.
+ * Fewer comparisons do not mean fewer round trips by themselves: only the Paillier comparator of
+ * {@link alice} plays a layer in one set of round trips, with {@link alice#Protocol2Batch}, and only with the binary wire protocol.
+ * In DGK mode, with Java serialization and in {@link alice_elgamal#getKMin}, every match is still its own run of the protocol.
+ *
+ * @param <T> the type of the encrypted values
+ */
+final class tournament_tree<T> {
+
+    /**
+     * Runs a batch of independent secure comparisons.
+     *
+     * @param <T> the type of the encrypted values
+     */
+    @FunctionalInterface
+    interface comparator<T> {
+        /**
+         * @param first the first value of each match.
+         * @param second the second value of each match, same size as first.
+         * @return element i is {@code true} if first[i] beats second[i].
+         * @throws IOException if an I/O error occurs during communication.
+         * @throws ClassNotFoundException if a class cannot be found during deserialization.
+         * @throws HomomorphicException if an error occurs during homomorphic operations.
+         */
+        boolean [] wins(List<T> first, List<T> second)
+                throws IOException, ClassNotFoundException, HomomorphicException;
+    }
+
+    /** Marks a node without a candidate, such as padding leaves or extracted winners. */
+    private static final int EMPTY = -1;
+
+    private final List<T> values;
+    private final comparator<T> comparator;
+
+    /** Number of leaves, the size of the input rounded up to a power of two. */
+    private final int leaves;
+
+    /** tree[node] is the index in values of the winner under node; the root is 1 and leaves start at {@link #leaves}. */
+    private final int [] tree;
+
+    /** The number of comparisons made so far. */
+    private int comparisons = 0;
+
+    /**
+     * Builds the tournament, running the matches of each layer as one batch.
+     *
+     * @param values the candidates.
+     * @param comparator runs the secure comparisons.
+     * @throws IOException if an I/O error occurs during communication.
+     * @throws ClassNotFoundException if a class cannot be found during deserialization.
+     * @throws HomomorphicException if an error occurs during homomorphic operations.
+     */
+    tournament_tree(List<T> values, comparator<T> comparator)
+            throws IOException, ClassNotFoundException, HomomorphicException {
+        this.values = values;
+        this.comparator = comparator;
+        int size = 1;
+        while (size < values.size()) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.tree = new int[2 * size];
+        for (int i = 0; i < size; i++) {
+            tree[size + i] = (i < values.size()) ? i : EMPTY;
+        }
+
+        // Play the layers bottom-up, each layer depends only on the one below it
+        for (int first = size / 2; first >= 1; first /= 2) {
+            List<Integer> nodes = new ArrayList<>();
+            for (int node = first; node < 2 * first; node++) {
+                if (!advance_bye(node)) {
+                    nodes.add(node);
+                }
+            }
+            play(nodes);
+        }
+    }
+
+    /**
+     * Extracts the k best values, best first.
+     *
+     * @param k the number of values to extract.
+     * @return the k best values, best first.
+     * @throws IOException if an I/O error occurs during communication.
+     * @throws ClassNotFoundException if a class cannot be found during deserialization.
+     * @throws HomomorphicException if an error occurs during homomorphic operations.
+     */
+    List<T> top(int k) throws IOException, ClassNotFoundException, HomomorphicException {
+        List<T> best = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            int winner = tree[1];
+            best.add(values.get(winner));
+            if (i == k - 1) {
+                break;
+            }
+            // Remove the winner and replay the matches on its path to the root
+            int node = leaves + winner;
+            tree[node] = EMPTY;
+            for (node /= 2; node >= 1; node /= 2) {
+                if (!advance_bye(node)) {
+                    play(List.of(node));
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return The number of secure comparisons made so far.
+     */
+    int getComparisons() {
+        return comparisons;
+    }
+
+    /**
+     * If a child of the node is empty, the other child advances without a match.
+     *
+     * @return {@code true} if no match is needed at this node.
+     */
+    private boolean advance_bye(int node) {
+        int left = tree[2 * node];
+        int right = tree[2 * node + 1];
+        if (left == EMPTY || right == EMPTY) {
+            tree[node] = (left == EMPTY) ? right : left;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Plays the matches at the given nodes as one batch of comparisons.
+     */
+    private void play(List<Integer> nodes) throws IOException, ClassNotFoundException, HomomorphicException {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        List<T> first = new ArrayList<>(nodes.size());
+        List<T> second = new ArrayList<>(nodes.size());
+        for (int node : nodes) {
+            first.add(values.get(tree[2 * node]));
+            second.add(values.get(tree[2 * node + 1]));
+        }
+        boolean [] wins = comparator.wins(first, second);
+        comparisons += nodes.size();
+        for (int i = 0; i < nodes.size(); i++) {
+            int node = nodes.get(i);
+            tree[node] = wins[i] ? tree[2 * node] : tree[2 * node + 1];
+        }
+    }
+}
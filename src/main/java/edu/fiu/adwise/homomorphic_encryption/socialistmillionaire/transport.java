@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2025 ADWISE Lab, Florida International University (FIU), AndrewQuijano
+ * Licensed under the MIT License. See LICENSE file in the project root for details.
+ */
+package edu.fiu.adwise.homomorphic_encryption.socialistmillionaire;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+
+/**
+ * The connection between Alice and Bob: a pair of byte streams.
+ * A {@link socket_transport} connects them over the network, and a {@link loopback_transport}
+ * connects two parties in the same JVM without any socket.
+ */
+public interface transport extends Closeable {
+
+    /**
+     * @return the stream of bytes from the other party.
+     * @throws IOException if the stream cannot be opened.
+     */
+    InputStream getInputStream() throws IOException;
+
+    /**
+     * @return the stream of bytes to the other party.
+     * @throws IOException if the stream cannot be opened.
+     */
+    OutputStream getOutputStream() throws IOException;
+
+    /**
+     * @return true if the bytes are encrypted on the wire, e.g. by TLS.
+     */
+    default boolean isTLS() {
+        return false;
+    }
+
+    /**
+     * @return the address of the other party, or null if it has none.
+     */
+    default SocketAddress getRemoteAddress() {
+        return null;
+    }
+}
@@ -10,14 +10,32 @@ import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKOperations;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
+import edu.fiu.adwise.homomorphic_encryption.misc.BlindingPool;
+import edu.fiu.adwise.homomorphic_encryption.misc.FingerprintTable;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.KeyPairPool;
+import edu.fiu.adwise.homomorphic_encryption.misc.ModExpCounter;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.misc.PowerTable;
+import edu.fiu.adwise.homomorphic_encryption.misc.PrimeSieve;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigInteger;
 import java.security.KeyPair;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 public class DGKTest implements constants {
     private static DGKPublicKey public_key;
@@ -136,4 +154,285 @@ public class DGKTest implements constants {
         a = DGKOperations.sum_product(encrypted_list_values, plain_list_values, public_key);
         assertEquals(DGKOperations.decrypt(a, private_key), 200);
     }
+
+    @Test
+    public void test_window_size() throws HomomorphicException {
+        // Encryption must be correct for every window size of the fixed-base table for h
+        int original = public_key.getWindowSize();
+        long previous = 0;
+        for (int window = 1; window <= 8; window++) {
+            public_key.setWindowSize(window);
+            assertEquals(window, public_key.getWindowSize());
+            assertTrue(public_key.getWindowTableMemory() > previous);
+            previous = public_key.getWindowTableMemory();
+            for (long i = 0; i < 10; i++) {
+                assertEquals(i, DGKOperations.decrypt(DGKOperations.encrypt(i, public_key), private_key));
+            }
+        }
+        public_key.setWindowSize(original);
+    }
+
+    @Test
+    public void test_blinding_pool() throws HomomorphicException, InterruptedException {
+        BlindingPool pool = public_key.startBlindingPool(2, 8, 1);
+        try {
+            // Wait for the background worker to precompute some factors
+            for (int i = 0; i < 100 && pool.size() < 4; i++) {
+                Thread.sleep(50);
+            }
+            for (long i = 0; i < 20; i++) {
+                assertEquals(i, DGKOperations.decrypt(DGKOperations.encrypt(i, public_key), private_key));
+            }
+            assertTrue(pool.getHits() > 0);
+            assertEquals(20, pool.getHits() + pool.getMisses());
+        }
+        finally {
+            public_key.stopBlindingPool();
+        }
+        assertNull(public_key.getBlindingPool());
+    }
+
+    @Test
+    public void test_parallel_key_generation() throws HomomorphicException, InterruptedException {
+        // Every prime the sieve finds is the first prime of the progression
+        BigInteger start = BigInteger.ONE.shiftLeft(64).add(BigInteger.ONE);
+        BigInteger prime = PrimeSieve.search(start, TWO, PrimeSieve.DEFAULT_WINDOW, null, () -> false);
+        BigInteger expected = start;
+        while (!expected.isProbablePrime(40)) {
+            expected = expected.add(TWO);
+        }
+        assertEquals(expected, prime);
+
+        DGKKeyPairGenerator generator = new DGKKeyPairGenerator(16, 160, KEY_SIZE);
+        generator.setWorkers(3);
+        try (KeyPairPool keys = new KeyPairPool(generator::generateKeyPair, 1, 1)) {
+            KeyPair first = keys.next();
+            KeyPair second = keys.next();
+            assertNotEquals(first.getPublic(), second.getPublic());
+            assertEquals(2, keys.getHits() + keys.getMisses());
+
+            DGKPublicKey pooled_public = (DGKPublicKey) second.getPublic();
+            DGKPrivateKey pooled_private = (DGKPrivateKey) second.getPrivate();
+            for (long i = 0; i < 20; i++) {
+                assertEquals(i, DGKOperations.decrypt(DGKOperations.encrypt(i, pooled_public), pooled_private));
+            }
+            assertEquals(pooled_public.getU().subtract(BigInteger.ONE).longValue(), DGKOperations.decrypt(
+                    DGKOperations.encrypt(pooled_public.getU().subtract(BigInteger.ONE), pooled_public), pooled_private));
+        }
+    }
+
+    @Test
+    public void test_batch() throws HomomorphicException {
+        // Force the parallel path with a chunk size of 1
+        int threshold = BatchExecutor.getThreshold();
+        BatchExecutor.setThreshold(1);
+        try {
+            long [] plain = new long[10];
+            BigInteger [] scalars = new BigInteger[10];
+            for (int i = 0; i < plain.length; i++) {
+                plain[i] = i;
+                scalars[i] = TWO;
+            }
+            BigInteger [] encrypted = DGKOperations.encrypt(plain, public_key);
+            long [] decrypted = DGKOperations.decrypt(encrypted, private_key);
+            long [] sum = DGKOperations.decrypt(DGKOperations.add(encrypted, encrypted, public_key), private_key);
+            long [] shifted = DGKOperations.decrypt(DGKOperations.add_plaintext(encrypted, scalars, public_key), private_key);
+            long [] product = DGKOperations.decrypt(DGKOperations.multiply(encrypted, scalars, public_key), private_key);
+            for (int i = 0; i < plain.length; i++) {
+                assertEquals(i, decrypted[i]);
+                assertEquals(2L * i, sum[i]);
+                assertEquals(i + 2, shifted[i]);
+                assertEquals(2L * i, product[i]);
+            }
+        }
+        finally {
+            BatchExecutor.setThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void test_multi_exponentiation() throws HomomorphicException {
+        // 64 ciphertexts with 40-bit scalars use the bucket method, 3 ciphertexts use modPow
+        BigInteger u = public_key.getU();
+        for (int size : new int[] {3, 64}) {
+            BigInteger [] encrypted = new BigInteger[size];
+            Long [] scalars = new Long[size];
+            BigInteger expected_sum = BigInteger.ZERO;
+            BigInteger expected_product = BigInteger.ZERO;
+            for (int i = 0; i < size; i++) {
+                long plain = NTL.RandomBnd(u).longValue();
+                scalars[i] = NTL.RandomBnd(TWO.pow(40)).longValue();
+                encrypted[i] = DGKOperations.encrypt(plain, public_key);
+                expected_sum = expected_sum.add(BigInteger.valueOf(plain));
+                expected_product = expected_product.add(BigInteger.valueOf(plain).multiply(BigInteger.valueOf(scalars[i])));
+            }
+            BigInteger sum = DGKOperations.sum(encrypted, public_key);
+            assertEquals(expected_sum.mod(u).longValue(), DGKOperations.decrypt(sum, private_key));
+            assertEquals(expected_product.mod(u).longValue(), DGKOperations.decrypt(
+                    DGKOperations.sum_product(encrypted, scalars, public_key), private_key));
+
+            BigInteger rerandomized = DGKOperations.rerandomize(sum, public_key);
+            assertNotEquals(sum, rerandomized);
+            assertEquals(expected_sum.mod(u).longValue(), DGKOperations.decrypt(rerandomized, private_key));
+        }
+
+        // A negative scalar subtracts
+        BigInteger [] encrypted = { DGKOperations.encrypt(5, public_key), DGKOperations.encrypt(3, public_key) };
+        assertEquals(4, DGKOperations.decrypt(
+                DGKOperations.sum_product(encrypted, new Long[] {2L, -2L}, public_key), private_key));
+
+        // An empty range is a fresh encryption of 0, not the identity 1
+        BigInteger empty = DGKOperations.sum(encrypted, public_key, 0);
+        assertNotEquals(BigInteger.ONE, empty);
+        assertEquals(0, DGKOperations.decrypt(empty, private_key));
+        assertNotEquals(BigInteger.ONE, DGKOperations.sum(new BigInteger[0], public_key));
+
+        // So is a sum-product with no terms or only zero scalars
+        empty = DGKOperations.sum_product(new BigInteger[0], new Long[0], public_key);
+        assertNotEquals(BigInteger.ONE, empty);
+        assertEquals(0, DGKOperations.decrypt(empty, private_key));
+        BigInteger zero = DGKOperations.sum_product(encrypted, new Long[] {0L, 0L}, public_key);
+        assertNotEquals(BigInteger.ONE, zero);
+        assertNotEquals(zero, DGKOperations.sum_product(encrypted, new Long[] {0L, 0L}, public_key));
+        assertEquals(0, DGKOperations.decrypt(zero, private_key));
+    }
+
+    @Test
+    public void test_prefix_sum() throws HomomorphicException {
+        long [] plain = {3, 0, 7, 1, 12, 5, 9, 2};
+        BigInteger [] encrypted = DGKOperations.encrypt(plain, public_key);
+        BigInteger [] prefix = DGKOperations.prefix_sum(encrypted, public_key);
+        BigInteger [] suffix = DGKOperations.suffix_sum(encrypted, public_key);
+        assertEquals(plain.length + 1, prefix.length);
+        assertEquals(plain.length + 1, suffix.length);
+
+        long total = 0;
+        for (long value : plain) {
+            total += value;
+        }
+        long running = 0;
+        for (int i = 0; i <= plain.length; i++) {
+            assertEquals(running, DGKOperations.decrypt(prefix[i], private_key));
+            assertEquals(total - running, DGKOperations.decrypt(suffix[i], private_key));
+            assertEquals(DGKOperations.decrypt(DGKOperations.sum(encrypted, public_key, i), private_key),
+                    DGKOperations.decrypt(prefix[i], private_key));
+            if (i < plain.length) {
+                running += plain[i];
+            }
+        }
+    }
+
+    @Test
+    public void test_fingerprint_table() throws HomomorphicException {
+        // Every plaintext of Z_u must decrypt through the fingerprint table
+        long u = public_key.getU().longValue();
+        for (long m = 0; m < u; m += Math.max(1, u / 64)) {
+            assertEquals(m, DGKOperations.decrypt(DGKOperations.encrypt(m, public_key), private_key));
+        }
+        assertEquals(u - 1, DGKOperations.decrypt(DGKOperations.encrypt(u - 1, public_key), private_key));
+
+        // Elements sharing the low 64 bits fall back to comparing the full value
+        BigInteger [] elements = { BigInteger.valueOf(5), BigInteger.valueOf(5).add(TWO.pow(64)), BigInteger.valueOf(7) };
+        FingerprintTable table = new FingerprintTable(elements.length, i -> elements[i]);
+        for (int i = 0; i < elements.length; i++) {
+            table.put(elements[i], i);
+        }
+        assertEquals(3, table.size());
+        assertEquals(2, table.getCollisions());
+        for (int i = 0; i < elements.length; i++) {
+            assertEquals(i, table.get(elements[i]));
+        }
+        assertEquals(-1, table.get(BigInteger.valueOf(5).add(TWO.pow(65))));
+        assertEquals(-1, table.get(BigInteger.valueOf(6)));
+    }
+
+    @Test
+    public void test_power_table()
+            throws HomomorphicException, IOException, ClassNotFoundException, InterruptedException {
+        BigInteger base = BigInteger.valueOf(7);
+        BigInteger modulus = public_key.getN();
+        int size = 3 * PowerTable.CHUNK + 5;
+
+        // Every power is delivered exactly once, and the stored powers match the exponentiation
+        AtomicIntegerArray seen = new AtomicIntegerArray(size);
+        PowerTable table = PowerTable.start(base, modulus, size, true, (start, powers) -> {
+            for (int j = 0; j < powers.length; j++) {
+                seen.incrementAndGet(start + j);
+            }
+        });
+        // Entries that are not ready are computed directly
+        assertEquals(base.modPow(BigInteger.valueOf(size - 1), modulus), table.get(size - 1));
+        table.await();
+        assertTrue(table.isDone());
+        for (int i = 0; i < size; i += 97) {
+            assertEquals(base.modPow(BigInteger.valueOf(i), modulus), table.get(i));
+            assertEquals(1, seen.get(i));
+        }
+        assertEquals(1, seen.get(size - 1));
+
+        // A fresh key decrypts while its lookup table is still being built
+        DGKKeyPairGenerator generator = new DGKKeyPairGenerator();
+        generator.initialize(KEY_SIZE, null);
+        KeyPair dgk = generator.generateKeyPair();
+        DGKPublicKey fresh_public = (DGKPublicKey) dgk.getPublic();
+        DGKPrivateKey fresh_private = (DGKPrivateKey) dgk.getPrivate();
+        long u = fresh_public.getU().longValue();
+        for (long m : new long[] { 0, 1, u / 2, u - 1 }) {
+            assertEquals(m, DGKOperations.decrypt(DGKOperations.encrypt(m, fresh_public), fresh_private));
+        }
+
+        // Racing decryptions on a deserialized key share one lookup table build
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(fresh_private);
+        }
+        DGKPrivateKey copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (DGKPrivateKey) in.readObject();
+        }
+        BigInteger [] encrypted = new BigInteger[8];
+        for (int i = 0; i < encrypted.length; i++) {
+            encrypted[i] = DGKOperations.encrypt(u - 1 - i, fresh_public);
+        }
+        AtomicIntegerArray decrypted = new AtomicIntegerArray(encrypted.length);
+        Thread [] threads = new Thread[encrypted.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    decrypted.set(index, (int) DGKOperations.decrypt(encrypted[index], copy));
+                }
+                catch (HomomorphicException e) {
+                    decrypted.set(index, -1);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        for (int i = 0; i < encrypted.length; i++) {
+            assertEquals(u - 1 - i, decrypted.get(i));
+        }
+    }
+
+    @Test
+    public void test_power_cache() throws HomomorphicException {
+        // g^m for a plaintext outside the lookup table is computed on the first encryption only
+        long [] counts = new long[2];
+        for (int i = 0; i < counts.length; i++) {
+            LongAdder counter = new LongAdder();
+            LongAdder previous = ModExpCounter.setScope(counter);
+            BigInteger encrypted;
+            try {
+                encrypted = DGKOperations.encrypt(-1, public_key);
+            }
+            finally {
+                ModExpCounter.setScope(previous);
+            }
+            counts[i] = counter.sum();
+            assertEquals(public_key.getu() - 1, DGKOperations.decrypt(encrypted, private_key));
+        }
+        assertEquals(counts[0] - 1, counts[1]);
+    }
 }
@@ -9,12 +9,15 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.security.KeyPair;
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ElGamalAddTest implements constants {
     private static ElGamalPublicKey public_key;
@@ -61,6 +64,65 @@ public class ElGamalAddTest implements constants {
         assertEquals(BigInteger.TEN, ElGamalCipher.decrypt(a, private_key));
     }
 
+    @Test
+    public void test_lookup_table() throws IOException {
+        File lut = File.createTempFile("el_gamal", ".lut");
+        lut.deleteOnExit();
+        private_key.writeTable(lut.getPath());
+        private_key.readTable(lut.getPath());
+
+        // Decrypt through the memory-mapped table
+        a = ElGamalCipher.encrypt(HUNDRED, public_key);
+        assertEquals(HUNDRED, ElGamalCipher.decrypt(a, private_key));
+        a = ElGamalCipher.subtract(a, ElGamalCipher.encrypt(HUNDRED, public_key), public_key);
+        assertEquals(BigInteger.ZERO, ElGamalCipher.decrypt(a, private_key));
+    }
+
+    @Test
+    public void test_baby_step_giant_step() {
+        // Decrypt a 33-bit sum, far past the lookup table
+        private_key.setBabySteps(1 << 14);
+        private_key.setMaxMessage(1L << 34);
+        try {
+            BigInteger large = BigInteger.valueOf(3_000_000_000L);
+            a = ElGamalCipher.add(ElGamalCipher.encrypt(large, public_key),
+                    ElGamalCipher.encrypt(large.add(BigInteger.TEN), public_key), public_key);
+            assertEquals(large.add(large).add(BigInteger.TEN), ElGamalCipher.decrypt(a, private_key));
+
+            // Messages in the table are still found directly
+            a = ElGamalCipher.encrypt(HUNDRED, public_key);
+            assertEquals(HUNDRED, ElGamalCipher.decrypt(a, private_key));
+        }
+        finally {
+            private_key.setBabySteps(ElGamalPrivateKey.DEFAULT_BABY_STEPS);
+            private_key.setMaxMessage(ElGamalPrivateKey.DEFAULT_BABY_STEPS);
+        }
+    }
+
+    @Test
+    public void test_fixed_base_tables() {
+        assertEquals(ElGamalPublicKey.DEFAULT_WINDOW_SIZE, public_key.getWindowSize());
+        public_key.setWindowSize(4);
+        public_key.setMessageCache(1 << 10);
+        try {
+            assertTrue(public_key.getWindowTableMemory() > 0);
+            assertEquals(1 << 10, public_key.getMessageCache());
+            // Messages inside and outside the cache, and negative messages
+            for (long m : new long[] { 0, 1, 1023, 1024, 50000 }) {
+                a = ElGamalCipher.encrypt(m, public_key);
+                assertEquals(BigInteger.valueOf(m), ElGamalCipher.decrypt(a, private_key));
+            }
+            a = ElGamalCipher.subtract(ElGamalCipher.encrypt(BigInteger.TEN, public_key),
+                    ElGamalCipher.encrypt(BigInteger.valueOf(-5), public_key), public_key);
+            assertEquals(BigInteger.valueOf(15), ElGamalCipher.decrypt(a, private_key));
+        }
+        finally {
+            public_key.setMessageCache(0);
+            public_key.setWindowSize(ElGamalPublicKey.DEFAULT_WINDOW_SIZE);
+        }
+        assertEquals(0, public_key.getMessageCache());
+    }
+
     @Test
     public void test_divide() {
 
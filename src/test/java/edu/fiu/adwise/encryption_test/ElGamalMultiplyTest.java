@@ -5,6 +5,8 @@
 package edu.fiu.adwise.encryption_test;
 
 import edu.fiu.adwise.homomorphic_encryption.elgamal.*;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
@@ -71,4 +73,66 @@ public class ElGamalMultiplyTest implements constants {
             }
         }
     }
+
+    @Test
+    public void el_gamal_batch_signature() throws HomomorphicException {
+        // Sign in parallel, then verify the whole batch at once
+        BigInteger [] messages = new BigInteger[16];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BigInteger.valueOf(100 + i);
+        }
+        ElGamal_Ciphertext [] signatures = ElGamalSignature.sign(messages, private_key);
+        boolean [] valid = ElGamalSignature.verify(messages, signatures, public_key);
+        for (int i = 0; i < messages.length; i++) {
+            assertTrue(ElGamalSignature.verify(messages[i], signatures[i], public_key));
+            assertTrue(valid[i]);
+        }
+
+        // Bisection finds exactly the invalid signatures, including one out of range
+        BigInteger [] tampered = messages.clone();
+        tampered[0] = FORTY_TWO;
+        tampered[9] = FORTY_TWO;
+        ElGamal_Ciphertext [] out_of_range = signatures.clone();
+        out_of_range[5] = new ElGamal_Ciphertext(public_key.getP(), signatures[5].getB());
+        valid = ElGamalSignature.verify(tampered, out_of_range, public_key);
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(i != 0 && i != 5 && i != 9, valid[i]);
+        }
+        assertThrows(HomomorphicException.class,
+                () -> ElGamalSignature.verify(new BigInteger[] { FORTY_TWO }, signatures, public_key));
+    }
+
+    @Test
+    public void el_gamal_negated_signatures() throws HomomorphicException {
+        // A signer who knows x can make signatures that are each off by a factor -1,
+        // two of them must not cancel in the batch
+        BigInteger p = public_key.getP();
+        BigInteger q = p.shiftRight(1);
+        BigInteger g = BigInteger.valueOf(4);
+        BigInteger x = NTL.RandomBnd(q);
+        BigInteger h = g.modPow(x, p);
+        ElGamalPublicKey signer_public = new ElGamalPublicKey(p, g, h, false);
+        ElGamalPrivateKey signer_private = new ElGamalPrivateKey(p, x, g, h, false);
+
+        BigInteger [] messages = new BigInteger[16];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BigInteger.valueOf(1000 + i);
+        }
+        ElGamal_Ciphertext [] signatures = ElGamalSignature.sign(messages, signer_private);
+        for (int i : new int[] { 4, 7 }) {
+            // r = -g^K and an odd s with x * r + K * s = m (mod q), so h^r * r^s = -g^m (mod p)
+            BigInteger k = NTL.RandomBnd(q.subtract(BigInteger.ONE)).add(BigInteger.ONE);
+            BigInteger r = p.subtract(g.modPow(k, p));
+            BigInteger s = messages[i].subtract(x.multiply(r)).multiply(k.modInverse(q)).mod(q);
+            if (!s.testBit(0)) {
+                s = s.add(q);
+            }
+            signatures[i] = new ElGamal_Ciphertext(r, s);
+            assertFalse(ElGamalSignature.verify(messages[i], signatures[i], signer_public));
+        }
+        boolean [] valid = ElGamalSignature.verify(messages, signatures, signer_public);
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(i != 4 && i != 7, valid[i]);
+        }
+    }
 }
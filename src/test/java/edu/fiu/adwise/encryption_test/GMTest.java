@@ -10,12 +10,18 @@ import edu.fiu.adwise.homomorphic_encryption.gm.GMCipher;
 import edu.fiu.adwise.homomorphic_encryption.gm.GMKeyPairGenerator;
 import edu.fiu.adwise.homomorphic_encryption.gm.GMPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.gm.GMPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.gm.GMVector;
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 import java.math.BigInteger;
 import java.security.KeyPair;
+import java.security.SecureRandom;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
 
 public class GMTest implements constants {
     private static GMPrivateKey private_key;
@@ -46,4 +52,97 @@ public class GMTest implements constants {
         BigInteger [] c = GMCipher.xor(a, a, public_key);
         assertEquals(BigInteger.ZERO, GMCipher.decrypt(c, private_key));
     }
+
+    @Test
+    public void test_jacobi() {
+        // Known values, including a common factor and n = 1
+        assertEquals(-1, NTL.jacobi_symbol(BigInteger.valueOf(1001), BigInteger.valueOf(9907)));
+        assertEquals(1, NTL.jacobi_symbol(BigInteger.valueOf(19), BigInteger.valueOf(45)));
+        assertEquals(-1, NTL.jacobi_symbol(BigInteger.valueOf(8), BigInteger.valueOf(21)));
+        assertEquals(0, NTL.jacobi_symbol(BigInteger.valueOf(6), BigInteger.valueOf(15)));
+        assertEquals(0, NTL.jacobi_symbol(BigInteger.ZERO, BigInteger.valueOf(15)));
+        assertEquals(1, NTL.jacobi_symbol(BigInteger.valueOf(30), BigInteger.ONE));
+        assertEquals(BigInteger.ONE.negate(), NTL.jacobi(BigInteger.valueOf(1001), BigInteger.valueOf(9907)));
+
+        // Legendre symbols of multi-word values match Euler's criterion a^{(p - 1)/2} (mod p),
+        // and the Jacobi symbol modulo pq is their product
+        SecureRandom random = new SecureRandom();
+        BigInteger p = BigInteger.probablePrime(1024, random);
+        BigInteger q = BigInteger.probablePrime(700, random);
+        BigInteger half = p.shiftRight(1);
+        for (int i = 0; i < 50; i++) {
+            BigInteger a = new BigInteger(2048, random);
+            BigInteger euler = a.modPow(half, p);
+            int legendre = euler.equals(BigInteger.ONE) ? 1 : euler.signum() == 0 ? 0 : -1;
+            assertEquals(legendre, NTL.jacobi_symbol(a, p));
+            assertEquals(legendre * NTL.jacobi_symbol(a, q), NTL.jacobi_symbol(a, p.multiply(q)));
+        }
+        assertEquals(0, NTL.jacobi_symbol(p.multiply(BigInteger.TEN), p));
+
+        assertThrows(IllegalArgumentException.class, () -> NTL.jacobi_symbol(BigInteger.ONE, BigInteger.TEN));
+        assertThrows(IllegalArgumentException.class, () -> NTL.jacobi_symbol(BigInteger.ONE.negate(), p));
+    }
+
+    @Test
+    public void test_vector() throws HomomorphicException {
+        // Force the parallel path with a chunk size of 1
+        int threshold = BatchExecutor.getThreshold();
+        BatchExecutor.setThreshold(1);
+        try {
+            BigInteger x = BigInteger.valueOf(0xB5A3);
+            BigInteger y = BigInteger.valueOf(0x0FF0);
+            GMVector cx = GMCipher.encrypt(x, 16, public_key);
+            GMVector cy = GMCipher.encrypt(y, 16, public_key);
+            assertEquals(16, cx.size());
+            assertEquals(x, GMCipher.decrypt(cx, private_key));
+
+            // Leading zero bits are kept, and the vector converts to and from the array form
+            assertEquals(BigInteger.TEN, GMCipher.decrypt(GMCipher.encrypt(BigInteger.TEN, 16, public_key), private_key));
+            assertEquals(x, GMCipher.decrypt(cx.unpack(), private_key));
+            assertEquals(cx, GMVector.pack(cx.unpack(), public_key));
+            assertEquals(BigInteger.TEN, GMCipher.decrypt(GMVector.pack(GMCipher.encrypt(BigInteger.TEN, public_key), public_key), private_key));
+
+            assertEquals(x.xor(y), GMCipher.decrypt(GMCipher.xor(cx, cy, public_key), private_key));
+            assertEquals(BigInteger.ZERO, GMCipher.decrypt(GMCipher.xor(cx, cx, public_key), private_key));
+            assertEquals(x.xor(BigInteger.valueOf(0xFFFF)), GMCipher.decrypt(GMCipher.not(cx, public_key), private_key));
+            assertEquals(x.and(y), GMCipher.decrypt(GMCipher.and(cx, y, public_key), private_key));
+
+            // Blinded AND of two encrypted vectors
+            BigInteger r = NTL.generateXBitRandom(16);
+            BigInteger s = NTL.generateXBitRandom(16);
+            GMVector blinded_x = GMCipher.xor(cx, GMCipher.encrypt(r, 16, public_key), public_key);
+            GMVector blinded_y = GMCipher.xor(cy, GMCipher.encrypt(s, 16, public_key), public_key);
+            assertEquals(x.xor(r), GMCipher.decrypt(blinded_x, private_key));
+            GMVector answer = GMCipher.and_blinded(blinded_x, blinded_y, private_key, public_key);
+            GMVector x_and_y = GMCipher.and_unblind(answer, cx, cy, r, s, public_key);
+            assertEquals(x.and(y), GMCipher.decrypt(x_and_y, private_key));
+
+            // Every bit is re-randomized, so the key holder cannot divide out its answer to learn r and s
+            BigInteger n = public_key.getN();
+            GMVector again = GMCipher.and_unblind(answer, cx, cy, r, s, public_key);
+            for (int i = 0; i < x_and_y.size(); i++) {
+                assertNotEquals(again.get(i), x_and_y.get(i));
+                if (r.testBit(i) && s.testBit(i)) {
+                    continue;
+                }
+                BigInteger product = answer.get(i);
+                if (s.testBit(i)) {
+                    product = product.multiply(cx.get(i)).mod(n);
+                }
+                if (r.testBit(i)) {
+                    product = product.multiply(cy.get(i)).mod(n);
+                }
+                assertNotEquals(product, x_and_y.get(i));
+            }
+
+            // Invalid input
+            GMVector short_vector = GMCipher.encrypt(BigInteger.ONE, 8, public_key);
+            assertThrows(HomomorphicException.class, () -> GMCipher.xor(cx, short_vector, public_key));
+            assertThrows(HomomorphicException.class, () -> GMCipher.encrypt(x, 8, public_key));
+            assertThrows(HomomorphicException.class, () -> GMCipher.encrypt(BigInteger.ONE.negate(), 8, public_key));
+        }
+        finally {
+            BatchExecutor.setThreshold(threshold);
+        }
+    }
 }
@@ -10,15 +10,29 @@ import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierCipher;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPrivateKey;
+import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPublicKey;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
 import edu.fiu.adwise.homomorphic_encryption.elgamal.ElGamalKeyPairGenerator;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.lang.management.ManagementFactory;
 import java.math.BigInteger;
+import java.net.ServerSocket;
 import java.net.Socket;
 import java.security.KeyPair;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.*;
 import org.junit.BeforeClass;
@@ -27,6 +41,9 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class IntegrationTests implements constants
 {
@@ -174,6 +191,10 @@ public class IntegrationTests implements constants
 		};
 
 		for (int i = 0; i < all_bobs.length; i++) {
+			// The plain pair keeps Java serialization, and with it one boolean per comparison in sort()
+			boolean binary_wire = i > 0;
+			all_bobs[i].setBinaryWire(binary_wire);
+			all_alice[i].setBinaryWire(binary_wire);
 			Thread andrew = new Thread(new test_bob(all_bobs[i], 9200 + i));
 			andrew.start();
 
@@ -183,6 +204,7 @@ public class IntegrationTests implements constants
             logger.info("{} is starting...", all_alice[i].getClass().getName());
 
 			all_alice[i].set_socket(new Socket("127.0.0.1", 9200 + i));
+			assertEquals(binary_wire, all_alice[i].isBinaryWire());
 			all_alice[i].receivePublicKeys();
 
 			Thread yujia = new Thread(new test_alice(all_alice[i], paillier, dgk));
@@ -201,6 +223,8 @@ public class IntegrationTests implements constants
 	@Test
 	public void el_gamal_integration_test() throws IOException, InterruptedException, ClassNotFoundException {
 		bob_elgamal bob_version_two = new bob_elgamal(paillier, dgk, el_gamal);
+		// Keep Java serialization covered
+		bob_version_two.setBinaryWire(false);
 		Thread andrew = new Thread(new test_el_gamal_bob(bob_version_two, 10000));
 		andrew.start();
 
@@ -210,7 +234,9 @@ public class IntegrationTests implements constants
 		logger.info("Alice starting...");
 
 		alice_elgamal Niu = new alice_elgamal();
+		Niu.setBinaryWire(false);
 		Niu.set_socket(new Socket("127.0.0.1", 10000));
+		assertFalse(Niu.isBinaryWire());
 		Niu.receivePublicKeys();
 
 		Thread yujia = new Thread(new test_el_gamal_alice(Niu, (ElGamalPrivateKey) el_gamal.getPrivate()));
@@ -222,4 +248,248 @@ public class IntegrationTests implements constants
         logger.info("El Gamal bob wrote {} bytes to the socket", bob_version_two.get_bytes_sent());
 		logger.info("El Gamal alice wrote {} bytes to the socket", Niu.get_bytes_sent());
 	}
+
+	// Test many protocols in flight on one connection
+	@Test
+	public void async_integration_test() throws Exception {
+		ServerSocket server = new ServerSocket(10100);
+		bob_async[] session = new bob_async[1];
+		Thread andrew = new Thread(() -> {
+			try (Socket client = server.accept()) {
+				session[0] = new bob_async(client, () -> new bob(paillier, dgk, el_gamal));
+				session[0].serve();
+			}
+			catch (IOException | InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		andrew.start();
+
+		PaillierPublicKey paillier_public = (PaillierPublicKey) paillier.getPublic();
+		PaillierPrivateKey paillier_private = (PaillierPrivateKey) paillier.getPrivate();
+		BigInteger [] low = generate_low();
+		BigInteger [] high = generate_high();
+
+		try (alice_async yujia = new alice_async(new Socket("127.0.0.1", 10100), 4, alice::new)) {
+			assertEquals(4, yujia.getLanes());
+			List<CompletableFuture<Boolean>> greater = new ArrayList<>();
+			List<CompletableFuture<Boolean>> smaller = new ArrayList<>();
+			for (int i = 0; i < low.length; i++) {
+				greater.add(yujia.Protocol2(PaillierCipher.encrypt(high[i], paillier_public),
+						PaillierCipher.encrypt(low[i], paillier_public)));
+				smaller.add(yujia.Protocol2(PaillierCipher.encrypt(low[i], paillier_public),
+						PaillierCipher.encrypt(high[i], paillier_public)));
+			}
+			CompletableFuture<BigInteger> product = yujia.multiplication(PaillierCipher.encrypt(THOUSAND, paillier_public),
+					PaillierCipher.encrypt(TWO, paillier_public));
+			CompletableFuture<BigInteger> quotient = yujia.division(PaillierCipher.encrypt(HUNDRED, paillier_public), 2);
+			CompletableFuture<Boolean> equal = yujia.encrypted_equals(PaillierCipher.encrypt(FIVE, paillier_public),
+					PaillierCipher.encrypt(FIVE, paillier_public));
+
+			for (int i = 0; i < low.length; i++) {
+				assertTrue(greater.get(i).join());
+				assertFalse(smaller.get(i).join());
+			}
+			assertEquals(TWO_THOUSAND, PaillierCipher.decrypt(product.join(), paillier_private));
+			assertEquals(FIFTY, PaillierCipher.decrypt(quotient.join(), paillier_private));
+			assertTrue(equal.join());
+		}
+		andrew.join();
+		server.close();
+		assertEquals(2L * low.length + 3, session[0].getOperations());
+	}
+
+	// Test one Bob server for several Alice clients, sharing the key pairs
+	@Test
+	public void server_integration_test() throws Exception {
+		bob_server server = new bob_server(new ServerSocket(10200), () -> new bob(paillier, dgk, el_gamal), 2);
+		Thread andrew = new Thread(server);
+		andrew.start();
+
+		PaillierPublicKey paillier_public = (PaillierPublicKey) paillier.getPublic();
+		List<CompletableFuture<Boolean>> clients = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			BigInteger value = BigInteger.valueOf(i);
+			clients.add(CompletableFuture.supplyAsync(() -> {
+				try (alice_async yujia = new alice_async(new Socket("127.0.0.1", 10200), 2, alice::new)) {
+					BigInteger x = PaillierCipher.encrypt(value.add(BigInteger.TEN), paillier_public);
+					BigInteger y = PaillierCipher.encrypt(value, paillier_public);
+					CompletableFuture<Boolean> greater = yujia.Protocol2(x, y);
+					CompletableFuture<Boolean> smaller = yujia.Protocol2(y, x);
+					CompletableFuture<Boolean> equal = yujia.encrypted_equals(x, PaillierCipher.encrypt(value.add(BigInteger.TEN), paillier_public));
+					return greater.join() && !smaller.join() && equal.join();
+				}
+				catch (IOException | ClassNotFoundException | HomomorphicException e) {
+					throw new RuntimeException(e);
+				}
+			}));
+		}
+		for (CompletableFuture<Boolean> client : clients) {
+			assertTrue(client.join());
+		}
+
+		long deadline = System.currentTimeMillis() + 10000;
+		while (server.getSessionsServed() < 3 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+		server.close();
+		andrew.join();
+		assertEquals(3, server.getSessionsServed());
+		assertEquals(9, server.getOperationsServed());
+		assertTrue(server.getSessions().isEmpty());
+	}
+
+	// Test that a Bob server closes the connections past the sessions it can serve and queue
+	@Test
+	public void server_rejection_test() throws Exception {
+		bob_server server = new bob_server(new ServerSocket(10201), () -> new bob(paillier, dgk, el_gamal), 1);
+		Thread andrew = new Thread(server);
+		andrew.start();
+
+		try (Socket served = new Socket("127.0.0.1", 10201);
+			 Socket queued = new Socket("127.0.0.1", 10201);
+			 Socket rejected = new Socket("127.0.0.1", 10201)) {
+			rejected.setSoTimeout(10000);
+			assertEquals(-1, rejected.getInputStream().read());
+		}
+
+		long deadline = System.currentTimeMillis() + 10000;
+		while (server.getSessionsServed() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(100);
+		}
+		server.close();
+		andrew.join();
+		assertEquals(2, server.getSessionsServed());
+	}
+
+	// Test Alice and Bob in one JVM without a socket, over a link with 5 ms of latency
+	@Test
+	public void loopback_integration_test() throws Exception {
+		loopback_transport [] link = loopback_transport.pair(5, TimeUnit.MILLISECONDS, 0);
+		BigInteger [] low = generate_low();
+		BigInteger [] high = generate_high();
+
+		bob andrew = new bob(paillier, dgk, el_gamal);
+		andrew.setBinaryWire(true);
+		Thread bob_thread = new Thread(() -> {
+			try {
+				andrew.set_transport(link[1]);
+				andrew.sendPublicKeys();
+				for (int i = 0; i < low.length; i++) {
+					andrew.Protocol2();
+				}
+				andrew.multiplication();
+				andrew.flush();
+			}
+			catch (IOException | ClassNotFoundException | HomomorphicException e) {
+				throw new RuntimeException(e);
+			}
+		});
+		bob_thread.start();
+
+		alice yujia = new alice();
+		yujia.setBinaryWire(true);
+		AtomicInteger completed_steps = new AtomicInteger();
+		yujia.getMetrics().addSink((step, nanos, mod_exps) -> completed_steps.incrementAndGet());
+		yujia.set_transport(link[0]);
+		assertTrue(yujia.isBinaryWire());
+		yujia.receivePublicKeys();
+		PaillierPublicKey paillier_public = yujia.getPaillierPublicKey();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < low.length; i++) {
+			assertTrue(yujia.Protocol2(PaillierCipher.encrypt(high[i], paillier_public),
+					PaillierCipher.encrypt(low[i], paillier_public)));
+		}
+		BigInteger product = yujia.multiplication(PaillierCipher.encrypt(THOUSAND, paillier_public),
+				PaillierCipher.encrypt(TWO, paillier_public));
+		long elapsed = System.nanoTime() - start;
+		bob_thread.join();
+		link[0].close();
+
+		assertEquals(TWO_THOUSAND, PaillierCipher.decrypt(product, (PaillierPrivateKey) paillier.getPrivate()));
+		// Every protocol takes at least one round trip of 10 ms
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(10) * (low.length + 1));
+
+		// Both parties count the same bytes and messages on the wire
+		protocol_metrics alice_metrics = yujia.getMetrics();
+		protocol_metrics bob_metrics = andrew.getMetrics();
+		assertEquals(alice_metrics.getBytesSent(), bob_metrics.getBytesReceived());
+		assertEquals(bob_metrics.getBytesSent(), alice_metrics.getBytesReceived());
+		assertEquals(alice_metrics.getMessagesSent(), bob_metrics.getMessagesReceived());
+		assertEquals(bob_metrics.getMessagesSent(), alice_metrics.getMessagesReceived());
+		assertEquals(alice_metrics.getBytesSent(), yujia.get_bytes_sent());
+		assertTrue(alice_metrics.getRoundTrips() >= low.length + 1);
+
+		// Protocol1 runs inside Protocol2, so it is not a step of its own
+		step_snapshot comparison = alice_metrics.getStep("Protocol2");
+		assertEquals(low.length, comparison.getCount());
+		assertTrue(comparison.getModExps() > 0);
+		assertTrue(comparison.getMedianTime() >= TimeUnit.MILLISECONDS.toNanos(10));
+		assertEquals(1, alice_metrics.getStep("multiplication").getCount());
+		assertEquals(null, alice_metrics.getStep("Protocol1"));
+		assertEquals(low.length, bob_metrics.getStep("Protocol2").getCount());
+		assertEquals(low.length + 1, completed_steps.get());
+		logger.info("Alice: {}", alice_metrics.getSteps().values());
+		logger.info("Bob: {}", bob_metrics.getSteps().values());
+
+		ObjectName name = alice_metrics.register("loopback_alice");
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			assertEquals(alice_metrics.getRoundTrips(), server.getAttribute(name, "RoundTrips"));
+		}
+		finally {
+			alice_metrics.unregister();
+		}
+	}
+
+	// By default, no negotiation byte is sent, so a peer using plain object streams still works
+	@Test
+	public void wire_compatibility_test() throws Exception {
+		loopback_transport [] link = loopback_transport.pair();
+		bob andrew = new bob(paillier, dgk, el_gamal);
+		ObjectOutputStream to_bob = new ObjectOutputStream(link[0].getOutputStream());
+		to_bob.flush();
+		andrew.set_transport(link[1]);
+		assertFalse(andrew.isBinaryWire());
+
+		ObjectInputStream from_bob = new ObjectInputStream(link[0].getInputStream());
+		andrew.writeObject(TWO_THOUSAND);
+		assertEquals(TWO_THOUSAND, from_bob.readObject());
+		to_bob.writeObject(FIFTY);
+		to_bob.flush();
+		assertEquals(FIFTY, andrew.readObject());
+		link[0].close();
+	}
+
+	// A forged binary frame is rejected before its lengths are allocated
+	@Test
+	public void binary_frame_limits_test() throws Exception {
+		bob andrew = new bob(paillier, dgk, el_gamal);
+		andrew.setBinaryWire(true);
+		andrew.setMaxBatch(10);
+		for (byte [] frame : new byte[][] {
+				// Array frame of 2^31 - 1 values
+				{ 3, 0x7f, -1, -1, -1 },
+				// Matrix frame of two rows of 8 values, more than the max batch in total
+				{ 4, 0, 0, 0, 2, 0, 0, 0, 8, 0, 0, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 8 },
+				// One value of 2^31 - 9 bytes
+				{ 2, 0x7f, -1, -1, -9 }
+		}) {
+			loopback_transport [] link = loopback_transport.pair();
+			link[0].getOutputStream().write(1);
+			link[0].getOutputStream().write(frame);
+			link[0].getOutputStream().flush();
+			andrew.set_transport(link[1]);
+			assertTrue(andrew.isBinaryWire());
+			try {
+				andrew.readObject();
+				fail("Forged frame was accepted");
+			}
+			catch (StreamCorruptedException e) {
+				logger.info("Rejected forged frame: {}", e.getMessage());
+			}
+			link[0].close();
+		}
+	}
 }
@@ -8,10 +8,14 @@ import edu.fiu.adwise.homomorphic_encryption.paillier.*;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import edu.fiu.adwise.homomorphic_encryption.misc.BatchExecutor;
+import edu.fiu.adwise.homomorphic_encryption.misc.BlindingPool;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
+import edu.fiu.adwise.homomorphic_encryption.misc.NTL;
 
 import java.math.BigInteger;
 import java.security.KeyPair;
+import java.security.SecureRandom;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -154,4 +158,252 @@ public class PaillierTest implements constants {
         }
     }
 
+    @Test
+    public void test_decrypt_crt() throws HomomorphicException {
+        // Generated keys keep p and q, so decryption goes through CRT
+        assertTrue(private_key.hasCRT());
+        BigInteger n_minus_one = public_key.getN().subtract(BigInteger.ONE);
+        assertEquals(n_minus_one, PaillierCipher.decrypt(PaillierCipher.encrypt(n_minus_one, public_key), private_key));
+        assertEquals(BigInteger.ZERO, PaillierCipher.decrypt(PaillierCipher.encrypt(BigInteger.ZERO, public_key), private_key));
+        for (int i = 0; i < 20; i++) {
+            BigInteger x = NTL.RandomBnd(public_key.getN());
+            assertEquals(x, PaillierCipher.decrypt(PaillierCipher.encrypt(x, public_key), private_key));
+        }
+    }
+
+    @Test
+    public void test_blinding_pool() throws HomomorphicException, InterruptedException {
+        BlindingPool pool = public_key.startBlindingPool(2, 8, 1);
+        try {
+            // Wait for the background worker to precompute some factors
+            for (int i = 0; i < 100 && pool.size() < 4; i++) {
+                Thread.sleep(50);
+            }
+            for (int i = 0; i < 20; i++) {
+                assertEquals(BigInteger.valueOf(i),
+                        PaillierCipher.decrypt(PaillierCipher.encrypt(i, public_key), private_key));
+            }
+            assertTrue(pool.getHits() > 0);
+            assertEquals(20, pool.getHits() + pool.getMisses());
+        }
+        finally {
+            public_key.stopBlindingPool();
+        }
+        assertNull(public_key.getBlindingPool());
+    }
+
+    @Test
+    public void paillier_batch_signature() throws HomomorphicException {
+        // Sign in parallel, then verify the whole batch at once
+        BigInteger [] messages = new BigInteger[16];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BigInteger.valueOf(100 + i);
+        }
+        List<List<BigInteger>> signatures = PaillierSignature.sign(messages, private_key);
+        assertEquals(messages.length, signatures.size());
+        for (int i = 0; i < messages.length; i++) {
+            assertTrue(PaillierSignature.verify(messages[i], signatures.get(i), public_key));
+        }
+        boolean [] valid = PaillierSignature.verify(messages, signatures, public_key);
+        for (boolean answer : valid) {
+            assertTrue(answer);
+        }
+
+        // Bisection finds exactly the invalid signatures
+        BigInteger [] tampered = messages.clone();
+        tampered[3] = FORTY_TWO;
+        tampered[11] = FORTY_TWO;
+        tampered[12] = public_key.getModulus();
+        valid = PaillierSignature.verify(tampered, signatures, public_key);
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(i != 3 && i != 11 && i != 12, valid[i]);
+        }
+        assertThrows(HomomorphicException.class,
+                () -> PaillierSignature.verify(new BigInteger[] { FORTY_TWO }, signatures, public_key));
+    }
+
+    @Test
+    public void paillier_negated_signatures() throws HomomorphicException {
+        // Negating sigma_two makes each signature off by a factor -1, two of them must not cancel in the batch
+        assertTrue(public_key.getN().testBit(1));
+        BigInteger [] messages = new BigInteger[16];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BigInteger.valueOf(1000 + i);
+        }
+        List<List<BigInteger>> signatures = new ArrayList<>(PaillierSignature.sign(messages, private_key));
+        for (int i : new int[] { 1, 2 }) {
+            List<BigInteger> negated = new ArrayList<>(signatures.get(i));
+            negated.set(1, public_key.getModulus().subtract(negated.get(1)));
+            signatures.set(i, negated);
+            assertFalse(PaillierSignature.verify(messages[i], negated, public_key));
+        }
+        boolean [] valid = PaillierSignature.verify(messages, signatures, public_key);
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(i != 1 && i != 2, valid[i]);
+        }
+    }
+
+    @Test
+    public void paillier_batch_signature_one_mod_four() throws HomomorphicException {
+        // Keys made elsewhere may have n = 1 (mod 4), where the batch compares squares
+        SecureRandom rnd = new SecureRandom();
+        BigInteger p = BigInteger.probablePrime(KEY_SIZE / 2, rnd);
+        BigInteger q;
+        do {
+            q = BigInteger.probablePrime(KEY_SIZE / 2, rnd);
+        } while (q.equals(p) || q.testBit(1) != p.testBit(1));
+        BigInteger n = p.multiply(q);
+        assertFalse(n.testBit(1));
+        BigInteger modulus = n.multiply(n);
+        BigInteger lambda = p.subtract(BigInteger.ONE).multiply(q.subtract(BigInteger.ONE));
+        BigInteger g = n.add(BigInteger.ONE);
+        PaillierPublicKey one_public = new PaillierPublicKey(KEY_SIZE, n, modulus, g);
+        PaillierPrivateKey one_private = new PaillierPrivateKey(KEY_SIZE, n, modulus, lambda, lambda.modInverse(n),
+                g, TWO, p, q);
+
+        BigInteger [] messages = new BigInteger[16];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = BigInteger.valueOf(1000 + i);
+        }
+        List<List<BigInteger>> signatures = PaillierSignature.sign(messages, one_private);
+        boolean [] valid = PaillierSignature.verify(messages, signatures, one_public);
+        for (boolean answer : valid) {
+            assertTrue(answer);
+        }
+
+        BigInteger [] tampered = messages.clone();
+        tampered[2] = FORTY_TWO;
+        tampered[9] = FORTY_TWO;
+        valid = PaillierSignature.verify(tampered, signatures, one_public);
+        for (int i = 0; i < messages.length; i++) {
+            assertEquals(i != 2 && i != 9, valid[i]);
+        }
+
+        // The weaker guarantee: a negated sigma_two signs n^2 - m, and is only accepted up to that sign
+        List<BigInteger> negated = new ArrayList<>(signatures.get(5));
+        negated.set(1, modulus.subtract(negated.get(1)));
+        assertFalse(PaillierSignature.verify(messages[5], negated, one_public));
+        assertTrue(PaillierSignature.verify(modulus.subtract(messages[5]), negated, one_public));
+    }
+
+    @Test
+    public void test_fast_generator() throws HomomorphicException {
+        // Keys with g = n + 1 compute g^m with one multiplication
+        PaillierKeyPairGenerator pa = new PaillierKeyPairGenerator();
+        pa.initialize(KEY_SIZE, null, true);
+        KeyPair paillier = pa.generateKeyPair();
+        PaillierPublicKey fast_public_key = (PaillierPublicKey) paillier.getPublic();
+        PaillierPrivateKey fast_private_key = (PaillierPrivateKey) paillier.getPrivate();
+        assertTrue(fast_public_key.isFastGenerator());
+        assertFalse(public_key.isFastGenerator());
+
+        a = PaillierCipher.encrypt(BigInteger.TEN, fast_public_key);
+        assertEquals(BigInteger.TEN, PaillierCipher.decrypt(a, fast_private_key));
+        a = PaillierCipher.add_plaintext(a, BigInteger.TEN, fast_public_key);
+        assertEquals(TWENTY, PaillierCipher.decrypt(a, fast_private_key));
+        a = PaillierCipher.add_plaintext(a, BigInteger.ONE.negate(), fast_public_key);
+        assertEquals(BigInteger.valueOf(19), PaillierCipher.decrypt(a, fast_private_key));
+        a = PaillierCipher.subtract_plaintext(a, BigInteger.TEN, fast_public_key);
+        assertEquals(BigInteger.valueOf(9), PaillierCipher.decrypt(a, fast_private_key));
+        a = PaillierCipher.subtract_ciphertext(FIFTY, PaillierCipher.encrypt(TWENTY, fast_public_key), fast_public_key);
+        assertEquals(THIRTY, PaillierCipher.decrypt(a, fast_private_key));
+
+        // Signatures work with any valid g
+        List<BigInteger> signed_answer = PaillierSignature.sign(FORTY_TWO, fast_private_key);
+        assertTrue(PaillierSignature.verify(FORTY_TWO, signed_answer, fast_public_key));
+        assertFalse(PaillierSignature.verify(FIFTY, signed_answer, fast_public_key));
+    }
+
+    @Test
+    public void test_parallel_key_generation() throws HomomorphicException {
+        // p and q are found by several workers, and n has exactly the requested number of bits
+        PaillierKeyPairGenerator pa = new PaillierKeyPairGenerator();
+        pa.initialize(KEY_SIZE, null);
+        pa.setWorkers(3);
+        KeyPair paillier = pa.generateKeyPair();
+        PaillierPublicKey parallel_public_key = (PaillierPublicKey) paillier.getPublic();
+        PaillierPrivateKey parallel_private_key = (PaillierPrivateKey) paillier.getPrivate();
+        assertEquals(KEY_SIZE, parallel_public_key.getN().bitLength());
+        assertTrue(parallel_private_key.hasCRT());
+
+        a = PaillierCipher.encrypt(FORTY_TWO, parallel_public_key);
+        assertEquals(FORTY_TWO, PaillierCipher.decrypt(a, parallel_private_key));
+        a = PaillierCipher.add_plaintext(a, BigInteger.TEN, parallel_public_key);
+        assertEquals(BigInteger.valueOf(52), PaillierCipher.decrypt(a, parallel_private_key));
+
+        // The search of g is kept for signatures
+        List<BigInteger> signed_answer = PaillierSignature.sign(FORTY_TWO, parallel_private_key);
+        assertTrue(PaillierSignature.verify(FORTY_TWO, signed_answer, parallel_public_key));
+        assertFalse(PaillierSignature.verify(FIFTY, signed_answer, parallel_public_key));
+    }
+
+    @Test
+    public void test_batch() throws HomomorphicException {
+        // Force the parallel path with a chunk size of 1
+        int threshold = BatchExecutor.getThreshold();
+        BatchExecutor.setThreshold(1);
+        try {
+            long [] plain = new long[10];
+            BigInteger [] scalars = new BigInteger[10];
+            for (int i = 0; i < plain.length; i++) {
+                plain[i] = i;
+                scalars[i] = TWO;
+            }
+            BigInteger [] encrypted = PaillierCipher.encrypt(plain, public_key);
+            BigInteger [] decrypted = PaillierCipher.decrypt(encrypted, private_key);
+            BigInteger [] sum = PaillierCipher.decrypt(PaillierCipher.add(encrypted, encrypted, public_key), private_key);
+            BigInteger [] shifted = PaillierCipher.decrypt(PaillierCipher.add_plaintext(encrypted, scalars, public_key), private_key);
+            BigInteger [] product = PaillierCipher.decrypt(PaillierCipher.multiply(encrypted, scalars, public_key), private_key);
+            for (int i = 0; i < plain.length; i++) {
+                assertEquals(BigInteger.valueOf(i), decrypted[i]);
+                assertEquals(BigInteger.valueOf(2L * i), sum[i]);
+                assertEquals(BigInteger.valueOf(i + 2), shifted[i]);
+                assertEquals(BigInteger.valueOf(2L * i), product[i]);
+            }
+        }
+        finally {
+            BatchExecutor.setThreshold(threshold);
+        }
+    }
+
+    @Test
+    public void test_multi_exponentiation() throws HomomorphicException {
+        // 64 ciphertexts with 40-bit scalars use the bucket method, 3 ciphertexts use modPow
+        for (int size : new int[] {3, 64}) {
+            BigInteger [] encrypted = new BigInteger[size];
+            Long [] scalars = new Long[size];
+            BigInteger expected_sum = BigInteger.ZERO;
+            BigInteger expected_product = BigInteger.ZERO;
+            for (int i = 0; i < size; i++) {
+                BigInteger plain = NTL.RandomBnd(TWO.pow(32));
+                scalars[i] = NTL.RandomBnd(TWO.pow(40)).longValue();
+                encrypted[i] = PaillierCipher.encrypt(plain, public_key);
+                expected_sum = expected_sum.add(plain);
+                expected_product = expected_product.add(plain.multiply(BigInteger.valueOf(scalars[i])));
+            }
+            BigInteger sum = PaillierCipher.sum(encrypted, public_key);
+            assertEquals(expected_sum, PaillierCipher.decrypt(sum, private_key));
+            assertEquals(expected_product, PaillierCipher.decrypt(
+                    PaillierCipher.sum_product(encrypted, scalars, public_key), private_key));
+
+            BigInteger rerandomized = PaillierCipher.rerandomize(sum, public_key);
+            assertNotEquals(sum, rerandomized);
+            assertEquals(expected_sum, PaillierCipher.decrypt(rerandomized, private_key));
+        }
+        // An empty range is a fresh encryption of 0, not the identity 1
+        BigInteger empty = PaillierCipher.sum(new BigInteger[0], public_key);
+        assertNotEquals(BigInteger.ONE, empty);
+        assertEquals(BigInteger.ZERO, PaillierCipher.decrypt(empty, private_key));
+        assertNotEquals(BigInteger.ONE, PaillierCipher.sum(List.of(empty), public_key, 0));
+
+        // So is a sum-product with no terms or only zero scalars
+        empty = PaillierCipher.sum_product(new BigInteger[0], new Long[0], public_key);
+        assertNotEquals(BigInteger.ONE, empty);
+        assertEquals(BigInteger.ZERO, PaillierCipher.decrypt(empty, private_key));
+        BigInteger [] encrypted = { PaillierCipher.encrypt(5, public_key), PaillierCipher.encrypt(3, public_key) };
+        BigInteger zero = PaillierCipher.sum_product(encrypted, new Long[] {0L, 0L}, public_key);
+        assertNotEquals(BigInteger.ONE, zero);
+        assertNotEquals(zero, PaillierCipher.sum_product(encrypted, new Long[] {0L, 0L}, public_key));
+        assertEquals(BigInteger.ZERO, PaillierCipher.decrypt(zero, private_key));
+    }
 }
@@ -7,16 +7,26 @@ package edu.fiu.adwise.encryption_test;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKKeyPairGenerator;
+import edu.fiu.adwise.homomorphic_encryption.dgk.DGKOperations;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.dgk.DGKPublicKey;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierKeyPairGenerator;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPrivateKey;
 import edu.fiu.adwise.homomorphic_encryption.paillier.PaillierPublicKey;
+import edu.fiu.adwise.homomorphic_encryption.misc.FingerprintTable;
+import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 
 import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.KeyPair;
+import java.util.Arrays;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -60,6 +70,68 @@ public class UtilTest implements constants {
         logger.info("READ/WRITE TEST ON DGK DONE");
     }
 
+    @Test
+    public void test_store_dgk_table() throws IOException, ClassNotFoundException, HomomorphicException {
+        dgk_private_key.writeKey("dgk.priv");
+        dgk_private_key.writeTable("dgk.lut");
+
+        // The sidecar table is memory-mapped instead of rebuilt
+        DGKPrivateKey other_dgk_private = DGKPrivateKey.readKey("dgk.priv", "dgk.lut");
+        assertEquals(dgk_private_key, other_dgk_private);
+        long u = dgk_public_key.getU().longValue();
+        for (long m = 0; m < u; m += Math.max(1, u / 32)) {
+            assertEquals(m, DGKOperations.decrypt(DGKOperations.encrypt(m, dgk_public_key), other_dgk_private));
+        }
+
+        // A table of another key is rejected
+        DGKKeyPairGenerator dgk_generator = new DGKKeyPairGenerator();
+        dgk_generator.initialize(KEY_SIZE, null);
+        DGKPrivateKey stale = (DGKPrivateKey) dgk_generator.generateKeyPair().getPrivate();
+        stale.writeTable("dgk.lut");
+        assertThrows(IllegalArgumentException.class, () -> other_dgk_private.readTable("dgk.lut"));
+
+        // Loading with a stale sidecar rebuilds and replaces it
+        DGKPrivateKey rebuilt = DGKPrivateKey.readKey("dgk.priv", "dgk.lut");
+        assertEquals(7, DGKOperations.decrypt(DGKOperations.encrypt(7, dgk_public_key), rebuilt));
+        other_dgk_private.readTable("dgk.lut");
+        logger.info("READ/WRITE TEST ON DGK LOOKUP TABLE DONE");
+    }
+
+    @Test
+    public void test_damaged_table() throws IOException, ClassNotFoundException, HomomorphicException {
+        // A table whose two collision entries hold 1 + 8 and 9 + 8 bytes
+        BigInteger [] elements = { BigInteger.valueOf(5), BigInteger.valueOf(5).add(TWO.pow(64)), BigInteger.valueOf(7) };
+        FingerprintTable table = new FingerprintTable(elements.length, i -> elements[i]);
+        for (int i = 0; i < elements.length; i++) {
+            table.put(elements[i], i);
+        }
+        byte [] digest = FingerprintTable.digest(BigInteger.ONE);
+        table.write("fingerprint.lut", digest);
+        Path file = Paths.get("fingerprint.lut");
+        byte [] written = Files.readAllBytes(file);
+        assertEquals(2, FingerprintTable.read("fingerprint.lut", digest).getCollisions());
+
+        // Cut inside the header of the first collision entry
+        Files.write(file, Arrays.copyOf(written, written.length - 26 + 4));
+        assertThrows(StreamCorruptedException.class, () -> FingerprintTable.read("fingerprint.lut", digest));
+
+        // Slots that are all full would make a miss probe forever
+        byte [] full = written.clone();
+        Arrays.fill(full, 48, written.length - 26, (byte) 1);
+        Files.write(file, full);
+        assertThrows(StreamCorruptedException.class, () -> FingerprintTable.read("fingerprint.lut", digest));
+        Files.delete(file);
+
+        // Loading a key with a truncated sidecar rebuilds and replaces it
+        dgk_private_key.writeKey("dgk.priv");
+        dgk_private_key.writeTable("dgk.lut");
+        written = Files.readAllBytes(Paths.get("dgk.lut"));
+        Files.write(Paths.get("dgk.lut"), Arrays.copyOf(written, written.length / 2));
+        DGKPrivateKey rebuilt = DGKPrivateKey.readKey("dgk.priv", "dgk.lut");
+        assertEquals(7, DGKOperations.decrypt(DGKOperations.encrypt(7, dgk_public_key), rebuilt));
+        assertEquals(written.length, Files.size(Paths.get("dgk.lut")));
+    }
+
     @Test
     public void test_store_paillier() throws IOException, ClassNotFoundException {
         paillier_public_key.writeKey("paillier.pub");
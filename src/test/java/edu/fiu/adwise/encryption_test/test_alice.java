@@ -71,6 +71,8 @@ public class test_alice implements Runnable, constants
 
 			test_sorting(true);
 			test_sorting(false);
+			test_sorting_max(true);
+			test_sorting_max(false);
 
 			test_private_equality(true);
 			test_private_equality(false);
@@ -135,6 +137,43 @@ public class test_alice implements Runnable, constants
         logger.info("Three minimum numbers: {}", Arrays.toString(min));
 	}
 
+	public void test_sorting_max(boolean dgk_mode)
+			throws ClassNotFoundException, IOException, HomomorphicException {
+
+        logger.info("{}: Testing Sorting largest values with DGK Mode: {}", alice_class, dgk_mode);
+		BigInteger [] plain = new BigInteger[low.length];
+		BigInteger [] toSort = new BigInteger[low.length];
+		BigInteger [] max;
+
+		Niu.setDGKMode(dgk_mode);
+		if (dgk_mode && Niu.getClass() == alice.class) {
+            logger.info("{}: Skipping Sorting because will crash with this alice version...", alice_class);
+			return;
+		}
+		for(int i = 0; i < low.length; i++) {
+			plain[i] = NTL.generateXBitRandom(9);
+			if (dgk_mode) {
+				toSort[i] = DGKOperations.encrypt(plain[i], dgk_public_key);
+			}
+			else {
+				toSort[i] = PaillierCipher.encrypt(plain[i], paillier_public);
+			}
+		}
+
+		max = Niu.getKValues(toSort, 3, false);
+		Arrays.sort(plain);
+		for (int i = 0; i < max.length; i++) {
+			if (dgk_mode) {
+				max[i] = BigInteger.valueOf(DGKOperations.decrypt(max[i], dgk_private));
+			}
+			else {
+				max[i] = PaillierCipher.decrypt(max[i], paillier_private);
+			}
+			assertEquals(plain[plain.length - max.length + i], max[i]);
+		}
+        logger.info("Three maximum numbers: {}", Arrays.toString(max));
+	}
+
 	public void test_outsourced_multiply(boolean dgk_mode)
 			throws HomomorphicException, IOException, ClassNotFoundException {
 		Niu.setDGKMode(dgk_mode);
@@ -307,6 +346,24 @@ public class test_alice implements Runnable, constants
 						PaillierCipher.encrypt(mid[i], paillier_public));
 				assertTrue(answer);
 			}
+
+			// Same comparisons as one batch: low >= mid, mid >= mid, high >= mid
+			BigInteger [] x = new BigInteger[3 * low.length];
+			BigInteger [] y = new BigInteger[3 * low.length];
+			for (int i = 0; i < low.length; i++) {
+				x[3 * i] = PaillierCipher.encrypt(low[i], paillier_public);
+				x[3 * i + 1] = PaillierCipher.encrypt(mid[i], paillier_public);
+				x[3 * i + 2] = PaillierCipher.encrypt(high[i], paillier_public);
+				for (int j = 0; j < 3; j++) {
+					y[3 * i + j] = PaillierCipher.encrypt(mid[i], paillier_public);
+				}
+			}
+			boolean [] answers = Niu.Protocol2Batch(x, y);
+			for (int i = 0; i < low.length; i++) {
+				assertFalse(answers[3 * i]);
+				assertTrue(answers[3 * i + 1]);
+				assertTrue(answers[3 * i + 2]);
+			}
 		}
 	}
 
@@ -9,6 +9,7 @@ import java.math.BigInteger;
 import java.net.ServerSocket;
 import java.net.Socket;
 
+import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob_elgamal;
 import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob_joye;
 import edu.fiu.adwise.homomorphic_encryption.misc.HomomorphicException;
 import edu.fiu.adwise.homomorphic_encryption.socialistmillionaire.bob;
@@ -57,6 +58,8 @@ public class test_bob implements Runnable, constants
 
 			test_sorting(true);
 			test_sorting(false);
+			test_sorting_max(true);
+			test_sorting_max(false);
 
 			test_private_equality(true);
 			test_private_equality(false);
@@ -185,6 +188,16 @@ public class test_bob implements Runnable, constants
 				answer = andrew.Protocol2();
 				assertTrue(answer);
 			}
+
+			// Same comparisons as one batch, El Gamal Alice only uses Protocol 4
+			if (andrew.getClass() != bob_elgamal.class) {
+				boolean [] answers = andrew.Protocol2Batch();
+				for (int i = 0; i < mid.length; i++) {
+					assertFalse(answers[3 * i]);
+					assertTrue(answers[3 * i + 1]);
+					assertTrue(answers[3 * i + 2]);
+				}
+			}
 		}
 	}
 
@@ -203,6 +216,16 @@ public class test_bob implements Runnable, constants
 		}
 	}
 
+	public void test_sorting_max(boolean dgk_mode) throws HomomorphicException, IOException, ClassNotFoundException {
+        logger.info("{}: Testing Sorting largest values, DGK Mode:{}", bob_class_name, dgk_mode);
+		andrew.setDGKMode(dgk_mode);
+		if (dgk_mode && andrew.getClass() == bob.class) {
+            logger.info("{}: Skipping Sorting because will crash with this alice version...", bob_class_name);
+			return;
+		}
+		andrew.sort();
+	}
+
 	public void test_private_equality(boolean dgk_mode) throws HomomorphicException, IOException, ClassNotFoundException {
         logger.info("{}: Testing Equality Check w/o encryption, DGK Mode:{}", bob_class_name, dgk_mode);
 		andrew.setDGKMode(dgk_mode);